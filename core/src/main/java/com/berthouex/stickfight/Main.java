@@ -1,5 +1,7 @@
 package com.berthouex.stickfight;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -8,40 +10,76 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
 import com.berthouex.stickfight.objects.Fighter;
 import com.berthouex.stickfight.objects.FighterChoice;
 import com.berthouex.stickfight.objects.Player;
+import com.berthouex.stickfight.objects.RenderQueue;
+import com.berthouex.stickfight.objects.Skeleton;
 import com.berthouex.stickfight.resources.Assets;
 import com.berthouex.stickfight.resources.AudioManager;
 import com.berthouex.stickfight.resources.SettingsManager;
+import com.berthouex.stickfight.screen.ArenaScreen;
 import com.berthouex.stickfight.screen.GameScreen;
 import com.berthouex.stickfight.screen.LoadingScreen;
 import com.berthouex.stickfight.screen.MainMenuScreen;
 import com.berthouex.stickfight.screen.SettingsScreen;
+import com.berthouex.stickfight.simulation.ArenaSimulation;
+import com.berthouex.stickfight.simulation.ReplayPlayback;
 
 /** {@link com.badlogic.gdx.ApplicationListener} implementation shared by all platforms. */
 public class Main extends Game {
     public SettingsManager settingsManager;
     public ShapeRenderer shapeRenderer;
     public SpriteBatch batch;
+    public RenderQueue renderQueue; // sorts the scene before it is drawn with the batch
     public Assets assets;
     public AudioManager audioManager;
 
-    public Screen gameScreen;
+    public GameScreen gameScreen;
     public Screen mainMenuScreen;
     public Screen settingsScreen;
     public Screen loadingScreen;
+    public Screen arenaScreen;
 
     public final List<FighterChoice> fighterChoiceList = new ArrayList<>();
     public Player player;
     public Fighter opponent;
+    public Skeleton skeleton; // null unless fighters are drawn as skeletons
+
+    /** replay to watch instead of showing the main menu, relative to the working directory **/
+    private final String replayPath;
+    /** fighters in the free-for-all arena to show instead of the main menu, or 0 **/
+    private final int arenaFighterCount;
+
+    /** whether to draw fighters as skeletons rather than from their sprite sheets **/
+    private final boolean skeletal;
+
+    /** whether the window is in the background, where the platform may draw fewer frames **/
+    private boolean inBackground;
+
+    public Main() {
+        this(null, 0, false);
+    }
+
+    /**
+     * @param replayPath        a recorded match to play back on startup, or <code>null</code>
+     * @param arenaFighterCount the number of fighters in a free-for-all arena to start in, or 0
+     * @param skeletal          <code>true</code> to draw fighters as skeletons rather than from their sprite sheets
+     */
+    public Main(String replayPath, int arenaFighterCount, boolean skeletal) {
+        this.replayPath = replayPath;
+        this.arenaFighterCount = arenaFighterCount;
+        this.skeletal = skeletal;
+    }
 
     @Override
     public void create() {
         batch = new SpriteBatch();
+        renderQueue = new RenderQueue(64); // grows to fit bigger scenes, such as the arena
         shapeRenderer = new ShapeRenderer();
         assets = new Assets();
 
@@ -71,6 +109,7 @@ public class Main extends Game {
         }
 
         loadFighterChoiceList();
+        skeleton = loadSkeleton();
 
         player = new Player(this, fighterChoiceList.get(0).getName(), fighterChoiceList.get(0).getColor());
         opponent = new Fighter(this, fighterChoiceList.get(1).getName(), fighterChoiceList.get(1).getColor());
@@ -80,7 +119,53 @@ public class Main extends Game {
         mainMenuScreen = new MainMenuScreen(this);
         settingsScreen = new SettingsScreen(this);
 
-        setScreen(mainMenuScreen);
+        ReplayPlayback replay = loadReplay();
+        if (replay != null) {
+            gameScreen.playReplay(replay);
+            setScreen(gameScreen);
+        } else if (arenaFighterCount > 0) {
+            int fighterCount = Math.min(Math.max(arenaFighterCount, ArenaSimulation.MIN_FIGHTERS), ArenaSimulation.MAX_FIGHTERS);
+            arenaScreen = new ArenaScreen(this, fighterCount);
+            setScreen(arenaScreen);
+        } else {
+            setScreen(mainMenuScreen);
+        }
+    }
+
+    /**
+     * Read the replay given on startup, if any
+     *
+     * @return  the replay, or <code>null</code> if there is none or it can't be read
+     */
+    private ReplayPlayback loadReplay() {
+        if (replayPath == null) {
+            return null;
+        }
+
+        try (InputStream in = Gdx.files.local(replayPath).read()) {
+            return ReplayPlayback.read(in);
+        } catch (IOException | GdxRuntimeException e) {
+            Gdx.app.error("Main", "Unable to load replay " + replayPath, e);
+            return null;
+        }
+    }
+
+    /**
+     * Read the fighters' poses, if they are drawn as skeletons
+     *
+     * @return  the poses, or <code>null</code> to draw fighters from their sprite sheets
+     */
+    private Skeleton loadSkeleton() {
+        if (!skeletal) {
+            return null;
+        }
+
+        try (InputStream in = Gdx.files.internal("data/skeleton.txt").read()) {
+            return Skeleton.read(in);
+        } catch (IOException | GdxRuntimeException e) {
+            Gdx.app.error("Main", "Unable to load skeleton, drawing sprites instead", e);
+            return null;
+        }
     }
 
     /**
@@ -94,6 +179,37 @@ public class Main extends Game {
         }
     }
 
+    /**
+     * Stops drawing frames until something asks for one, on screens where nothing moves, or goes back to drawing every
+     * frame. While idle, input always asks for a frame; anything else that changes the screen must call
+     * {@link com.badlogic.gdx.Graphics#requestRendering()}.
+     *
+     * @param idle  <code>true</code> to only draw frames when asked, <code>false</code> to draw every frame
+     */
+    public void setIdle(boolean idle) {
+        if (Gdx.graphics.isContinuousRendering() != idle) {
+            return;
+        }
+
+        Gdx.graphics.setContinuousRendering(!idle);
+        // the screen may have just been switched, and the new one not drawn yet
+        Gdx.graphics.requestRendering();
+    }
+
+    /**
+     * Told by the platform when the window loses or gets back focus. Frames drawn in the background may be held back
+     * on purpose, so they say nothing about how fast the machine is.
+     *
+     * @param inBackground  <code>true</code> if the window is in the background
+     */
+    public void setInBackground(boolean inBackground) {
+        this.inBackground = inBackground;
+    }
+
+    public boolean isInBackground() {
+        return inBackground;
+    }
+
     @Override
     public void render() {
         super.render();
@@ -101,6 +217,9 @@ public class Main extends Game {
 
     @Override
     public void dispose() {
+        if (gameScreen != null) {
+            gameScreen.dispose(); // frees the blood layer's frame buffer
+        }
         batch.dispose();
         shapeRenderer.dispose();
         assets.dispose();
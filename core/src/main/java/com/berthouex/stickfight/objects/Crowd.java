@@ -0,0 +1,325 @@
+package com.berthouex.stickfight.objects;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * The audience in the stands around the ring. Every member is the same quad, shaped into a head, shoulders and arms by
+ * the fragment shader, so the crowd needs no texture. With GL30, the whole crowd is one instanced draw call: each
+ * member's place, tint and motion is one entry of an instance buffer, and the shader animates them all from the time
+ * alone. The buffer is only written again when the crowd reacts to a round.
+ * <p>
+ * Without GL30, the same data is repeated for each corner of each member in one ordinary mesh, which is still one draw
+ * call.
+ * <p>
+ * Members are placed on the dark stands of the background, where nothing of the ring is in front of them, from the
+ * back rows to the front so nearer members cover further ones. The crowd is queued in the stands layer of a
+ * {@link RenderQueue}, which draws it in the middle of the scene's batch.
+ */
+public class Crowd implements RenderQueue.CustomDraw, Disposable {
+    private static final String VERTEX_SHADER = """
+        attribute vec2 a_position;
+        attribute vec3 a_offset;
+        attribute vec4 a_color;
+        attribute vec3 a_motion;
+        uniform mat4 u_projTrans;
+        uniform vec2 u_size;
+        uniform float u_time;
+        uniform float u_excitement;
+        varying vec2 v_local;
+        varying vec4 v_color;
+        varying float v_arms;
+
+        void main() {
+            // everyone sways a little; members who react jump and wave their arms on the beat on top of that
+            float beat = u_time * 6.0 + a_motion.x;
+            float sway = sin(u_time * 1.5 + a_motion.x) * 0.04;
+            float jump = abs(sin(beat)) * a_motion.y * u_excitement;
+            v_arms = a_motion.z * u_excitement * (0.75 + 0.25 * sin(beat * 2.0));
+            v_local = a_position;
+            v_color = a_color;
+            v_color.a = v_color.a * (255.0 / 254.0);
+            vec2 corner = vec2(a_position.x + sway, a_position.y + jump) * u_size * a_offset.z;
+            gl_Position = u_projTrans * vec4(a_offset.xy + corner, 0.0, 1.0);
+        }
+        """;
+
+    private static final String FRAGMENT_SHADER = """
+        #ifdef GL_ES
+        precision mediump float;
+        #endif
+        varying vec2 v_local;
+        varying vec4 v_color;
+        varying float v_arms;
+
+        // distance from p to the line from a to b
+        float segment(vec2 p, vec2 a, vec2 b) {
+            vec2 pa = p - a;
+            vec2 ba = b - a;
+            float h = clamp(dot(pa, ba) / max(dot(ba, ba), 0.0001), 0.0, 1.0);
+            return length(pa - ba * h);
+        }
+
+        void main() {
+            // roughly how far outside each part of the silhouette the pixel is, in member widths; negative inside
+            float shoulders = (length(v_local / vec2(0.32, 0.45)) - 1.0) * 0.35;
+            float head = length(v_local - vec2(0.0, 0.56)) - 0.13;
+            vec2 side = vec2(abs(v_local.x), v_local.y);
+            float arm = segment(side, vec2(0.24, 0.36), vec2(0.24 + 0.14 * v_arms, 0.36 + 0.5 * v_arms)) - 0.05;
+            float shape = min(min(shoulders, head), arm);
+
+            float alpha = 1.0 - smoothstep(-0.02, 0.02, shape);
+            // heads catch a little of the light from above
+            vec3 color = v_color.rgb * mix(1.0, 1.4, step(head, 0.0));
+            gl_FragColor = vec4(color, v_color.a * alpha);
+        }
+        """;
+
+    /** size of a member at the front of the stands, in world units **/
+    private static final float MEMBER_WIDTH = 1.1f;
+    private static final float MEMBER_HEIGHT = 1.6f;
+    /** how much smaller members are per world unit further back **/
+    private static final float PERSPECTIVE = 0.03f;
+    /** the stands members stand in, as x, y, width and height in world units; feet are placed inside **/
+    private static final float[] STANDS = {
+        0.5f, 24.5f, 12.3f, 7.5f,   // left of the ring
+        67.2f, 24.5f, 12.3f, 7.5f,  // right of the ring
+        18.8f, 30.3f, 42.4f, 2.2f   // behind the back ropes
+    };
+    /** the lowest feet in the stands, where members are drawn at full size **/
+    private static final float FRONT_Y = 24.5f;
+    /** the stands look the same every match, so they are laid out from a fixed seed **/
+    private static final long LAYOUT_SEED = 0x5EA75L;
+
+    /** the share of the crowd that reacts to a round **/
+    private static final float JOIN_CHANCE = 0.8f;
+    /** how long the crowd takes to calm down after reacting **/
+    private static final float CALM_DOWN_TIME = 4.0f;
+    /** the shader's motions all repeat after this long, so the time is kept small for float precision **/
+    private static final float TIME_PERIOD = MathUtils.PI2 / 1.5f;
+
+    // corners of a member's quad, from the middle of its feet, in member sizes
+    private static final float[] CORNERS = {
+        -0.5f, 0.0f,
+        0.5f, 0.0f,
+        0.5f, 1.0f,
+        -0.5f, 1.0f
+    };
+    private static final short[] QUAD_INDICES = {0, 1, 2, 2, 3, 0};
+    private static final int CORNER_SIZE = 2;
+
+    // per member: x, y, scale, packed tint, animation phase, jump height, arm raise
+    private static final int MEMBER_SIZE = 7;
+    private static final int TINT = 3;
+    private static final int PHASE = 4;
+    private static final int JUMP = 5;
+    private static final int ARMS = 6;
+
+    private final int size;
+    private final float[] members;
+    private final boolean instanced;
+    private final Mesh mesh;
+    private final float[] vertices; // the members repeated for each corner, without instancing
+    private final ShaderProgram shader;
+
+    private Random random = new Random();
+    private float time;
+    private float excitement;
+
+    /** draw calls made since this was last set to 0, like a SpriteBatch's **/
+    public int renderCalls;
+
+    /**
+     * @param size  the number of members, at most 16383
+     */
+    public Crowd(int size) {
+        this.size = size;
+        members = new float[size * MEMBER_SIZE];
+        layOut();
+
+        shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!shader.isCompiled()) {
+            throw new GdxRuntimeException("Unable to compile crowd shader: " + shader.getLog());
+        }
+
+        VertexAttribute corner = new VertexAttribute(VertexAttributes.Usage.Position, CORNER_SIZE, ShaderProgram.POSITION_ATTRIBUTE);
+        VertexAttribute[] memberAttributes = {
+            new VertexAttribute(VertexAttributes.Usage.Generic, 3, "a_offset"),
+            VertexAttribute.ColorPacked(),
+            new VertexAttribute(VertexAttributes.Usage.Generic, 3, "a_motion")
+        };
+
+        instanced = Gdx.gl30 != null;
+        if (instanced) {
+            mesh = new Mesh(true, CORNERS.length / CORNER_SIZE, QUAD_INDICES.length, corner);
+            mesh.setVertices(CORNERS);
+            mesh.setIndices(QUAD_INDICES);
+            // written on every reaction, so not static
+            mesh.enableInstancedRendering(false, size, memberAttributes);
+            vertices = null;
+        } else {
+            int corners = CORNERS.length / CORNER_SIZE;
+            mesh = new Mesh(false, size * corners, size * QUAD_INDICES.length,
+                corner, memberAttributes[0], memberAttributes[1], memberAttributes[2]);
+            vertices = new float[size * corners * (CORNER_SIZE + MEMBER_SIZE)];
+
+            short[] indices = new short[size * QUAD_INDICES.length];
+            for (int member = 0; member < size; member++) {
+                for (int i = 0; i < QUAD_INDICES.length; i++) {
+                    indices[member * QUAD_INDICES.length + i] = (short) (member * corners + QUAD_INDICES[i]);
+                }
+            }
+            mesh.setIndices(indices);
+        }
+        upload();
+    }
+
+    /**
+     * Scatters the members over the stands, with the chance of a member standing in each stand matching its area, and
+     * orders them from back to front.
+     */
+    private void layOut() {
+        Random layoutRandom = new Random(LAYOUT_SEED);
+        float totalArea = 0.0f;
+        for (int stand = 0; stand < STANDS.length; stand += 4) {
+            totalArea += STANDS[stand + 2] * STANDS[stand + 3];
+        }
+
+        // feet are placed first, then sorted by height; feet are never below 0, so their bits sort like the floats
+        float[] feetX = new float[size];
+        long[] order = new long[size];
+        for (int member = 0; member < size; member++) {
+            float pick = layoutRandom.nextFloat() * totalArea;
+            int stand = 0;
+            while (stand + 4 < STANDS.length && pick > STANDS[stand + 2] * STANDS[stand + 3]) {
+                pick -= STANDS[stand + 2] * STANDS[stand + 3];
+                stand += 4;
+            }
+            feetX[member] = STANDS[stand] + layoutRandom.nextFloat() * STANDS[stand + 2];
+            float feetY = STANDS[stand + 1] + layoutRandom.nextFloat() * STANDS[stand + 3];
+            order[member] = (long) Float.floatToIntBits(feetY) << Integer.SIZE | member;
+        }
+        Arrays.sort(order);
+
+        // draw order is instance order, so the back rows, with the highest feet, go first
+        for (int i = 0; i < size; i++) {
+            long key = order[size - 1 - i];
+            float feetY = Float.intBitsToFloat((int) (key >>> Integer.SIZE));
+            int index = i * MEMBER_SIZE;
+            members[index] = feetX[(int) key];
+            members[index + 1] = feetY;
+            members[index + 2] = 1.0f - (feetY - FRONT_Y) * PERSPECTIVE;
+            // dim clothes, lit only by the spill from the ring's lights
+            members[index + TINT] = Color.toFloatBits(
+                0.15f + layoutRandom.nextFloat() * 0.3f,
+                0.15f + layoutRandom.nextFloat() * 0.3f,
+                0.15f + layoutRandom.nextFloat() * 0.3f,
+                1.0f);
+            members[index + PHASE] = layoutRandom.nextFloat() * MathUtils.PI2;
+        }
+    }
+
+    /**
+     * Sends the members to the GPU.
+     */
+    private void upload() {
+        if (instanced) {
+            mesh.setInstanceData(members);
+            return;
+        }
+
+        int corners = CORNERS.length / CORNER_SIZE;
+        int vertex = 0;
+        for (int member = 0; member < size; member++) {
+            for (int corner = 0; corner < corners; corner++) {
+                vertices[vertex++] = CORNERS[corner * CORNER_SIZE];
+                vertices[vertex++] = CORNERS[corner * CORNER_SIZE + 1];
+                System.arraycopy(members, member * MEMBER_SIZE, vertices, vertex, MEMBER_SIZE);
+                vertex += MEMBER_SIZE;
+            }
+        }
+        mesh.setVertices(vertices);
+    }
+
+    /**
+     * @param random    the generator that picks who joins in a reaction and how, e.g. the match's cosmetics stream, so
+     *                  a replayed match reacts the same way
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Most of the crowd jumps and raises their arms for a cheer, or shakes their fists for a boo, then calms down.
+     *
+     * @param cheering  <code>true</code> to cheer, <code>false</code> to boo
+     */
+    public void react(boolean cheering) {
+        for (int index = 0; index < members.length; index += MEMBER_SIZE) {
+            boolean joins = random.nextFloat() < JOIN_CHANCE;
+            members[index + PHASE] = random.nextFloat() * MathUtils.PI2;
+            if (!joins) {
+                members[index + JUMP] = 0.0f;
+                members[index + ARMS] = 0.0f;
+            } else if (cheering) {
+                members[index + JUMP] = 0.15f + random.nextFloat() * 0.15f;
+                members[index + ARMS] = 0.8f + random.nextFloat() * 0.2f;
+            } else {
+                members[index + JUMP] = 0.03f + random.nextFloat() * 0.04f;
+                members[index + ARMS] = 0.3f + random.nextFloat() * 0.15f;
+            }
+        }
+        upload();
+        excitement = 1.0f;
+    }
+
+    /**
+     * @param deltaTime time since the last update
+     */
+    public void update(float deltaTime) {
+        time = (time + deltaTime) % TIME_PERIOD;
+        excitement = Math.max(0.0f, excitement - deltaTime / CALM_DOWN_TIME);
+    }
+
+    /**
+     * Queues the crowd behind everything but the background.
+     *
+     * @param queue the queue for the scene
+     */
+    public void render(RenderQueue queue) {
+        queue.draw(RenderQueue.Layer.STANDS, this);
+    }
+
+    @Override
+    public void draw(Matrix4 projection) {
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+
+        shader.bind();
+        shader.setUniformMatrix("u_projTrans", projection);
+        shader.setUniformf("u_size", MEMBER_WIDTH, MEMBER_HEIGHT);
+        shader.setUniformf("u_time", time);
+        shader.setUniformf("u_excitement", excitement);
+        mesh.render(shader, GL20.GL_TRIANGLES);
+        renderCalls++;
+    }
+
+    @Override
+    public void dispose() {
+        mesh.dispose();
+        shader.dispose();
+    }
+
+}
@@ -0,0 +1,327 @@
+package com.berthouex.stickfight.objects;
+
+import java.util.Random;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ScreenUtils;
+import com.berthouex.stickfight.resources.GlobalVariables;
+
+/**
+ * Marks left on the floor, such as blood pools, that fade out over time. Marks are stamped once into an offscreen
+ * {@link FrameBuffer} and the whole layer is faded by one fullscreen pass, so drawing it costs the same no matter how
+ * many marks there are, and there is no limit on how many there can be.
+ * <p>
+ * A new mark is drawn by itself until it is older than the rewind window, so rewinding can still take it away, and is
+ * only then stamped into the layer. The layer is kept with premultiplied alpha, and fading multiplies every pixel by
+ * the same factor every step, so faint and opaque parts of a mark fade at the same rate and keep their color. Marks
+ * fade exponentially, the only curve a factor shared by every pixel can follow, and new marks are drawn on the same
+ * curve so nothing changes when they are stamped. A mark is down to {@link #FADED_ALPHA}, barely visible, at the fade
+ * time, and gone some time after.
+ * <p>
+ * Changes are written to the layer by {@link #flush}, which must be called outside of any batch.
+ */
+public class DecalLayer implements Updatable, Disposable {
+    /** the most marks younger than the rewind window; any more are stamped early **/
+    private static final int RECENT_CAPACITY = 32;
+    /** how opaque a mark still is at the fade time **/
+    public static final float FADED_ALPHA = 0.05f;
+    /** what each step multiplies the layer by; a whole number of 255ths, so packing it into a color keeps it exact **/
+    private static final double FADE_FACTOR = 243.0 / 255.0;
+    /** added to colors before they're packed, which rounds down **/
+    private static final float HALF_SHADE = 0.5f / 255.0f;
+    /** how often the layer is also lowered by one shade, which rounding would otherwise keep the faintest pixels at **/
+    private static final int FADE_SUBTRACT_INTERVAL = 4;
+
+    private final TextureRegion[] regions;
+    private final float[] regionWidths;
+    private final float[] regionHeights;
+    private final float fadeStepTime; // time between fading steps, so marks are at FADED_ALPHA after the fade time
+    private final float rewindTime;
+    private Random random = new RandomXS128();
+
+    // the layer, covering the world from the origin
+    private final FrameBuffer frameBuffer;
+    private final TextureRegion layerRegion;
+    private final float width;
+    private final float height;
+    private final Matrix4 projection;
+    private final TextureRegion white;
+    private boolean cleared;
+
+    // marks that are drawn by themselves until they're too old to rewind
+    private final float[] positionX = new float[RECENT_CAPACITY];
+    private final float[] positionY = new float[RECENT_CAPACITY];
+    private final float[] age = new float[RECENT_CAPACITY];
+    private final int[] region = new int[RECENT_CAPACITY];
+    private int count;
+    private int recentLimit = RECENT_CAPACITY;
+
+    // changes waiting for the next flush
+    private float unfadedTime; // time the layer has aged since it was last faded
+    private int fadeStep; // steps taken since the layer was last lowered by one shade
+    private final float[] stampX = new float[RECENT_CAPACITY];
+    private final float[] stampY = new float[RECENT_CAPACITY];
+    private final float[] stampAge = new float[RECENT_CAPACITY];
+    private final int[] stampRegion = new int[RECENT_CAPACITY];
+    private int stampCount;
+
+    /**
+     * @param variants      the regions to choose from for each mark
+     * @param white         a region of solid white pixels, used to fade the layer
+     * @param width         width of the area covered, in world units
+     * @param height        height of the area covered, in world units
+     * @param fadeTime      the time a mark takes to fade to {@link #FADED_ALPHA}
+     * @param rewindTime    how far back the game can be rewound
+     */
+    public DecalLayer(Array<? extends TextureRegion> variants, TextureRegion white, float width, float height, float fadeTime,
+                      float rewindTime) {
+        this.regions = new TextureRegion[variants.size];
+        this.regionWidths = new float[variants.size];
+        this.regionHeights = new float[variants.size];
+        for (int i = 0; i < variants.size; i++) {
+            this.regions[i] = variants.get(i);
+            this.regionWidths[i] = variants.get(i).getRegionWidth() * GlobalVariables.WORLD_SCALE;
+            this.regionHeights[i] = variants.get(i).getRegionHeight() * GlobalVariables.WORLD_SCALE;
+        }
+        this.white = white;
+        this.width = width;
+        this.height = height;
+        this.fadeStepTime = fadeTime * (float) (Math.log(FADE_FACTOR) / Math.log(FADED_ALPHA));
+        this.rewindTime = rewindTime;
+
+        // one pixel of the layer for every pixel of the textures drawn on it
+        frameBuffer = new FrameBuffer(Pixmap.Format.RGBA8888,
+            Math.round(width / GlobalVariables.WORLD_SCALE), Math.round(height / GlobalVariables.WORLD_SCALE), false);
+        layerRegion = new TextureRegion(frameBuffer.getColorBufferTexture());
+        layerRegion.flip(false, true);
+        projection = new Matrix4().setToOrtho2D(0.0f, 0.0f, width, height);
+    }
+
+    /**
+     * @param random    chooses the region of each new mark, e.g. a match's effects stream so a replay looks the same
+     *                  every time
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Lowers the number of marks drawn by themselves, e.g. to save time drawing on slow machines. Marks over the limit
+     * are stamped into the layer early, so they can no longer be rewound.
+     *
+     * @param limit the most marks drawn by themselves; clamped to between 1 and {@link #getCapacity()}
+     */
+    public void setLimit(int limit) {
+        recentLimit = Math.max(1, Math.min(limit, RECENT_CAPACITY));
+        while (count > recentLimit) {
+            stamp(oldest());
+        }
+    }
+
+    /**
+     * @return  the most marks that can be drawn by themselves
+     */
+    public int getCapacity() {
+        return RECENT_CAPACITY;
+    }
+
+    /**
+     * Leaves a new mark. If too many marks are still within the rewind window, the oldest is stamped early.
+     *
+     * @param x x-coordinate
+     * @param y y-coordinate
+     */
+    public void spawn(float x, float y) {
+        if (count >= recentLimit) {
+            stamp(oldest());
+        }
+
+        positionX[count] = x;
+        positionY[count] = y;
+        age[count] = 0.0f;
+        region[count] = random.nextInt(regions.length);
+        count++;
+    }
+
+    /**
+     * Removes every mark.
+     */
+    public void clear() {
+        count = 0;
+        stampCount = 0;
+        unfadedTime = 0.0f;
+        fadeStep = 0;
+        cleared = false;
+    }
+
+    /**
+     * Takes the layer back in time. Marks younger than the given time are removed, as they hadn't been left yet.
+     * Marks already stamped into the layer are older than the rewind window, so they stay; any fading steps already
+     * taken in that time stay too, which is at most a few shades.
+     *
+     * @param time  the time to go back by, at most the rewind window
+     */
+    public void rewind(float time) {
+        int i = 0;
+        while (i < count) {
+            if (age[i] < time) {
+                remove(i);
+            } else {
+                age[i] -= time;
+                i++;
+            }
+        }
+
+        unfadedTime = Math.max(unfadedTime - time, 0.0f);
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        unfadedTime += deltaTime;
+
+        int i = 0;
+        while (i < count) {
+            age[i] += deltaTime;
+            if (age[i] >= rewindTime) {
+                stamp(i);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Moves a recent mark into the queue to be stamped at the next flush.
+     */
+    private void stamp(int index) {
+        // the queue is flushed every frame, long before it could fill up
+        if (stampCount < RECENT_CAPACITY) {
+            stampX[stampCount] = positionX[index];
+            stampY[stampCount] = positionY[index];
+            stampAge[stampCount] = age[index];
+            stampRegion[stampCount] = region[index];
+            stampCount++;
+        }
+        remove(index);
+    }
+
+    /**
+     * Writes new marks and fading to the layer. Must be called outside of any batch; afterwards the batch's projection
+     * has changed and the GL viewport covers the whole back buffer.
+     *
+     * @param batch a batch to draw to the layer with
+     */
+    public void flush(Batch batch) {
+        int fadeSteps = (int) (unfadedTime / fadeStepTime);
+        if (cleared && fadeSteps == 0 && stampCount == 0) {
+            return;
+        }
+        unfadedTime -= fadeSteps * fadeStepTime;
+
+        frameBuffer.begin();
+        if (!cleared) {
+            ScreenUtils.clear(0.0f, 0.0f, 0.0f, 0.0f);
+            cleared = true;
+        }
+
+        batch.setProjectionMatrix(projection);
+        batch.begin();
+
+        // fade by multiplying every channel of every pixel, which keeps the layer premultiplied
+        if (fadeSteps > 0) {
+            batch.setBlendFunction(GL20.GL_ZERO, GL20.GL_SRC_ALPHA);
+            batch.setColor(1.0f, 1.0f, 1.0f, (float) Math.pow(FADE_FACTOR, fadeSteps) + HALF_SHADE);
+            batch.draw(white, 0.0f, 0.0f, width, height);
+            batch.flush();
+
+            // 8 bit channels round a small value times the factor back up to itself, so those are taken away instead
+            int shades = (fadeStep + fadeSteps) / FADE_SUBTRACT_INTERVAL;
+            fadeStep = (fadeStep + fadeSteps) % FADE_SUBTRACT_INTERVAL;
+            if (shades > 0) {
+                float amount = Math.min(shades / 255.0f + HALF_SHADE, 1.0f);
+                batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE);
+                Gdx.gl.glBlendEquation(GL20.GL_FUNC_REVERSE_SUBTRACT);
+                batch.setColor(amount, amount, amount, amount);
+                batch.draw(white, 0.0f, 0.0f, width, height);
+                batch.flush();
+                Gdx.gl.glBlendEquation(GL20.GL_FUNC_ADD);
+            }
+        }
+
+        // stamp new marks as they look now, keeping the layer premultiplied
+        batch.setBlendFunctionSeparate(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA, GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        for (int i = 0; i < stampCount; i++) {
+            batch.setColor(1.0f, 1.0f, 1.0f, alpha(stampAge[i]));
+            batch.draw(regions[stampRegion[i]], stampX[i], stampY[i], regionWidths[stampRegion[i]], regionHeights[stampRegion[i]]);
+        }
+        stampCount = 0;
+
+        batch.end();
+        batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        batch.setColor(1.0f, 1.0f, 1.0f, 1.0f);
+        frameBuffer.end();
+    }
+
+    /**
+     * Queues the layer on the floor, then the marks that haven't been stamped into it yet over it.
+     *
+     * @param queue the queue for the scene
+     */
+    public void render(RenderQueue queue) {
+        if (cleared) {
+            queue.setPremultipliedAlpha(true);
+            queue.draw(RenderQueue.Layer.FLOOR, layerRegion, 0.0f, 0.0f, width, height);
+            queue.setPremultipliedAlpha(false);
+        }
+
+        for (int i = 0; i < count; i++) {
+            queue.setColor(1.0f, 1.0f, 1.0f, alpha(age[i]));
+            queue.draw(RenderQueue.Layer.FLOOR, 0.0f, 1, regions[region[i]], positionX[i], positionY[i],
+                regionWidths[region[i]], regionHeights[region[i]]);
+        }
+        queue.setColor(1.0f, 1.0f, 1.0f, 1.0f);
+    }
+
+    /**
+     * The opacity of a mark of the given age, on the same curve as the layer's fading steps.
+     */
+    private float alpha(float age) {
+        return (float) Math.pow(FADE_FACTOR, age / fadeStepTime);
+    }
+
+    /**
+     * Moves the last recent mark into the given slot.
+     */
+    private void remove(int index) {
+        count--;
+        positionX[index] = positionX[count];
+        positionY[index] = positionY[count];
+        age[index] = age[count];
+        region[index] = region[count];
+    }
+
+    private int oldest() {
+        int oldest = 0;
+        for (int i = 1; i < count; i++) {
+            if (age[i] > age[oldest]) {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+
+    @Override
+    public void dispose() {
+        frameBuffer.dispose();
+    }
+
+}
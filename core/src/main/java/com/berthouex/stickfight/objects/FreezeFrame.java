@@ -0,0 +1,106 @@
+package com.berthouex.stickfight.objects;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.HdpiUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.viewport.Viewport;
+
+/**
+ * A copy of the screen, kept while the scene doesn't change, e.g. while the game is paused, so each frame only has to
+ * draw the copy and whatever goes over it.
+ * <p>
+ * Capture by drawing the scene between {@link #begin} and {@link #end} as it would be drawn to the screen, then draw
+ * the copy with {@link #draw} until something in the scene changes and {@link #invalidate} is called.
+ */
+public class FreezeFrame implements Disposable {
+    private FrameBuffer frameBuffer;
+    private final TextureRegion region = new TextureRegion();
+    private boolean captured;
+
+    /**
+     * @return  <code>true</code> if there is a copy of the screen to draw
+     */
+    public boolean isCaptured() {
+        return captured;
+    }
+
+    /**
+     * Throws away the copy, so the scene is captured again the next time it is frozen.
+     */
+    public void invalidate() {
+        captured = false;
+    }
+
+    /**
+     * Starts capturing: everything drawn until {@link #end} goes to the copy instead of the screen. Must be called
+     * outside of any batch.
+     *
+     * @return  <code>false</code> if nothing can be captured, because the window is minimized
+     */
+    public boolean begin() {
+        int width = Gdx.graphics.getBackBufferWidth();
+        int height = Gdx.graphics.getBackBufferHeight();
+        if (width <= 0 || height <= 0) {
+            return false;
+        }
+
+        // one pixel for every pixel of the screen, so the copy looks exactly like the scene
+        if (frameBuffer == null || frameBuffer.getWidth() != width || frameBuffer.getHeight() != height) {
+            if (frameBuffer != null) {
+                frameBuffer.dispose();
+            }
+            frameBuffer = new FrameBuffer(Pixmap.Format.RGB888, width, height, false);
+        }
+
+        frameBuffer.begin();
+        return true;
+    }
+
+    /**
+     * Stops capturing and keeps what was drawn. Must be called outside of any batch; afterwards the GL viewport covers
+     * the whole back buffer.
+     */
+    public void end() {
+        frameBuffer.end();
+        captured = true;
+    }
+
+    /**
+     * Draws the part of the copy covered by the viewport, filling its world.
+     *
+     * @param batch     the batch to draw with; must have begun, with the viewport's projection
+     * @param viewport  the viewport the scene was drawn with, unchanged since it was captured
+     */
+    public void draw(Batch batch, Viewport viewport) {
+        Texture texture = frameBuffer.getColorBufferTexture();
+        // the viewport is in logical pixels, which on a HiDPI display are more than one pixel of the back buffer
+        int screenLeft = HdpiUtils.toBackBufferX(viewport.getScreenX());
+        int screenRight = HdpiUtils.toBackBufferX(viewport.getScreenX() + viewport.getScreenWidth());
+        int screenBottom = HdpiUtils.toBackBufferY(viewport.getScreenY());
+        int screenTop = HdpiUtils.toBackBufferY(viewport.getScreenY() + viewport.getScreenHeight());
+        float left = screenLeft / (float) frameBuffer.getWidth();
+        float right = screenRight / (float) frameBuffer.getWidth();
+        float bottom = screenBottom / (float) frameBuffer.getHeight();
+        float top = screenTop / (float) frameBuffer.getHeight();
+
+        // frame buffers are stored bottom row first, so the region is flipped
+        region.setTexture(texture);
+        region.setRegion(left, top, right, bottom);
+        batch.draw(region, 0.0f, 0.0f, viewport.getWorldWidth(), viewport.getWorldHeight());
+    }
+
+    @Override
+    public void dispose() {
+        if (frameBuffer != null) {
+            frameBuffer.dispose();
+            frameBuffer = null;
+        }
+        captured = false;
+    }
+
+}
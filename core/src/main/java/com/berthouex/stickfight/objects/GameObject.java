@@ -1,6 +1,5 @@
 package com.berthouex.stickfight.objects;
 
-import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.math.Vector2;
 
 public abstract class GameObject implements Updatable {
@@ -11,7 +10,12 @@ public abstract class GameObject implements Updatable {
         this.position = new Vector2();
     }
 
-    public abstract void render(Batch batch);
+    /**
+     * Queues everything this object draws this frame.
+     *
+     * @param queue the queue for the scene
+     */
+    public abstract void render(RenderQueue queue);
 
     public Vector2 getPosition() {
         return position;
@@ -0,0 +1,112 @@
+package com.berthouex.stickfight.objects;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+
+/**
+ * A piece of HUD text that keeps its {@link GlyphLayout} between frames and only lays it out again when what it shows
+ * changes, so drawing it every frame creates no garbage. Text made from values is keyed by a number that changes with
+ * them; for example, a timer is keyed by its whole seconds:
+ * <pre>
+ * if (timerLabel.changed(seconds)) {
+ *     timerLabel.text().append(seconds);
+ *     timerLabel.layout();
+ * }
+ * timerLabel.draw(batch, x, y);
+ * </pre>
+ */
+public class HudLabel {
+    private final BitmapFont font;
+    private final Color color;
+    private final int align;
+    private final GlyphLayout layout = new GlyphLayout();
+    private final StringBuilder text = new StringBuilder();
+
+    private boolean laidOut;
+    private long key;
+    private String fixedText; // set instead of the key by setText
+
+    /**
+     * @param font  the font to draw with
+     * @param color the color of the text, unless another is given when laying it out
+     * @param align where the text sits relative to the position it is drawn at, from {@link com.badlogic.gdx.utils.Align}
+     */
+    public HudLabel(BitmapFont font, Color color, int align) {
+        this.font = font;
+        this.color = color;
+        this.align = align;
+    }
+
+    /**
+     * Checks whether the text needs rewriting. If it does, the text is cleared, ready to be written with
+     * {@link #text()} and laid out with {@link #layout()}.
+     *
+     * @param key   a number that changes whenever the text should
+     * @return  <code>true</code> if the key differs from the last one, or the text has never been laid out
+     */
+    public boolean changed(long key) {
+        if (laidOut && fixedText == null && key == this.key) {
+            return false;
+        }
+
+        this.key = key;
+        fixedText = null;
+        text.setLength(0);
+        return true;
+    }
+
+    /**
+     * @return  the text to write into after {@link #changed} returns <code>true</code>
+     */
+    public StringBuilder text() {
+        return text;
+    }
+
+    /**
+     * Lays out the text in the label's color.
+     */
+    public void layout() {
+        layout(color);
+    }
+
+    /**
+     * Lays out the text.
+     *
+     * @param color the color of the text
+     */
+    public void layout(Color color) {
+        layout.setText(font, text, color, 0.0f, align, false);
+        laidOut = true;
+    }
+
+    /**
+     * Shows text that doesn't come from values, such as a name or a title. It is only laid out again if it differs
+     * from the text shown before.
+     *
+     * @param newText   the text to show
+     */
+    public void setText(String newText) {
+        if (laidOut && newText.equals(fixedText)) {
+            return;
+        }
+
+        fixedText = newText;
+        text.setLength(0);
+        text.append(newText);
+        layout();
+    }
+
+    /**
+     * Draws the text as it was last laid out.
+     *
+     * @param batch the batch to draw with; must have begun
+     * @param x     x-coordinate the text is aligned to
+     * @param y     y-coordinate of the top of the text
+     */
+    public void draw(Batch batch, float x, float y) {
+        font.draw(batch, layout, x, y);
+    }
+
+}
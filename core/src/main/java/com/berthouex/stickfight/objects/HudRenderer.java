@@ -0,0 +1,77 @@
+package com.berthouex.stickfight.objects;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * Draws solid rectangles, such as health bars and screen overlays, with the same Batch as everything else by
+ * stretching and tinting a single white region. Unlike a ShapeRenderer, the batch never has to be ended and begun
+ * again, so a whole frame can be drawn in one pass.
+ */
+public class HudRenderer {
+    private final TextureRegion white;
+
+    /**
+     * @param white a region of solid white pixels
+     */
+    public HudRenderer(TextureRegion white) {
+        this.white = white;
+    }
+
+    /**
+     * Draws a solid rectangle, leaving the batch's color as it was.
+     *
+     * @param batch     the batch to draw with; must have begun
+     * @param x         x-coordinate of the bottom left corner
+     * @param y         y-coordinate of the bottom left corner
+     * @param width     width of the rectangle
+     * @param height    height of the rectangle
+     * @param color     color of the rectangle
+     */
+    public void fillRect(Batch batch, float x, float y, float width, float height, Color color) {
+        float packedColor = batch.getPackedColor();
+        batch.setColor(color);
+        batch.draw(white, x, y, width, height);
+        batch.setPackedColor(packedColor);
+    }
+
+    /**
+     * Draws a bar on a background, filled in proportion to a value.
+     *
+     * @param batch             the batch to draw with; must have begun
+     * @param x                 x-coordinate of the bottom left corner of the background
+     * @param y                 y-coordinate of the bottom left corner of the background
+     * @param width             width of the background
+     * @param height            height of the background
+     * @param padding           space between the edge of the background and the bar
+     * @param fraction          how full the bar is, from 0 to 1
+     * @param fromRight         <code>true</code> if the bar fills from the right, <code>false</code> from the left
+     * @param barColor          color of the bar
+     * @param backgroundColor   color of the background
+     */
+    public void drawBar(Batch batch, float x, float y, float width, float height, float padding, float fraction,
+                        boolean fromRight, Color barColor, Color backgroundColor) {
+        fillRect(batch, x, y, width, height, backgroundColor);
+
+        float barWidth = (width - padding * 2.0f) * fraction;
+        float barX = fromRight ? x + width - padding - barWidth : x + padding;
+        fillRect(batch, barX, y + padding, barWidth, height - padding * 2.0f, barColor);
+    }
+
+    /**
+     * Darkens everything drawn so far in an area, e.g. the whole screen behind a menu.
+     *
+     * @param batch     the batch to draw with; must have begun, with blending enabled
+     * @param width     width of the area, starting at the origin
+     * @param height    height of the area, starting at the origin
+     * @param alpha     how dark to make it, from 0 for unchanged to 1 for black
+     */
+    public void dim(Batch batch, float width, float height, float alpha) {
+        float packedColor = batch.getPackedColor();
+        batch.setColor(0.0f, 0.0f, 0.0f, alpha);
+        batch.draw(white, 0.0f, 0.0f, width, height);
+        batch.setPackedColor(packedColor);
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.berthouex.stickfight.objects;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.berthouex.stickfight.resources.GlobalVariables;
+
+/**
+ * A pool of short-lived animations, such as blood splatters, kept as a struct of arrays. Live particles are packed at
+ * the front of the arrays, so updating and drawing only ever touches particles that are alive; when one dies, the last
+ * live particle is moved into its place.
+ */
+public class ParticleSystem implements Updatable {
+    // shared by all particles
+    private final TextureRegion[] regions;
+    private final float[] regionWidths;
+    private final float[] regionHeights;
+    private final float frameDuration;
+    private final float lifetime;
+
+    // per particle
+    private final float[] positionX;
+    private final float[] positionY;
+    private final float[] age;
+    private final int[] region;
+    private int count;
+    private int limit; // the most particles alive at once, at most the capacity
+
+    /**
+     * Creates particles that play through every region once, like an animation, then disappear.
+     *
+     * @param frames        the animation frames
+     * @param frameDuration the time each frame is shown for
+     * @param capacity      the most particles alive at once
+     * @return  the particle system
+     */
+    public static ParticleSystem animated(Array<? extends TextureRegion> frames, float frameDuration, int capacity) {
+        return new ParticleSystem(frames, frameDuration, capacity);
+    }
+
+    private ParticleSystem(Array<? extends TextureRegion> regions, float frameDuration, int capacity) {
+        this.regions = new TextureRegion[regions.size];
+        this.regionWidths = new float[regions.size];
+        this.regionHeights = new float[regions.size];
+        for (int i = 0; i < regions.size; i++) {
+            this.regions[i] = regions.get(i);
+            this.regionWidths[i] = regions.get(i).getRegionWidth() * GlobalVariables.WORLD_SCALE;
+            this.regionHeights[i] = regions.get(i).getRegionHeight() * GlobalVariables.WORLD_SCALE;
+        }
+        this.frameDuration = frameDuration;
+        this.lifetime = regions.size * frameDuration;
+
+        positionX = new float[capacity];
+        positionY = new float[capacity];
+        age = new float[capacity];
+        region = new int[capacity];
+        limit = capacity;
+    }
+
+    /**
+     * Lowers the number of particles alive at once, e.g. to save time drawing on slow machines. Particles already
+     * alive above the limit live out their lives.
+     *
+     * @param limit the most particles alive at once; clamped to between 1 and the capacity
+     */
+    public void setLimit(int limit) {
+        this.limit = Math.max(1, Math.min(limit, positionX.length));
+    }
+
+    /**
+     * @return  the most particles the system can ever have alive at once
+     */
+    public int getCapacity() {
+        return positionX.length;
+    }
+
+    /**
+     * Starts a new particle. If the system is full, the oldest particle is replaced.
+     *
+     * @param x x-coordinate
+     * @param y y-coordinate
+     */
+    public void spawn(float x, float y) {
+        int index = count < limit ? count++ : oldest();
+
+        positionX[index] = x;
+        positionY[index] = y;
+        age[index] = 0.0f;
+        region[index] = 0;
+    }
+
+    /**
+     * Removes every particle.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Takes every particle back in time. Particles younger than the given time are removed, as they hadn't been
+     * spawned yet.
+     *
+     * @param time  the time to go back by
+     */
+    public void rewind(float time) {
+        int i = 0;
+        while (i < count) {
+            if (age[i] < time) {
+                remove(i);
+            } else {
+                age[i] -= time;
+                animate(i);
+                i++;
+            }
+        }
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        int i = 0;
+        while (i < count) {
+            age[i] += deltaTime;
+            if (age[i] >= lifetime) {
+                remove(i);
+            } else {
+                animate(i);
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Queues the live particles, all at the same depth.
+     *
+     * @param queue the queue for the scene
+     * @param layer the layer to draw in
+     * @param depth y-coordinate to sort by, e.g. the depth of the fighter the particles came from
+     * @param order where at that depth to draw, from 0 to {@link RenderQueue#MAX_ORDER}
+     */
+    public void render(RenderQueue queue, RenderQueue.Layer layer, float depth, int order) {
+        for (int i = 0; i < count; i++) {
+            queue.draw(layer, depth, order, regions[region[i]], positionX[i], positionY[i], regionWidths[region[i]], regionHeights[region[i]]);
+        }
+    }
+
+    /**
+     * @return  the number of live particles
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Updates the animation frame of a particle from its age.
+     */
+    private void animate(int index) {
+        region[index] = Math.min((int) (age[index] / frameDuration), regions.length - 1);
+    }
+
+    /**
+     * Moves the last live particle into the given slot.
+     */
+    private void remove(int index) {
+        count--;
+        positionX[index] = positionX[count];
+        positionY[index] = positionY[count];
+        age[index] = age[count];
+        region[index] = region[count];
+    }
+
+    private int oldest() {
+        int oldest = 0;
+        for (int i = 1; i < count; i++) {
+            if (age[i] > age[oldest]) {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+
+}
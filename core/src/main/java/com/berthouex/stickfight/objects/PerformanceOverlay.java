@@ -0,0 +1,278 @@
+package com.berthouex.stickfight.objects;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.berthouex.stickfight.simulation.MonteCarloBrain;
+
+/**
+ * Shows how long frames take and what they cost: a graph of recent frame times split into update, AI and render, and
+ * averages of the batch's draw calls, GL calls and texture binds, and heap use. Meant for looking into stutter on a
+ * player's machine, so it allocates nothing once created and doesn't disturb what it measures.
+ * <p>
+ * Every frame, draw the overlay with {@link #render} while the batch is still going, then hand over that frame's
+ * timings with {@link #frameFinished} once the batch has ended. The GL profiler only runs while the overlay is shown.
+ */
+public class PerformanceOverlay {
+    /** frames shown in the graph **/
+    private static final int HISTORY = 120;
+    /** how often the text is refreshed with new averages **/
+    private static final long TEXT_INTERVAL_NANOS = 500_000_000L;
+    private static final long TARGET_FRAME_NANOS = 1_000_000_000L / 60;
+
+    // layout, in world units
+    private static final float MARGIN = 1.0f;
+    private static final float PADDING = 0.5f;
+    private static final float BAR_WIDTH = 0.2f;
+    private static final float HEIGHT_PER_MILLISECOND = 0.4f;
+    private static final float TEXT_HEIGHT = 10.0f;
+
+    private static final Color BACKGROUND_COLOR = new Color(0.0f, 0.0f, 0.0f, 0.6f);
+    private static final Color UPDATE_COLOR = Color.GREEN;
+    private static final Color AI_COLOR = Color.YELLOW;
+    private static final Color RENDER_COLOR = Color.CYAN;
+    private static final Color TARGET_COLOR = Color.WHITE;
+
+    private final HudRenderer hudRenderer;
+    private final BitmapFont font;
+    private final GLProfiler profiler;
+    private final Runtime runtime = Runtime.getRuntime();
+    private boolean visible;
+    private MonteCarloBrain searchBrain; // the opponent's brain, if it searches
+
+    // the last HISTORY frames, oldest at next
+    private final long[] updateNanos = new long[HISTORY]; // not including the AI
+    private final long[] aiNanos = new long[HISTORY];
+    private final long[] renderNanos = new long[HISTORY];
+    private int next;
+
+    // totals since the text was last refreshed
+    private long intervalStartTime;
+    private int intervalFrames;
+    private long intervalUpdateNanos;
+    private long intervalAiNanos;
+    private long intervalAiWorkerNanos;
+    private long intervalRenderNanos;
+    private long intervalRenderCalls;
+    private int intervalMaxSprites;
+    private long intervalGlCalls;
+    private long intervalTextureBindings;
+    private long intervalAllocatedBytes;
+    private long lastUsedHeap;
+
+    private final StringBuilder text = new StringBuilder(256);
+
+    /**
+     * @param hudRenderer   draws the graph and background
+     * @param font          draws the text; must already be scaled to world units
+     */
+    public PerformanceOverlay(HudRenderer hudRenderer, BitmapFont font) {
+        this.hudRenderer = hudRenderer;
+        this.font = font;
+        this.profiler = new GLProfiler(Gdx.graphics);
+    }
+
+    /**
+     * Shows the overlay if it is hidden, or hides it if it is shown.
+     */
+    public void toggle() {
+        setVisible(!visible);
+    }
+
+    public void setVisible(boolean visible) {
+        if (visible == this.visible) {
+            return;
+        }
+        this.visible = visible;
+
+        if (visible) {
+            profiler.enable();
+            clear();
+        } else {
+            profiler.disable();
+        }
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * @param searchBrain   the opponent's brain, whose rollout rate is shown next to the AI worker's load, or
+     *                      <code>null</code> if the opponent doesn't search
+     */
+    public void setSearchBrain(MonteCarloBrain searchBrain) {
+        this.searchBrain = searchBrain;
+    }
+
+    private void clear() {
+        Arrays.fill(updateNanos, 0);
+        Arrays.fill(aiNanos, 0);
+        Arrays.fill(renderNanos, 0);
+        next = 0;
+        startInterval();
+        profiler.reset();
+        lastUsedHeap = runtime.totalMemory() - runtime.freeMemory();
+        text.setLength(0);
+    }
+
+    private void startInterval() {
+        intervalStartTime = System.nanoTime();
+        intervalFrames = 0;
+        intervalUpdateNanos = 0;
+        intervalAiNanos = 0;
+        intervalAiWorkerNanos = 0;
+        intervalRenderNanos = 0;
+        intervalRenderCalls = 0;
+        intervalMaxSprites = 0;
+        intervalGlCalls = 0;
+        intervalTextureBindings = 0;
+        intervalAllocatedBytes = 0;
+    }
+
+    /**
+     * Records a finished frame. Call after the batch has ended, so its counters cover the whole frame.
+     *
+     * @param batch         the batch the frame was drawn with
+     * @param otherCalls    draw calls made with shaders other than the batch's during the frame
+     * @param updateNanos   time spent updating the game, including the AI
+     * @param aiNanos       time spent on the opponent AI during the update
+     * @param aiWorkerNanos time an AI worker thread spent thinking during the frame, or 0 if there is none
+     * @param renderNanos   time spent drawing
+     */
+    public void frameFinished(SpriteBatch batch, int otherCalls, long updateNanos, long aiNanos, long aiWorkerNanos, long renderNanos) {
+        if (!visible) {
+            return;
+        }
+
+        this.updateNanos[next] = updateNanos - aiNanos;
+        this.aiNanos[next] = aiNanos;
+        this.renderNanos[next] = renderNanos;
+        next = (next + 1) % HISTORY;
+
+        intervalFrames++;
+        intervalUpdateNanos += updateNanos - aiNanos;
+        intervalAiNanos += aiNanos;
+        intervalAiWorkerNanos += aiWorkerNanos;
+        intervalRenderNanos += renderNanos;
+        intervalRenderCalls += batch.renderCalls + otherCalls;
+        intervalMaxSprites = Math.max(intervalMaxSprites, batch.maxSpritesInBatch);
+        batch.maxSpritesInBatch = 0; // otherwise it's the most since the batch was created
+        intervalGlCalls += profiler.getCalls();
+        intervalTextureBindings += profiler.getTextureBindings();
+        profiler.reset();
+
+        // a drop in heap use is a garbage collection, so only rises count as allocations
+        long usedHeap = runtime.totalMemory() - runtime.freeMemory();
+        if (usedHeap > lastUsedHeap) {
+            intervalAllocatedBytes += usedHeap - lastUsedHeap;
+        }
+        lastUsedHeap = usedHeap;
+
+        long intervalNanos = System.nanoTime() - intervalStartTime;
+        if (intervalNanos >= TEXT_INTERVAL_NANOS) {
+            updateText(intervalNanos, usedHeap);
+            startInterval();
+        }
+    }
+
+    private void updateText(long intervalNanos, long usedHeap) {
+        int frames = intervalFrames;
+        text.setLength(0);
+
+        text.append("FPS ").append(Gdx.graphics.getFramesPerSecond());
+        text.append("  frame ");
+        appendMilliseconds((intervalUpdateNanos + intervalAiNanos + intervalRenderNanos) / frames);
+        text.append('\n');
+
+        text.append("update ");
+        appendMilliseconds(intervalUpdateNanos / frames);
+        text.append("  AI ");
+        appendMilliseconds(intervalAiNanos / frames);
+        text.append("  render ");
+        appendMilliseconds(intervalRenderNanos / frames);
+        text.append('\n');
+
+        text.append("AI worker ").append(intervalAiWorkerNanos * 100 / intervalNanos).append("% busy");
+        if (searchBrain != null) {
+            text.append(", ").append((long) searchBrain.getRolloutsPerSecond()).append(" rollouts/s");
+        }
+        text.append('\n');
+
+        text.append("batch ").append(intervalRenderCalls / frames).append(" calls, max ")
+            .append(intervalMaxSprites).append(" sprites\n");
+
+        text.append("GL ").append(intervalGlCalls / frames).append(" calls, ")
+            .append(intervalTextureBindings / frames).append(" texture binds\n");
+
+        text.append("heap ");
+        appendMegabytes(usedHeap);
+        text.append(" / ");
+        appendMegabytes(runtime.maxMemory());
+        text.append(" MB, ");
+        appendMegabytes(intervalAllocatedBytes * 1_000_000_000L / intervalNanos);
+        text.append(" MB/s allocated");
+    }
+
+    // StringBuilder only allocates when appending floats, so decimals are appended as integers
+
+    private void appendMilliseconds(long nanos) {
+        text.append(nanos / 1_000_000).append('.').append(nanos / 100_000 % 10).append(" ms");
+    }
+
+    private void appendMegabytes(long bytes) {
+        long tenths = bytes * 10 / (1024 * 1024);
+        text.append(tenths / 10).append('.').append(tenths % 10);
+    }
+
+    /**
+     * Draws the overlay in the bottom left corner, if it is shown.
+     *
+     * @param batch the batch to draw with; must have begun, with a projection in world units
+     */
+    public void render(Batch batch) {
+        if (!visible) {
+            return;
+        }
+
+        float graphHeight = TARGET_FRAME_NANOS * 2 * HEIGHT_PER_MILLISECOND / 1_000_000.0f;
+        hudRenderer.fillRect(batch, MARGIN, MARGIN,
+            HISTORY * BAR_WIDTH + PADDING * 2.0f, graphHeight + TEXT_HEIGHT + PADDING * 3.0f, BACKGROUND_COLOR);
+
+        // one stacked bar per frame, oldest on the left, cut off at twice the target frame time
+        float graphX = MARGIN + PADDING;
+        float graphY = MARGIN + PADDING;
+        float graphTop = graphY + graphHeight;
+        for (int i = 0; i < HISTORY; i++) {
+            int frame = (next + i) % HISTORY;
+            float x = graphX + i * BAR_WIDTH;
+            float y = graphY;
+            y += drawBarSegment(batch, x, y, graphTop, updateNanos[frame], UPDATE_COLOR);
+            y += drawBarSegment(batch, x, y, graphTop, aiNanos[frame], AI_COLOR);
+            drawBarSegment(batch, x, y, graphTop, renderNanos[frame], RENDER_COLOR);
+        }
+
+        // a line at the time a frame has at 60 FPS
+        float targetY = graphY + TARGET_FRAME_NANOS * HEIGHT_PER_MILLISECOND / 1_000_000.0f;
+        hudRenderer.fillRect(batch, graphX, targetY, HISTORY * BAR_WIDTH, BAR_WIDTH * 0.5f, TARGET_COLOR);
+
+        font.draw(batch, text, graphX, graphTop + PADDING + TEXT_HEIGHT);
+    }
+
+    /**
+     * @return  the height of the segment drawn
+     */
+    private float drawBarSegment(Batch batch, float x, float y, float top, long nanos, Color color) {
+        float height = Math.min(nanos * HEIGHT_PER_MILLISECOND / 1_000_000.0f, top - y);
+        if (height > 0.0f) {
+            hudRenderer.fillRect(batch, x, y, BAR_WIDTH, height, color);
+        }
+        return height;
+    }
+
+}
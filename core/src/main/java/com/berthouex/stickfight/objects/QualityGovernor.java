@@ -0,0 +1,135 @@
+package com.berthouex.stickfight.objects;
+
+import java.util.Arrays;
+
+/**
+ * Picks how much detail to draw so that frames keep up with the display. It watches a rolling window of frame times
+ * and steps the quality down when too many frames miss their budget, then back up once frames take well under it.
+ * <p>
+ * With vsync, a frame that is done early still waits for the display, so headroom is judged by how long frames spend
+ * working rather than how long they last. A step up that turns out to miss the budget again soon after makes the
+ * governor wait twice as long before trying again, so it doesn't keep flickering between two levels.
+ */
+public class QualityGovernor {
+    public enum Quality {
+        HIGH(1.0f, 1.0f),
+        MEDIUM(0.75f, 0.5f),
+        LOW(0.5f, 0.1f);
+
+        private final float renderScale;
+        private final float effectsScale;
+
+        /**
+         * @param renderScale   resolution the scene is drawn at, as a fraction of the screen's
+         * @param effectsScale  number of effects, such as blood, drawn at once, as a fraction of the most there can be
+         */
+        Quality(float renderScale, float effectsScale) {
+            this.renderScale = renderScale;
+            this.effectsScale = effectsScale;
+        }
+
+        public float getRenderScale() {
+            return renderScale;
+        }
+
+        /**
+         * @param capacity  the most effects there can be
+         * @return  the most effects to draw at this quality, at least 1
+         */
+        public int scaleEffects(int capacity) {
+            return Math.max(1, Math.round(capacity * effectsScale));
+        }
+    }
+    private static final Quality[] QUALITIES = Quality.values();
+
+    /** frames judged at once; about one second **/
+    private static final int WINDOW = 60;
+    /** the share of frames in the window that must be on time **/
+    private static final float PERCENTILE = 0.9f;
+    /** how far past the budget a frame can be before it is late, so timer jitter isn't counted **/
+    private static final float LATE_FACTOR = 1.25f;
+    /** how much of the budget frames may work for before there is room to step up **/
+    private static final float HEADROOM_FACTOR = 0.5f;
+    private static final long MIN_HOLD_NANOS = 2_000_000_000L;
+    private static final long MAX_HOLD_NANOS = 32_000_000_000L;
+
+    private final long budgetNanos;
+    private Quality quality = Quality.HIGH;
+
+    // the last WINDOW frames since the quality last changed
+    private final long[] frameNanos = new long[WINDOW];
+    private final long[] workNanos = new long[WINDOW];
+    private final long[] sorted = new long[WINDOW];
+    private int next;
+    private int filled;
+
+    private long sinceChangeNanos;
+    private long holdNanos = MIN_HOLD_NANOS; // time to wait at a quality before stepping up
+    private boolean steppedUp; // the last change was a step up
+
+    /**
+     * @param targetFps the frame rate to keep up with, usually the display's refresh rate; 60 if unknown
+     */
+    public QualityGovernor(int targetFps) {
+        this.budgetNanos = 1_000_000_000L / (targetFps > 0 ? targetFps : 60);
+    }
+
+    public Quality getQuality() {
+        return quality;
+    }
+
+    /**
+     * Forgets the frames seen so far, e.g. after loading, which would look like a long frame. The quality stays as it
+     * is, since the machine hasn't changed.
+     */
+    public void reset() {
+        next = 0;
+        filled = 0;
+    }
+
+    /**
+     * Records a finished frame and changes the quality if needed.
+     *
+     * @param frameNanos    time since the last frame started
+     * @param workNanos     time the frame spent updating and drawing, not waiting for the display
+     */
+    public void frameFinished(long frameNanos, long workNanos) {
+        this.frameNanos[next] = frameNanos;
+        this.workNanos[next] = workNanos;
+        next = (next + 1) % WINDOW;
+        filled = Math.min(filled + 1, WINDOW);
+        sinceChangeNanos += frameNanos;
+
+        // every frame in the window must have been drawn at the current quality
+        if (filled < WINDOW) {
+            return;
+        }
+
+        if (percentile(this.frameNanos) > budgetNanos * LATE_FACTOR) {
+            if (quality.ordinal() < QUALITIES.length - 1) {
+                if (steppedUp && sinceChangeNanos < holdNanos) {
+                    holdNanos = Math.min(holdNanos * 2, MAX_HOLD_NANOS);
+                }
+                setQuality(QUALITIES[quality.ordinal() + 1]);
+                steppedUp = false;
+            }
+        } else if (quality.ordinal() > 0 && sinceChangeNanos >= holdNanos
+            && percentile(this.workNanos) < budgetNanos * HEADROOM_FACTOR) {
+            setQuality(QUALITIES[quality.ordinal() - 1]);
+            steppedUp = true;
+        }
+    }
+
+    private void setQuality(Quality quality) {
+        this.quality = quality;
+        sinceChangeNanos = 0;
+        reset();
+    }
+
+    private long percentile(long[] nanos) {
+        System.arraycopy(nanos, 0, sorted, 0, WINDOW);
+        Arrays.sort(sorted);
+        return sorted[(int) (WINDOW * PERCENTILE)];
+    }
+
+}
@@ -0,0 +1,398 @@
+package com.berthouex.stickfight.objects;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+
+/**
+ * Collects the sprites of a frame's scene and draws them in order, so things can be drawn from anywhere without
+ * hand-ordering every call. Each draw is given a sort key made of, from most to least significant:
+ * <ol>
+ *     <li>its {@link Layer}</li>
+ *     <li>its depth, with the highest y-coordinate first so things further up the ring are further back</li>
+ *     <li>an order for things at the same depth, e.g. a splatter over the fighter it came from</li>
+ *     <li>whether its colors are premultiplied by alpha</li>
+ *     <li>its texture, so draws that can share a batch end up next to each other</li>
+ * </ol>
+ * The keys are radix sorted, which is stable, so draws with equal keys stay in the order they were made. Opaque layers
+ * are drawn with blending off.
+ * <p>
+ * Things that need their own shader are queued as a {@link CustomDraw} and drawn in their place in the same batch.
+ * <p>
+ * Nothing is allocated once the queue has grown to the size of the scene.
+ */
+public class RenderQueue {
+
+    /**
+     * Groups of draws, drawn back to front in the order declared.
+     */
+    public enum Layer {
+        /** the ring itself; covers everything behind it **/
+        BACKGROUND(true),
+        /** the audience around the ring **/
+        STANDS(false),
+        /** marks on the floor **/
+        FLOOR(false),
+        /** fighters and their effects, sorted by depth **/
+        FIGHTERS(false),
+        /** the front ropes **/
+        FOREGROUND(false);
+
+        private final boolean opaque;
+
+        Layer(boolean opaque) {
+            this.opaque = opaque;
+        }
+
+        /**
+         * @return  <code>true</code> if everything in this Layer is fully opaque, so it can be drawn without blending
+         */
+        public boolean isOpaque() {
+            return opaque;
+        }
+    }
+
+    /**
+     * Something in the scene drawn with its own GL calls rather than as a sprite, e.g. with its own shader.
+     */
+    public interface CustomDraw {
+        /**
+         * Draws in the middle of the queue. The batch has been flushed and is still drawing; the batch's shader is
+         * bound again afterwards, and the batch sets its own blending and texture before it next draws.
+         *
+         * @param projection    the batch's projection
+         */
+        void draw(Matrix4 projection);
+    }
+
+    private static final Layer[] LAYERS = Layer.values();
+
+    /** the most orders that can be told apart at the same depth **/
+    public static final int MAX_ORDER = 15;
+    private static final int MAX_TEXTURES = 256;
+
+    // sort key layout
+    private static final int LAYER_SHIFT = 29;
+    private static final int DEPTH_SHIFT = 13;
+    private static final int ORDER_SHIFT = 9;
+    private static final int STRAIGHT_ALPHA_SHIFT = 8; // set for straight alpha, so premultiplied draws come first
+    private static final int DEPTH_MASK = 0xFFFF;
+    /** depths are kept to this fraction of a world unit, from MIN_DEPTH **/
+    private static final float DEPTH_PRECISION = 512.0f;
+    private static final float MIN_DEPTH = -16.0f;
+
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    // per draw, in the order they were made
+    private TextureRegion[] regions;
+    private CustomDraw[] customDraws;
+    private float[] positionX;
+    private float[] positionY;
+    private float[] originX;
+    private float[] originY;
+    private float[] width;
+    private float[] height;
+    private float[] scaleX;
+    private float[] scaleY;
+    private float[] rotation;
+    private float[] color;
+    private int count;
+
+    // sort keys and the draws they belong to, sorted by key
+    private int[] keys;
+    private int[] indices;
+    private int[] sortedKeys;
+    private int[] sortedIndices;
+    private final int[] radixCounts = new int[RADIX];
+
+    // textures get small ids in the order they're first drawn in a frame; forgotten at every flush, so textures from
+    // earlier screens, which may have been disposed, don't keep their slots
+    private final Texture[] textures = new Texture[MAX_TEXTURES];
+    private int textureCount;
+
+    private float packedColor = Color.WHITE_FLOAT_BITS;
+    private boolean premultipliedAlpha;
+
+    /**
+     * @param capacity  the number of draws to make room for; the queue grows if a frame needs more
+     */
+    public RenderQueue(int capacity) {
+        allocate(Math.max(capacity, 1));
+    }
+
+    private void allocate(int capacity) {
+        regions = Arrays.copyOf(regions == null ? new TextureRegion[0] : regions, capacity);
+        customDraws = Arrays.copyOf(customDraws == null ? new CustomDraw[0] : customDraws, capacity);
+        positionX = grow(positionX, capacity);
+        positionY = grow(positionY, capacity);
+        originX = grow(originX, capacity);
+        originY = grow(originY, capacity);
+        width = grow(width, capacity);
+        height = grow(height, capacity);
+        scaleX = grow(scaleX, capacity);
+        scaleY = grow(scaleY, capacity);
+        rotation = grow(rotation, capacity);
+        color = grow(color, capacity);
+        keys = grow(keys, capacity);
+        indices = new int[capacity];
+        sortedKeys = new int[capacity];
+        sortedIndices = new int[capacity];
+    }
+
+    private static float[] grow(float[] array, int capacity) {
+        return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        return array == null ? new int[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    /**
+     * Sets the tint of the draws that follow, as on a {@link Batch}.
+     *
+     * @param tint  the color to tint by
+     */
+    public void setColor(Color tint) {
+        packedColor = tint.toFloatBits();
+    }
+
+    public void setColor(float r, float g, float b, float a) {
+        packedColor = Color.toFloatBits(r, g, b, a);
+    }
+
+    /**
+     * @param premultipliedAlpha    <code>true</code> if the textures of the draws that follow have their colors
+     *                              premultiplied by alpha
+     */
+    public void setPremultipliedAlpha(boolean premultipliedAlpha) {
+        this.premultipliedAlpha = premultipliedAlpha;
+    }
+
+    /**
+     * Queues a region stretched over a rectangle, at depth 0.
+     *
+     * @param layer     the layer to draw in
+     * @param region    the region to draw
+     * @param x         x-coordinate of the bottom left corner
+     * @param y         y-coordinate of the bottom left corner
+     * @param width     width to draw at
+     * @param height    height to draw at
+     */
+    public void draw(Layer layer, TextureRegion region, float x, float y, float width, float height) {
+        draw(layer, 0.0f, 0, region, x, y, 0.0f, 0.0f, width, height, 1.0f, 1.0f, 0.0f);
+    }
+
+    /**
+     * Queues a region stretched over a rectangle.
+     *
+     * @param layer     the layer to draw in
+     * @param depth     y-coordinate to sort by; higher is further back
+     * @param order     0 to {@link #MAX_ORDER}; higher is drawn over lower at the same depth
+     * @param region    the region to draw
+     * @param x         x-coordinate of the bottom left corner
+     * @param y         y-coordinate of the bottom left corner
+     * @param width     width to draw at
+     * @param height    height to draw at
+     */
+    public void draw(Layer layer, float depth, int order, TextureRegion region, float x, float y, float width, float height) {
+        draw(layer, depth, order, region, x, y, 0.0f, 0.0f, width, height, 1.0f, 1.0f, 0.0f);
+    }
+
+    /**
+     * Queues a region with the same transform as
+     * {@link Batch#draw(TextureRegion, float, float, float, float, float, float, float, float, float)}.
+     *
+     * @param layer     the layer to draw in
+     * @param depth     y-coordinate to sort by; higher is further back
+     * @param order     0 to {@link #MAX_ORDER}; higher is drawn over lower at the same depth
+     * @param region    the region to draw
+     * @param x         x-coordinate of the bottom left corner
+     * @param y         y-coordinate of the bottom left corner
+     * @param originX   x-coordinate of the point scaled and rotated around, from the bottom left corner
+     * @param originY   y-coordinate of the point scaled and rotated around, from the bottom left corner
+     * @param width     width to draw at
+     * @param height    height to draw at
+     * @param scaleX    horizontal scale; negative flips
+     * @param scaleY    vertical scale; negative flips
+     * @param rotation  counter-clockwise rotation in degrees
+     */
+    public void draw(Layer layer, float depth, int order, TextureRegion region, float x, float y, float originX, float originY,
+                     float width, float height, float scaleX, float scaleY, float rotation) {
+        if (count == regions.length) {
+            allocate(count * 2);
+        }
+
+        int index = count++;
+        regions[index] = region;
+        positionX[index] = x;
+        positionY[index] = y;
+        this.originX[index] = originX;
+        this.originY[index] = originY;
+        this.width[index] = width;
+        this.height[index] = height;
+        this.scaleX[index] = scaleX;
+        this.scaleY[index] = scaleY;
+        this.rotation[index] = rotation;
+        color[index] = packedColor;
+        keys[index] = sortKey(layer, depth, order, textureId(region.getTexture()));
+    }
+
+    /**
+     * Queues something drawn with its own GL calls, at depth 0.
+     *
+     * @param layer     the layer to draw in
+     * @param draw      what to draw
+     */
+    public void draw(Layer layer, CustomDraw draw) {
+        if (count == regions.length) {
+            allocate(count * 2);
+        }
+
+        int index = count++;
+        customDraws[index] = draw;
+        keys[index] = sortKey(layer, 0.0f, 0, 0);
+    }
+
+    private int sortKey(Layer layer, float depth, int order, int textureId) {
+        int depthKey = DEPTH_MASK - Math.min(Math.max((int) ((depth - MIN_DEPTH) * DEPTH_PRECISION), 0), DEPTH_MASK);
+        return layer.ordinal() << LAYER_SHIFT
+            | depthKey << DEPTH_SHIFT
+            | Math.min(Math.max(order, 0), MAX_ORDER) << ORDER_SHIFT
+            | (premultipliedAlpha ? 0 : 1) << STRAIGHT_ALPHA_SHIFT
+            | textureId;
+    }
+
+    private int textureId(Texture texture) {
+        for (int i = 0; i < textureCount; i++) {
+            if (textures[i] == texture) {
+                return i;
+            }
+        }
+        if (textureCount == MAX_TEXTURES) {
+            return MAX_TEXTURES - 1; // sorts the rest together, which is still correct, just slower to draw
+        }
+        textures[textureCount] = texture;
+        return textureCount++;
+    }
+
+    /**
+     * Draws everything queued in sorted order, then empties the queue. The batch is left blending straight alpha,
+     * tinted white, and is never ended, so custom draws don't split the scene into more than one pass.
+     *
+     * @param batch the batch to draw with; must have begun
+     */
+    public void flush(Batch batch) {
+        sort();
+
+        Layer layer = null;
+        boolean premultiplied = false;
+        batch.enableBlending();
+        batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        for (int i = 0; i < count; i++) {
+            int key = sortedKeys[i];
+            int index = sortedIndices[i];
+
+            Layer drawLayer = LAYERS[key >>> LAYER_SHIFT];
+            if (drawLayer != layer) {
+                layer = drawLayer;
+                if (layer.isOpaque()) {
+                    batch.disableBlending();
+                } else {
+                    batch.enableBlending();
+                }
+            }
+            if (customDraws[index] != null) {
+                batch.flush();
+                customDraws[index].draw(batch.getProjectionMatrix());
+                // the batch only binds its shader when it begins
+                batch.getShader().bind();
+                customDraws[index] = null;
+                continue;
+            }
+
+            boolean drawPremultiplied = (key & (1 << STRAIGHT_ALPHA_SHIFT)) == 0;
+            if (drawPremultiplied != premultiplied) {
+                premultiplied = drawPremultiplied;
+                batch.setBlendFunction(premultiplied ? GL20.GL_ONE : GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+            }
+
+            batch.setPackedColor(color[index]);
+            batch.draw(regions[index], positionX[index], positionY[index], originX[index], originY[index],
+                width[index], height[index], scaleX[index], scaleY[index], rotation[index]);
+            regions[index] = null; // don't hold on to regions between frames
+        }
+
+        batch.enableBlending();
+        batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        batch.setPackedColor(Color.WHITE_FLOAT_BITS);
+        count = 0;
+        Arrays.fill(textures, 0, textureCount, null);
+        textureCount = 0;
+        packedColor = Color.WHITE_FLOAT_BITS;
+        premultipliedAlpha = false;
+    }
+
+    /**
+     * Least significant digit radix sort of the keys, one byte at a time, into sortedKeys and sortedIndices. Bytes
+     * that are the same in every key are skipped, which is most of them in a small scene.
+     */
+    private void sort() {
+        int[] sourceKeys = keys;
+        int[] sourceIndices = indices;
+        int[] targetKeys = sortedKeys;
+        int[] targetIndices = sortedIndices;
+        for (int i = 0; i < count; i++) {
+            sourceIndices[i] = i;
+        }
+
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(radixCounts, 0);
+            for (int i = 0; i < count; i++) {
+                radixCounts[(sourceKeys[i] >>> shift) & (RADIX - 1)]++;
+            }
+            if (count == 0 || radixCounts[(sourceKeys[0] >>> shift) & (RADIX - 1)] == count) {
+                continue;
+            }
+
+            // turn counts into where each digit's keys start
+            int start = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int digitCount = radixCounts[digit];
+                radixCounts[digit] = start;
+                start += digitCount;
+            }
+            for (int i = 0; i < count; i++) {
+                int target = radixCounts[(sourceKeys[i] >>> shift) & (RADIX - 1)]++;
+                targetKeys[target] = sourceKeys[i];
+                targetIndices[target] = sourceIndices[i];
+            }
+
+            int[] swapKeys = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = swapKeys;
+            int[] swapIndices = sourceIndices;
+            sourceIndices = targetIndices;
+            targetIndices = swapIndices;
+        }
+
+        // the sorted keys end up in whichever array was written last
+        if (sourceKeys != sortedKeys) {
+            System.arraycopy(sourceKeys, 0, sortedKeys, 0, count);
+            System.arraycopy(sourceIndices, 0, sortedIndices, 0, count);
+        }
+    }
+
+    /**
+     * @return  the number of draws queued
+     */
+    public int getCount() {
+        return count;
+    }
+
+}
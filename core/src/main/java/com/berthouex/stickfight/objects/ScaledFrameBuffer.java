@@ -0,0 +1,80 @@
+package com.berthouex.stickfight.objects;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ScreenUtils;
+import com.badlogic.gdx.utils.viewport.Viewport;
+
+/**
+ * Draws a scene at a fraction of the screen's resolution, then stretches it over the viewport, so weak GPUs have
+ * fewer pixels to fill. The frame buffer is only made again when the resolution changes.
+ * <p>
+ * Draw the scene between {@link #begin} and {@link #end} with the viewport's projection, then draw the result with
+ * {@link #draw}.
+ */
+public class ScaledFrameBuffer implements Disposable {
+    private FrameBuffer frameBuffer;
+    private final TextureRegion region = new TextureRegion();
+
+    /**
+     * Starts drawing to the frame buffer and clears it. Must be called outside of any batch.
+     *
+     * @param viewport  the viewport the scene is drawn with
+     * @param scale     the resolution to draw at, as a fraction of the viewport's
+     * @return  <code>false</code> if there is nothing to draw to, because the window is minimized
+     */
+    public boolean begin(Viewport viewport, float scale) {
+        if (viewport.getScreenWidth() <= 0 || viewport.getScreenHeight() <= 0) {
+            return false;
+        }
+        int width = Math.max(1, Math.round(viewport.getScreenWidth() * scale));
+        int height = Math.max(1, Math.round(viewport.getScreenHeight() * scale));
+
+        if (frameBuffer == null || frameBuffer.getWidth() != width || frameBuffer.getHeight() != height) {
+            if (frameBuffer != null) {
+                frameBuffer.dispose();
+            }
+            frameBuffer = new FrameBuffer(Pixmap.Format.RGB888, width, height, false);
+
+            // smooth the stretched pixels rather than showing them as blocks
+            Texture texture = frameBuffer.getColorBufferTexture();
+            texture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+            region.setRegion(texture);
+            region.flip(false, true);
+        }
+
+        frameBuffer.begin();
+        ScreenUtils.clear(0.0f, 0.0f, 0.0f, 1.0f);
+        return true;
+    }
+
+    /**
+     * Stops drawing to the frame buffer. Afterwards the GL viewport covers the whole back buffer.
+     */
+    public void end() {
+        frameBuffer.end();
+    }
+
+    /**
+     * Draws the scene over the whole world of the viewport.
+     *
+     * @param batch     the batch to draw with; must have begun, with the viewport's projection
+     * @param viewport  the viewport the scene was drawn with
+     */
+    public void draw(Batch batch, Viewport viewport) {
+        batch.draw(region, 0.0f, 0.0f, viewport.getWorldWidth(), viewport.getWorldHeight());
+    }
+
+    @Override
+    public void dispose() {
+        if (frameBuffer != null) {
+            frameBuffer.dispose();
+            frameBuffer = null;
+        }
+    }
+
+}
@@ -0,0 +1,277 @@
+package com.berthouex.stickfight.objects;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.berthouex.stickfight.simulation.FighterModel;
+
+/**
+ * Poses of a stick figure for every {@link FighterModel.State} and animation frame, given as joint positions, and draws
+ * them as thick lines between the joints. Every line, the head and the shadow are the same stretched and tinted white
+ * region, so any number of fighters are drawn from one texture, which a {@link RenderQueue} batches together, instead
+ * of a sprite sheet frame each. Joints move smoothly from one frame's pose to the next. See {@code skeleton.txt} for
+ * the file format.
+ * <p>
+ * One Skeleton can be shared by every fighter.
+ */
+public class Skeleton {
+
+    /**
+     * The points the lines of a stick figure join at. Back and front are as seen facing right.
+     */
+    public enum Joint {
+        HEAD, NECK, HIP,
+        BACK_ELBOW, BACK_HAND, FRONT_ELBOW, FRONT_HAND,
+        BACK_KNEE, BACK_FOOT, FRONT_KNEE, FRONT_FOOT
+    }
+
+    private static final int STATES = FighterModel.State.values().length;
+    private static final int FRAMES = FighterModel.FRAME_COUNT;
+    private static final int JOINTS = Joint.values().length;
+
+    /** pairs of joints with a line between them, drawn in order, back limbs first **/
+    private static final int[] BONES = {
+        Joint.HIP.ordinal(), Joint.BACK_KNEE.ordinal(),
+        Joint.BACK_KNEE.ordinal(), Joint.BACK_FOOT.ordinal(),
+        Joint.NECK.ordinal(), Joint.BACK_ELBOW.ordinal(),
+        Joint.BACK_ELBOW.ordinal(), Joint.BACK_HAND.ordinal(),
+        Joint.NECK.ordinal(), Joint.HIP.ordinal(),
+        Joint.HIP.ordinal(), Joint.FRONT_KNEE.ordinal(),
+        Joint.FRONT_KNEE.ordinal(), Joint.FRONT_FOOT.ordinal(),
+        Joint.NECK.ordinal(), Joint.FRONT_ELBOW.ordinal(),
+        Joint.FRONT_ELBOW.ordinal(), Joint.FRONT_HAND.ordinal()
+    };
+
+    /** opacity of the shadow, the same as the sprite sheets' **/
+    private static final float SHADOW_ALPHA = 0.2f;
+
+    // x and y of every joint, indexed by state ordinal, frame and joint
+    private final float[] poses = new float[STATES * FRAMES * JOINTS * 2];
+    // the pose being drawn, between two frames
+    private final float[] joints = new float[JOINTS * 2];
+
+    private float originX;
+    private float originY;
+    private float limbWidth = 1.0f;
+    private float headRadius = 1.0f;
+    private float shadowX;
+    private float shadowY;
+    private float shadowWidth;
+    private float shadowHeight;
+
+    private Skeleton() {
+
+    }
+
+    /**
+     * @param in    poses in the {@code skeleton.txt} format; not closed
+     * @return  the skeleton
+     *
+     * @throws IOException  if the poses can't be read or are malformed
+     */
+    public static Skeleton read(InputStream in) throws IOException {
+        Skeleton skeleton = new Skeleton();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            try {
+                skeleton.parseLine(line.split("\\s+"));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Skeleton line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return skeleton;
+    }
+
+    private void parseLine(String[] tokens) {
+        switch (tokens[0]) {
+            case "origin" -> {
+                expectTokens(tokens, 3);
+                originX = Float.parseFloat(tokens[1]);
+                originY = Float.parseFloat(tokens[2]);
+            }
+            case "size" -> {
+                expectTokens(tokens, 3);
+                limbWidth = Float.parseFloat(tokens[1]);
+                headRadius = Float.parseFloat(tokens[2]);
+            }
+            case "shadow" -> {
+                expectTokens(tokens, 5);
+                shadowX = Float.parseFloat(tokens[1]);
+                shadowY = Float.parseFloat(tokens[2]);
+                shadowWidth = Float.parseFloat(tokens[3]);
+                shadowHeight = Float.parseFloat(tokens[4]);
+            }
+            case "pose" -> parsePose(tokens);
+            default -> throw new IllegalArgumentException("unknown entry " + tokens[0]);
+        }
+    }
+
+    private void parsePose(String[] tokens) {
+        if (tokens.length < 4) {
+            throw new IllegalArgumentException("pose needs a state, frames and at least one joint");
+        }
+
+        int firstState = tokens[1].equals("*") ? 0 : FighterModel.State.valueOf(tokens[1]).ordinal();
+        int lastState = tokens[1].equals("*") ? STATES - 1 : firstState;
+
+        int firstFrame;
+        int lastFrame;
+        if (tokens[2].equals("*")) {
+            firstFrame = 0;
+            lastFrame = FRAMES - 1;
+        } else {
+            int dash = tokens[2].indexOf('-');
+            firstFrame = Integer.parseInt(dash < 0 ? tokens[2] : tokens[2].substring(0, dash));
+            lastFrame = dash < 0 ? firstFrame : Integer.parseInt(tokens[2].substring(dash + 1));
+            if (firstFrame < 0 || lastFrame >= FRAMES || firstFrame > lastFrame) {
+                throw new IllegalArgumentException("frames must be within 0-" + (FRAMES - 1));
+            }
+        }
+
+        for (int i = 3; i < tokens.length; i++) {
+            int equals = tokens[i].indexOf('=');
+            int comma = tokens[i].indexOf(',');
+            if (equals < 0 || comma < equals) {
+                throw new IllegalArgumentException("joints must be given as <joint>=<x>,<y>");
+            }
+            int joint = Joint.valueOf(tokens[i].substring(0, equals)).ordinal();
+            float x = Float.parseFloat(tokens[i].substring(equals + 1, comma));
+            float y = Float.parseFloat(tokens[i].substring(comma + 1));
+
+            for (int state = firstState; state <= lastState; state++) {
+                for (int frame = firstFrame; frame <= lastFrame; frame++) {
+                    int index = jointIndex(state, frame, joint);
+                    poses[index] = x;
+                    poses[index + 1] = y;
+                }
+            }
+        }
+    }
+
+    private static void expectTokens(String[] tokens, int count) {
+        if (tokens.length != count) {
+            throw new IllegalArgumentException(tokens[0] + " needs " + (count - 1) + " values");
+        }
+    }
+
+    private static int jointIndex(int state, int frame, int joint) {
+        return ((state * FRAMES + frame) * JOINTS + joint) * 2;
+    }
+
+    /**
+     * Queues a fighter's pose, tinted like its sprite would be.
+     *
+     * @param queue     the queue to draw in, in the fighters layer
+     * @param white     a region of solid white pixels
+     * @param state     the fighter's state
+     * @param stateTime time spent in the state
+     * @param x         x-coordinate of the fighter's position
+     * @param y         y-coordinate of the fighter's position
+     * @param facing    1 if facing right, -1 if facing left
+     * @param depth     y-coordinate to sort the fighter by
+     * @param tint      the fighter's color
+     */
+    public void draw(RenderQueue queue, TextureRegion white, FighterModel.State state, float stateTime, float x, float y,
+                     int facing, float depth, Color tint) {
+        pose(state, stateTime);
+        float rootX = x + originX;
+        float rootY = y + originY;
+
+        queue.setColor(0.0f, 0.0f, 0.0f, SHADOW_ALPHA * tint.a);
+        drawShadow(queue, white, rootX + shadowX * facing, rootY + shadowY, depth);
+
+        queue.setColor(tint);
+        for (int bone = 0; bone < BONES.length; bone += 2) {
+            int from = BONES[bone] * 2;
+            int to = BONES[bone + 1] * 2;
+            drawLine(queue, white, depth,
+                rootX + joints[from] * facing, rootY + joints[from + 1],
+                rootX + joints[to] * facing, rootY + joints[to + 1]);
+        }
+
+        // a square and the same square turned by 45 degrees make an octagon, which is round enough for a head
+        int head = Joint.HEAD.ordinal() * 2;
+        float headX = rootX + joints[head] * facing;
+        float headY = rootY + joints[head + 1];
+        float headSize = headRadius * 2.0f;
+        queue.draw(RenderQueue.Layer.FIGHTERS, depth, 0, white, headX - headRadius, headY - headRadius,
+            headRadius, headRadius, headSize, headSize, 1.0f, 1.0f, 0.0f);
+        queue.draw(RenderQueue.Layer.FIGHTERS, depth, 0, white, headX - headRadius, headY - headRadius,
+            headRadius, headRadius, headSize, headSize, 1.0f, 1.0f, 45.0f);
+
+        queue.setColor(Color.WHITE);
+    }
+
+    /**
+     * Fills {@link #joints} with the pose between the frame being shown and the next, as far along as the frame is.
+     */
+    private void pose(FighterModel.State state, float stateTime) {
+        float frames = stateTime / state.frameDuration();
+        int frame = (int) frames;
+        float progress = frames - frame;
+        int nextFrame;
+        if (state.isLooping()) {
+            frame %= FRAMES;
+            nextFrame = (frame + 1) % FRAMES;
+        } else if (frame >= FRAMES - 1) {
+            // the last frame is held once the animation is over
+            frame = FRAMES - 1;
+            nextFrame = frame;
+        } else {
+            nextFrame = frame + 1;
+        }
+
+        int from = jointIndex(state.ordinal(), frame, 0);
+        int to = jointIndex(state.ordinal(), nextFrame, 0);
+        for (int i = 0; i < joints.length; i++) {
+            joints[i] = MathUtils.lerp(poses[from + i], poses[to + i], progress);
+        }
+    }
+
+    /**
+     * Queues a line of the limb width with square ends that reach past both points by half the width, so lines that
+     * meet at a joint overlap rather than leave a notch.
+     */
+    private void drawLine(RenderQueue queue, TextureRegion white, float depth, float x1, float y1, float x2, float y2) {
+        float halfWidth = limbWidth * 0.5f;
+        float length = (float) Math.hypot(x2 - x1, y2 - y1);
+        float angle = MathUtils.atan2(y2 - y1, x2 - x1) * MathUtils.radiansToDegrees;
+        queue.draw(RenderQueue.Layer.FIGHTERS, depth, 0, white, x1 - halfWidth, y1 - halfWidth,
+            halfWidth, halfWidth, length + limbWidth, limbWidth, 1.0f, 1.0f, angle);
+    }
+
+    /**
+     * Queues the shadow as a wide, flat cross, so no part of it is drawn twice and darkened by blending.
+     */
+    private void drawShadow(RenderQueue queue, TextureRegion white, float centreX, float centreY, float depth) {
+        float middleWidth = shadowWidth * 0.5f;
+        float sideWidth = shadowWidth * 0.25f;
+        float sideHeight = shadowHeight * 0.55f;
+        queue.draw(RenderQueue.Layer.FIGHTERS, depth, 0, white,
+            centreX - middleWidth * 0.5f, centreY - shadowHeight * 0.5f, middleWidth, shadowHeight);
+        queue.draw(RenderQueue.Layer.FIGHTERS, depth, 0, white,
+            centreX - middleWidth * 0.5f - sideWidth, centreY - sideHeight * 0.5f, sideWidth, sideHeight);
+        queue.draw(RenderQueue.Layer.FIGHTERS, depth, 0, white,
+            centreX + middleWidth * 0.5f, centreY - sideHeight * 0.5f, sideWidth, sideHeight);
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.berthouex.stickfight.objects;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.scenes.scene2d.InputEvent;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ScreenUtils;
+
+/**
+ * Keeps a drawing of a mostly still {@link Stage}, such as a menu, in a {@link FrameBuffer} and only draws the stage
+ * again when something in it may have changed. Every other frame, the screen is filled from the frame buffer with a
+ * single quad.
+ * <p>
+ * Any input the stage handles, including the pointer moving onto or off an actor, marks the drawing as out of date,
+ * which covers buttons being pressed or checked and anything their listeners change. Changes made outside of input,
+ * e.g. in {@link com.badlogic.gdx.Screen#show}, must call {@link #invalidate} themselves.
+ * <p>
+ * The stage asks for frames while it is being drawn again, so it works without continuous rendering.
+ */
+public class StageCache implements Disposable {
+    /** how long the stage keeps being drawn after a change; longer than a button stays pressed after a tap **/
+    private static final long SETTLE_NANOS = 250_000_000L;
+
+    private final Stage stage;
+    private final Color clearColor;
+    private final Matrix4 projection = new Matrix4();
+    private FrameBuffer frameBuffer;
+    private TextureRegion frameRegion;
+    private boolean dirty = true;
+    private long settleEndTime;
+
+    /**
+     * @param stage         the stage to draw
+     * @param clearColor    the color behind the stage
+     */
+    public StageCache(Stage stage, Color clearColor) {
+        this.stage = stage;
+        this.clearColor = clearColor;
+
+        // sees every event the stage fires before its actors do, without handling any; the pointer moving within an
+        // actor changes nothing, as long as it doesn't move onto or off it
+        stage.addCaptureListener(event -> {
+            if (!(event instanceof InputEvent) || ((InputEvent) event).getType() != InputEvent.Type.mouseMoved) {
+                invalidate();
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Marks the drawing as out of date, so the stage is drawn again for the next few frames.
+     */
+    public void invalidate() {
+        dirty = true;
+        settleEndTime = System.nanoTime() + SETTLE_NANOS;
+        Gdx.graphics.requestRendering();
+    }
+
+    /**
+     * Makes the frame buffer match the size of the screen. Call after the stage's viewport has been updated.
+     */
+    public void resize() {
+        int width = Gdx.graphics.getBackBufferWidth();
+        int height = Gdx.graphics.getBackBufferHeight();
+        if (width <= 0 || height <= 0) {
+            // minimized; keep the old drawing until there is something to draw to
+            return;
+        }
+
+        if (frameBuffer == null || frameBuffer.getWidth() != width || frameBuffer.getHeight() != height) {
+            if (frameBuffer != null) {
+                frameBuffer.dispose();
+            }
+            frameBuffer = new FrameBuffer(Pixmap.Format.RGB888, width, height, false);
+            frameRegion = new TextureRegion(frameBuffer.getColorBufferTexture());
+            frameRegion.flip(false, true);
+            projection.setToOrtho2D(0.0f, 0.0f, width, height);
+        }
+        invalidate();
+    }
+
+    /**
+     * Updates the stage, draws it to the frame buffer if it may have changed, then fills the screen with the frame
+     * buffer.
+     *
+     * @param delta time since the last frame
+     */
+    public void render(float delta) {
+        stage.act(delta);
+
+        if (frameBuffer == null) {
+            resize();
+            if (frameBuffer == null) {
+                return;
+            }
+        }
+
+        if (dirty) {
+            frameBuffer.begin();
+            // the frame buffer starts with a GL viewport over all of it, but the stage must draw within its own
+            // viewport, where input is unprojected, e.g. pillarboxed on wide screens
+            stage.getViewport().apply();
+            ScreenUtils.clear(clearColor);
+            stage.draw();
+            frameBuffer.end();
+
+            // timed by the clock, since without continuous rendering a frame's delta can be any length
+            dirty = System.nanoTime() < settleEndTime;
+            if (dirty) {
+                Gdx.graphics.requestRendering();
+            }
+        }
+
+        // the frame buffer covers the whole screen and is opaque, so there's nothing to clear or blend with
+        Batch batch = stage.getBatch();
+        batch.setProjectionMatrix(projection);
+        batch.disableBlending();
+        batch.begin();
+        batch.draw(frameRegion, 0.0f, 0.0f, frameBuffer.getWidth(), frameBuffer.getHeight());
+        batch.end();
+        batch.enableBlending();
+    }
+
+    @Override
+    public void dispose() {
+        if (frameBuffer != null) {
+            frameBuffer.dispose();
+            frameBuffer = null;
+        }
+    }
+
+}
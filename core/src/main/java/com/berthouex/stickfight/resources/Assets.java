@@ -9,9 +9,6 @@ import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGeneratorLoader;
-import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
 
 /**
  * Stores references to game assets, loads those assets, and disposes of them.
@@ -22,22 +19,19 @@ public class Assets implements Manager {
     // gameplay assets
     public static final String BACKGROUND_TEXTURE = "textures/Background.png";
     public static final String FRONT_ROPES_TEXTURE = "textures/FrontRopes.png";
-    public static final String IDLE_SPRITE_SHEET = "sprites/IdleSpriteSheet.png";
-    public static final String WALK_SPRITE_SHEET = "sprites/WalkSpriteSheet.png";
-    public static final String PUNCH_SPRITE_SHEET = "sprites/PunchSpriteSheet.png";
-    public static final String KICK_SPRITE_SHEET = "sprites/KickSpriteSheet.png";
-    public static final String HURT_SPRITE_SHEET = "sprites/HurtSpriteSheet.png";
-    public static final String BLOCK_SPRITE_SHEET = "sprites/BlockSpriteSheet.png";
-    public static final String WIN_SPRITE_SHEET = "sprites/WinSpriteSheet.png";
-    public static final String LOSE_SPRITE_SHEET = "sprites/LoseSpriteSheet.png";
+    /** every fighter animation frame, packed from raw_assets by the packFighterAtlas Gradle task **/
+    public static final String FIGHTER_ATLAS = "sprites/Fighter.atlas";
+    /** a 1x1 white region in the fighter atlas, stretched and tinted to draw solid rectangles **/
+    public static final String WHITE_REGION = "white";
     public static final String GAMEPLAY_BUTTONS_ATLAS = "textures/GameplayButtons.atlas";
     public static final String BLOOD_ATLAS = "textures/Blood.atlas";
 
     // fonts
-    public static final String ROBOTO_REGULAR = "fonts/Roboto-Regular.ttf";
-    public static final String SMALL_FONT = "smallFont.ttf";
-    public static final String MEDIUM_FONT = "mediumFont.ttf";
-    public static final String LARGE_FONT = "largeFont.ttf";
+    /** a distance field atlas of Roboto Regular, generated from raw_assets by the generateFontAtlas Gradle task **/
+    public static final String ROBOTO_REGULAR = "fonts/Roboto.fnt";
+    public static final String SMALL_FONT = "smallFont.sdf";
+    public static final String MEDIUM_FONT = "mediumFont.sdf";
+    public static final String LARGE_FONT = "largeFont.sdf";
 
     // audio assets
     public static final String BLOCK_SOUND = "audio/block.mp3";
@@ -71,45 +65,35 @@ public class Assets implements Manager {
 
         manager.load(BACKGROUND_TEXTURE, Texture.class, parameter);
         manager.load(FRONT_ROPES_TEXTURE, Texture.class, parameter);
-        manager.load(IDLE_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(WALK_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(PUNCH_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(KICK_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(HURT_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(BLOCK_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(WIN_SPRITE_SHEET, Texture.class, parameter);
-        manager.load(LOSE_SPRITE_SHEET, Texture.class, parameter);
 
+        manager.load(FIGHTER_ATLAS, TextureAtlas.class);
         manager.load(GAMEPLAY_BUTTONS_ATLAS, TextureAtlas.class);
         manager.load(BLOOD_ATLAS, TextureAtlas.class);
     }
 
+    /**
+     * Every font is drawn from the same distance field atlas, at its own size and outline width. Fonts come scaled to
+     * world units.
+     */
     private void loadFonts() {
         FileHandleResolver resolver = new InternalFileHandleResolver();
-        manager.setLoader(FreeTypeFontGenerator.class, new FreeTypeFontGeneratorLoader(resolver));
-        manager.setLoader(BitmapFont.class, ".ttf", new FreetypeFontLoader(resolver));
+        manager.setLoader(BitmapFont.class, ".sdf", new SdfFontLoader(resolver));
 
-        FreetypeFontLoader.FreeTypeFontLoaderParameter smallFont = new FreetypeFontLoader.FreeTypeFontLoaderParameter();
+        SdfFontLoader.SdfFontParameter smallFont = new SdfFontLoader.SdfFontParameter();
         smallFont.fontFileName = ROBOTO_REGULAR;
-        smallFont.fontParameters.size = 32;
-        smallFont.fontParameters.minFilter = Texture.TextureFilter.Linear;
-        smallFont.fontParameters.magFilter = Texture.TextureFilter.Linear;
+        smallFont.size = 32;
         manager.load(SMALL_FONT, BitmapFont.class, smallFont);
 
-        FreetypeFontLoader.FreeTypeFontLoaderParameter mediumFont = new FreetypeFontLoader.FreeTypeFontLoaderParameter();
+        SdfFontLoader.SdfFontParameter mediumFont = new SdfFontLoader.SdfFontParameter();
         mediumFont.fontFileName = ROBOTO_REGULAR;
-        mediumFont.fontParameters.size = 106;
-        mediumFont.fontParameters.borderWidth = 4;
-        mediumFont.fontParameters.minFilter = Texture.TextureFilter.Linear;
-        mediumFont.fontParameters.magFilter = Texture.TextureFilter.Linear;
+        mediumFont.size = 106;
+        mediumFont.borderWidth = 4;
         manager.load(MEDIUM_FONT, BitmapFont.class, mediumFont);
 
-        FreetypeFontLoader.FreeTypeFontLoaderParameter largeFont = new FreetypeFontLoader.FreeTypeFontLoaderParameter();
+        SdfFontLoader.SdfFontParameter largeFont = new SdfFontLoader.SdfFontParameter();
         largeFont.fontFileName = ROBOTO_REGULAR;
-        largeFont.fontParameters.size = 150;
-        largeFont.fontParameters.borderWidth = 6;
-        largeFont.fontParameters.minFilter = Texture.TextureFilter.Linear;
-        largeFont.fontParameters.magFilter = Texture.TextureFilter.Linear;
+        largeFont.size = 150;
+        largeFont.borderWidth = 6;
         manager.load(LARGE_FONT, BitmapFont.class, largeFont);
     }
 
@@ -0,0 +1,116 @@
+package com.berthouex.stickfight.resources;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * A font drawn from a signed distance field atlas, where each texel's alpha is its distance from the edge of the
+ * glyph rather than its coverage. The edge is found again per pixel when drawing, so one small atlas stays sharp at any
+ * size, and an outline is just a wider cut of the same field.
+ * <p>
+ * Text is drawn with its own shader, which is swapped into the batch around every draw and swapped back afterwards,
+ * so the font works with any batch, including a Stage's. The batch flushes on every swap, but it would anyway, as the
+ * atlas is a texture of its own.
+ */
+public class SdfFont extends BitmapFont {
+    private static final String VERTEX_SHADER = """
+        attribute vec4 a_position;
+        attribute vec4 a_color;
+        attribute vec2 a_texCoord0;
+        uniform mat4 u_projTrans;
+        varying vec4 v_color;
+        varying vec2 v_texCoords;
+
+        void main() {
+            v_color = a_color;
+            v_color.a = v_color.a * (255.0 / 254.0);
+            v_texCoords = a_texCoord0;
+            gl_Position = u_projTrans * a_position;
+        }
+        """;
+
+    private static final String FRAGMENT_SHADER = """
+        #ifdef GL_ES
+        #extension GL_OES_standard_derivatives : enable
+        precision mediump float;
+        #endif
+        uniform sampler2D u_texture;
+        uniform float u_outline; // width of the black outline, in distance units; 0 for none
+        varying vec4 v_color;
+        varying vec2 v_texCoords;
+
+        void main() {
+            // the edge is at 0.5; smoothing over about a pixel antialiases it at any size
+            float distance = texture2D(u_texture, v_texCoords).a;
+            float smoothing = 0.5 * fwidth(distance);
+            float fill = smoothstep(0.5 - smoothing, 0.5 + smoothing, distance);
+            float shape = smoothstep(0.5 - u_outline - smoothing, 0.5 - u_outline + smoothing, distance);
+            vec3 color = u_outline > 0.0 ? v_color.rgb * fill : v_color.rgb;
+            gl_FragColor = vec4(color, v_color.a * shape);
+        }
+        """;
+
+    private final ShaderProgram shader;
+
+    /**
+     * @param data      the font's glyphs, as laid out in the atlas
+     * @param regions   the atlas pages; owned by whoever loaded them, not the font
+     * @param scale     how much bigger to draw the glyphs than they are in the atlas
+     * @param outline   width of the black outline around each glyph, in distance units from 0 for none up to 0.5
+     */
+    public SdfFont(BitmapFontData data, Array<TextureRegion> regions, float scale, float outline) {
+        super(data, regions, false);
+        getData().setScale(scale);
+
+        shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!shader.isCompiled()) {
+            throw new GdxRuntimeException("Unable to compile distance field font shader: " + shader.getLog());
+        }
+        // the outline never changes, so it is set once rather than on every draw
+        shader.bind();
+        shader.setUniformf("u_outline", outline);
+    }
+
+    @Override
+    public BitmapFontCache newFontCache() {
+        return new SdfFontCache(this, usesIntegerPositions());
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        shader.dispose();
+    }
+
+    /**
+     * Draws with the font's shader, leaving the batch's own shader in place afterwards.
+     */
+    private static class SdfFontCache extends BitmapFontCache {
+
+        SdfFontCache(SdfFont font, boolean integer) {
+            super(font, integer);
+        }
+
+        @Override
+        public void draw(Batch batch) {
+            ShaderProgram batchShader = batch.getShader();
+            batch.setShader(((SdfFont) getFont()).shader);
+            super.draw(batch);
+            batch.setShader(batchShader);
+        }
+
+        @Override
+        public void draw(Batch batch, int start, int end) {
+            ShaderProgram batchShader = batch.getShader();
+            batch.setShader(((SdfFont) getFont()).shader);
+            super.draw(batch, start, end);
+            batch.setShader(batchShader);
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.berthouex.stickfight.resources;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.BitmapFontLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Loads an {@link SdfFont} at a given size and outline width from a distance field font atlas. Like FreeType font
+ * loading, the file name of each asset is only a name, e.g. "smallFont.sdf"; the atlas is given in the parameters. Any
+ * number of fonts can share one atlas, which is only loaded once.
+ * <p>
+ * Fonts are scaled to world units, like every other asset measured in pixels.
+ */
+public class SdfFontLoader extends AsynchronousAssetLoader<BitmapFont, SdfFontLoader.SdfFontParameter> {
+    private static final Pattern SIZE = Pattern.compile("\\bsize=(\\d+)");
+
+    private BitmapFont.BitmapFontData data;
+    private int atlasSize;
+
+    public SdfFontLoader(FileHandleResolver resolver) {
+        super(resolver);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, SdfFontParameter parameter) {
+        BitmapFontLoader.BitmapFontParameter atlasParameter = new BitmapFontLoader.BitmapFontParameter();
+        atlasParameter.minFilter = Texture.TextureFilter.Linear;
+        atlasParameter.magFilter = Texture.TextureFilter.Linear;
+
+        Array<AssetDescriptor> dependencies = new Array<>();
+        dependencies.add(new AssetDescriptor<>(parameter.fontFileName, BitmapFont.class, atlasParameter));
+        return dependencies;
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, SdfFontParameter parameter) {
+        FileHandle atlasFile = resolve(parameter.fontFileName);
+        data = new BitmapFont.BitmapFontData(atlasFile, false);
+        atlasSize = readSize(atlasFile);
+    }
+
+    @Override
+    public BitmapFont loadSync(AssetManager manager, String fileName, FileHandle file, SdfFontParameter parameter) {
+        // the glyphs are laid out again for this size, but the atlas pages are shared
+        BitmapFont atlas = manager.get(parameter.fontFileName, BitmapFont.class);
+        float scale = (float) parameter.size / atlasSize;
+
+        // the field goes from 0 to 1 over the padding around each glyph on either side of the edge
+        float spread = data.padTop;
+        float outline = parameter.borderWidth / scale / spread * 0.5f;
+
+        SdfFont font = new SdfFont(data, atlas.getRegions(), scale * GlobalVariables.WORLD_SCALE, outline);
+        data = null;
+        return font;
+    }
+
+    /**
+     * @return  the size the atlas was generated at, from the first line of the font file
+     */
+    private static int readSize(FileHandle file) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.read()), 256)) {
+            Matcher matcher = SIZE.matcher(reader.readLine());
+            if (matcher.find()) {
+                return Integer.parseInt(matcher.group(1));
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Unable to read font " + file, e);
+        }
+        throw new GdxRuntimeException("Font " + file + " has no size");
+    }
+
+    public static class SdfFontParameter extends AssetLoaderParameters<BitmapFont> {
+        /** the distance field font atlas, a .fnt file **/
+        public String fontFileName;
+        /** size of the font in pixels, before scaling to world units **/
+        public int size;
+        /** width of the black outline in pixels, before scaling to world units; 0 for none **/
+        public float borderWidth;
+    }
+
+}
@@ -2,7 +2,7 @@ package com.berthouex.stickfight.resources;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Preferences;
-import com.berthouex.stickfight.screen.Difficulty;
+import com.berthouex.stickfight.simulation.Difficulty;
 
 public class SettingsManager implements Manager {
     private static final String IS_MUSIC_ON = "isMusicOn";
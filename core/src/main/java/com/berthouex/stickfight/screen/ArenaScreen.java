@@ -0,0 +1,252 @@
+package com.berthouex.stickfight.screen;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.ScreenUtils;
+import com.badlogic.gdx.utils.viewport.ExtendViewport;
+import com.badlogic.gdx.utils.viewport.Viewport;
+import com.berthouex.stickfight.Main;
+import com.berthouex.stickfight.objects.Fighter;
+import com.berthouex.stickfight.objects.FighterChoice;
+import com.berthouex.stickfight.objects.HudLabel;
+import com.berthouex.stickfight.objects.RenderQueue;
+import com.berthouex.stickfight.resources.Assets;
+import com.berthouex.stickfight.resources.GlobalVariables;
+import com.berthouex.stickfight.simulation.ArenaSimulation;
+import com.berthouex.stickfight.simulation.FighterModel;
+import com.berthouex.stickfight.simulation.FixedTimestep;
+import com.berthouex.stickfight.simulation.MatchSimulation;
+
+/**
+ * Free-for-all mode: many AI fighters in one ring, last one standing wins. Press Space to start a new fight and
+ * Escape to return to the main menu.
+ */
+public class ArenaScreen implements Screen, InputProcessor {
+    private final Main game;
+    private final Viewport viewport;
+
+    // Arena
+    private final Fighter[] fighters;
+    private final ArenaSimulation simulation;
+    /** The most ticks to catch up on in one frame; any more are dropped and the game slows down instead **/
+    private static final int MAX_TICKS_PER_FRAME = 8;
+    private final FixedTimestep timestep = new FixedTimestep(MatchSimulation.TICK_TIME, MAX_TICKS_PER_FRAME);
+
+    // Fonts
+    private final BitmapFont smallFont;
+    private final BitmapFont largeFont;
+    private final HudLabel fightersLeftLabel;
+    private final HudLabel timerLabel;
+    private final HudLabel winnerLabel;
+
+    // Textures
+    private final Texture backgroundTexture;
+    private final Texture frontRopesTexture;
+    private final TextureRegion backgroundRegion;
+    private final TextureRegion frontRopesRegion;
+
+    /**
+     * @param game          Main class
+     * @param fighterCount  the number of fighters, from {@link ArenaSimulation#MIN_FIGHTERS} to
+     *                      {@link ArenaSimulation#MAX_FIGHTERS}
+     */
+    public ArenaScreen(Main game, int fighterCount) {
+        this.game = game;
+        this.viewport = new ExtendViewport(
+            GlobalVariables.WORLD_WIDTH,
+            GlobalVariables.MIN_WORLD_HEIGHT,
+            GlobalVariables.WORLD_WIDTH,
+            0
+        );
+
+        // fighters take turns wearing each fighter choice
+        fighters = new Fighter[fighterCount];
+        FighterModel[] models = new FighterModel[fighterCount];
+        for (int i = 0; i < fighterCount; i++) {
+            FighterChoice choice = game.fighterChoiceList.get(i % game.fighterChoiceList.size());
+            fighters[i] = new Fighter(game, choice.getName(), choice.getColor());
+            models[i] = fighters[i].getModel();
+        }
+        simulation = new ArenaSimulation(models, game.settingsManager.getDifficultySetting());
+
+        smallFont = game.assets.manager.get(Assets.SMALL_FONT);
+        largeFont = game.assets.manager.get(Assets.LARGE_FONT);
+        fightersLeftLabel = new HudLabel(smallFont, Color.WHITE, Align.left);
+        timerLabel = new HudLabel(smallFont, Color.WHITE, Align.right);
+        winnerLabel = new HudLabel(largeFont, Color.WHITE, Align.center);
+        backgroundTexture = game.assets.manager.get(Assets.BACKGROUND_TEXTURE);
+        frontRopesTexture = game.assets.manager.get(Assets.FRONT_ROPES_TEXTURE);
+        backgroundRegion = new TextureRegion(backgroundTexture);
+        frontRopesRegion = new TextureRegion(frontRopesTexture);
+    }
+
+    @Override
+    public void show() {
+        Gdx.input.setInputProcessor(this);
+        startFight();
+    }
+
+    /**
+     * Starts a new fight.
+     */
+    private void startFight() {
+        timestep.reset();
+        simulation.start();
+        for (Fighter fighter : fighters) {
+            fighter.snapToModel();
+        }
+    }
+
+    @Override
+    public void render(float delta) {
+        ScreenUtils.clear(Color.BLACK);
+
+        int ticks = timestep.advance(delta);
+        for (int i = 0; i < ticks; i++) {
+            simulation.step();
+            for (Fighter fighter : fighters) {
+                fighter.update(MatchSimulation.TICK_TIME);
+            }
+        }
+
+        for (Fighter fighter : fighters) {
+            fighter.interpolate(timestep.getAlpha());
+        }
+
+        game.batch.setProjectionMatrix(viewport.getCamera().combined);
+        game.batch.begin();
+
+        // fighters further up the ring are further back; the queue sorts them by depth
+        RenderQueue queue = game.renderQueue;
+        queue.draw(RenderQueue.Layer.BACKGROUND, backgroundRegion, 0, 0,
+            backgroundTexture.getWidth() * GlobalVariables.WORLD_SCALE,
+            backgroundTexture.getHeight() * GlobalVariables.WORLD_SCALE);
+        for (Fighter fighter : fighters) {
+            fighter.render(queue);
+        }
+        queue.draw(RenderQueue.Layer.FOREGROUND, frontRopesRegion, 0, 0,
+            frontRopesTexture.getWidth() * GlobalVariables.WORLD_SCALE,
+            frontRopesTexture.getHeight() * GlobalVariables.WORLD_SCALE);
+        queue.flush(game.batch);
+
+        renderHUD();
+
+        game.batch.end();
+    }
+
+    /**
+     * Draws the number of fighters left, and the winner once the fight is over.
+     */
+    private void renderHUD() {
+        float hudMargin = 1.0f;
+        if (fightersLeftLabel.changed(simulation.getFightersLeft())) {
+            fightersLeftLabel.text().append("FIGHTERS LEFT: ").append(simulation.getFightersLeft());
+            fightersLeftLabel.layout();
+        }
+        fightersLeftLabel.draw(game.batch, hudMargin, viewport.getWorldHeight() - hudMargin);
+
+        int seconds = (int) Math.max(simulation.getTimer(), 0.0f);
+        if (timerLabel.changed(seconds)) {
+            timerLabel.text().append("TIME: ").append(seconds);
+            timerLabel.layout();
+        }
+        timerLabel.draw(game.batch, viewport.getWorldWidth() - hudMargin, viewport.getWorldHeight() - hudMargin);
+
+        if (simulation.isOver()) {
+            if (winnerLabel.changed(simulation.getWinner())) {
+                if (simulation.getWinner() >= 0) {
+                    winnerLabel.text().append(fighters[simulation.getWinner()].getName()).append(" WINS!");
+                } else {
+                    winnerLabel.text().append("NOBODY WINS!");
+                }
+                winnerLabel.layout();
+            }
+            winnerLabel.draw(game.batch, viewport.getWorldWidth() / 2.0f, viewport.getWorldHeight() / 2.0f);
+        }
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        viewport.update(width, height, true);
+    }
+
+    @Override
+    public void pause() {
+
+    }
+
+    @Override
+    public void resume() {
+
+    }
+
+    @Override
+    public void hide() {
+
+    }
+
+    @Override
+    public void dispose() {
+
+    }
+
+    // INPUT PROCESSOR
+
+    @Override
+    public boolean keyDown(int keycode) {
+        if (keycode == Input.Keys.SPACE) {
+            startFight();
+        } else if (keycode == Input.Keys.ESCAPE) {
+            game.setScreen(game.mainMenuScreen);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean keyUp(int keycode) {
+        return false;
+    }
+
+    @Override
+    public boolean keyTyped(char character) {
+        return false;
+    }
+
+    @Override
+    public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+        return false;
+    }
+
+    @Override
+    public boolean touchUp(int screenX, int screenY, int pointer, int button) {
+        return false;
+    }
+
+    @Override
+    public boolean touchCancelled(int screenX, int screenY, int pointer, int button) {
+        return false;
+    }
+
+    @Override
+    public boolean touchDragged(int screenX, int screenY, int pointer) {
+        return false;
+    }
+
+    @Override
+    public boolean mouseMoved(int screenX, int screenY) {
+        return false;
+    }
+
+    @Override
+    public boolean scrolled(float amountX, float amountY) {
+        return false;
+    }
+
+}
@@ -1,61 +1,79 @@
 package com.berthouex.stickfight.screen;
 
-import java.util.Locale;
-
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.ScreenUtils;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.badlogic.gdx.utils.viewport.ExtendViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.berthouex.stickfight.Main;
-import com.berthouex.stickfight.objects.BloodPool;
-import com.berthouex.stickfight.objects.BloodSplatter;
+import com.berthouex.stickfight.objects.Crowd;
+import com.berthouex.stickfight.objects.DecalLayer;
 import com.berthouex.stickfight.objects.Fighter;
+import com.berthouex.stickfight.objects.FreezeFrame;
+import com.berthouex.stickfight.objects.HudLabel;
+import com.berthouex.stickfight.objects.HudRenderer;
+import com.berthouex.stickfight.objects.ParticleSystem;
+import com.berthouex.stickfight.objects.PerformanceOverlay;
+import com.berthouex.stickfight.objects.QualityGovernor;
+import com.berthouex.stickfight.objects.RenderQueue;
+import com.berthouex.stickfight.objects.ScaledFrameBuffer;
 import com.berthouex.stickfight.resources.Assets;
 import com.berthouex.stickfight.resources.GlobalVariables;
-
-public class GameScreen implements Screen, InputProcessor {
+import com.berthouex.stickfight.simulation.AiScheduler;
+import com.berthouex.stickfight.simulation.FighterModel;
+import com.berthouex.stickfight.simulation.FixedTimestep;
+import com.berthouex.stickfight.simulation.MatchInputs;
+import com.berthouex.stickfight.simulation.MatchListener;
+import com.berthouex.stickfight.simulation.MatchSimulation;
+import com.berthouex.stickfight.simulation.MonteCarloBrain;
+import com.berthouex.stickfight.simulation.OpponentBrain;
+import com.berthouex.stickfight.simulation.ReplayPlayback;
+import com.berthouex.stickfight.simulation.ReplayRecorder;
+import com.berthouex.stickfight.simulation.ReplayWriter;
+import com.berthouex.stickfight.simulation.SnapshotBuffer;
+
+public class GameScreen implements Screen, InputProcessor, MatchListener {
     private final Main game;
     private final Viewport viewport;
 
     // Game
-    private Difficulty difficulty = Difficulty.EASY;
+    private final MatchSimulation simulation;
+    private final MatchInputs inputs = new MatchInputs();
+    /** The most ticks to catch up on in one frame; any more are dropped and the game slows down instead **/
+    private static final int MAX_TICKS_PER_FRAME = 8;
+    private final FixedTimestep timestep = new FixedTimestep(MatchSimulation.TICK_TIME, MAX_TICKS_PER_FRAME);
     private enum GameState {
         RUNNING,
         PAUSED,
         GAME_OVER
     }
     private GameState gameState;
+    private AiScheduler opponentScheduler; // runs the opponent's brain off the render thread on levels that have one
 
-    private int roundsWon = 0;
-    private int roundsLost = 0;
-    private static final float MAX_ROUND_TIME = 99.99f;
-    private float roundTimer = MAX_ROUND_TIME;
+    // Replays
+    private static final String REPLAY_DIRECTORY = "replays/";
+    private static final String REPLAY_EXTENSION = ".sfr";
+    private ReplayRecorder replayRecorder;
+    private ReplayPlayback replay; // when set, the match is played back instead of controlled by the player
+
+    // Rewind
+    /** one second of history is saved, a snapshot before every tick **/
+    private static final int SNAPSHOT_TICKS = 120;
+    private final SnapshotBuffer snapshots = new SnapshotBuffer(SNAPSHOT_TICKS);
 
-    private enum RoundState {
-        STARTING,
-        IN_PROGRESS,
-        ENDING
-    }
-    private RoundState roundState;
-    private float roundStateTime;
-    private static final float START_ROUND_DELAY = 2.0f;
-    private static final float END_ROUND_DELAY = 2.0f;
-    private int currentRound;
-    private static final int MAX_ROUNDS = 3;
     private static final float CRITICAL_ROUND_TIME = 10.0f;
     private static final Color CRITICAL_ROUND_TIME_COLOR = Color.RED;
 
@@ -64,20 +82,39 @@ public class GameScreen implements Screen, InputProcessor {
     private BitmapFont mediumFont;
     private BitmapFont largeFont;
     private static final Color DEFAULT_FONT_COLOR = Color.WHITE;
+    // text is only laid out again when it changes
+    private HudLabel winsLabel;
+    private HudLabel difficultyLabel;
+    private HudLabel playerNameLabel;
+    private HudLabel opponentNameLabel;
+    private HudLabel roundTimerLabel;
+    private HudLabel startRoundLabel;
+    private HudLabel gameOverLabel;
+    private HudLabel pausedLabel;
 
     // HUD
     private static final Color HEALTH_BAR_COLOR = Color.RED;
     private static final Color HEALTH_BAR_BACKGROUND_COLOR = GlobalVariables.GOLD;
+    private static final float OVERLAY_ALPHA = 0.7f;
+    private HudRenderer hudRenderer;
+    private PerformanceOverlay performanceOverlay;
+    private long lastAiWorkerNanos; // the opponent scheduler's busy time at the end of the last frame
+    /** the scene as it was when the game was paused or ended, drawn under the overlays instead of the scene **/
+    private final FreezeFrame freezeFrame = new FreezeFrame();
+    private boolean idle; // frames are only drawn when asked for, while the frozen scene is on screen
+
+    // Quality
+    /** lowers the resolution of the ring and the amount of blood when frames can't keep up with the display **/
+    private final QualityGovernor qualityGovernor;
+    private boolean governingInBackground; // the window was in the background for the governor's last frame
+    private QualityGovernor.Quality appliedQuality;
+    private final ScaledFrameBuffer scaledRing = new ScaledFrameBuffer();
 
     // Textures
     private Texture backgroundTexture;
     private Texture frontRopesTexture;
-    // ring bounds
-    private static final float RING_MIN_X = 7.0f;
-    private static final float RING_MAX_X = 60.0f;
-    private static final float RING_MIN_Y = 4.0f;
-    private static final float RING_MAX_Y = 22.0f;
-    private static final float RING_SLOPE = 3.16f;
+    private TextureRegion backgroundRegion;
+    private TextureRegion frontRopesRegion;
     // buttons
     private Sprite playAgainButtonSprite;
     private Sprite mainMenuButtonSprite;
@@ -85,32 +122,22 @@ public class GameScreen implements Screen, InputProcessor {
     private Sprite pauseButtonSprite;
     private static final float PAUSE_BUTTON_MARGIN = 1.5f;
 
-    // fighters
-    private static final float playerStartPositionX = 16.0f;        // values in world units, not pixels
-    private static final float opponentStartPositionX = 51.0f;
-    private static final float fighterStartPositionY = 15.0f;
-    private static final float fighterContactDistanceX = 7.5f;
-    private static final float fighterContactDistanceY = 1.5f;
-
-
-    // opponent AI
-    private float opponentAiTimer;
-    private boolean opponentAiMakingContactDecision;
-    private boolean opponentAiPursuingPlayer;
-
     // blood
     private boolean showingBlood = true;
-    private BloodSplatter[] playerBloodSplatters;
-    private BloodSplatter[] opponentBloodSplatters;
-    private int currentPlayerBloodSplatterIndex;
-    private int currentOpponentBloodSplatterIndex;
+    private ParticleSystem playerBloodSplatters;
+    private ParticleSystem opponentBloodSplatters;
     private static final int BLOOD_SPLATTER_AMOUNT = 5;
+    private static final float BLOOD_SPLATTER_FRAME_DURATION = 0.03f;
     private static final float BLOOD_SPLATTER_OFFSET_X = 2.8f;
     private static final float BLOOD_SPLATTER_OFFSET_Y = 11f;
 
-    private BloodPool[] bloodPools;
-    private int currentBloodPoolIndex;
-    private static final int BLOOD_POOL_AMOUNT = 100;
+    private DecalLayer bloodPools;
+    private static final int BLOOD_POOL_TEXTURE_AMOUNT = 3;
+    private static final float BLOOD_POOL_FADE_TIME = 60.0f;
+
+    // crowd
+    private Crowd crowd;
+    private static final int CROWD_SIZE = 3000;
 
     /**
      * Initializes a new GameScreen.
@@ -125,11 +152,15 @@ public class GameScreen implements Screen, InputProcessor {
             GlobalVariables.WORLD_WIDTH,
             0
         );
+        this.simulation = new MatchSimulation(game.player.getModel(), game.opponent.getModel(), game.settingsManager.getDifficultySetting());
+        simulation.setListener(this);
+        this.qualityGovernor = new QualityGovernor(Gdx.graphics.getDisplayMode().refreshRate);
 
         createGameArea();
         setUpFonts();
         createButtons();
         createBlood();
+        createCrowd();
     }
 
     /**
@@ -139,6 +170,8 @@ public class GameScreen implements Screen, InputProcessor {
         // get textures from asset manager
         backgroundTexture = game.assets.manager.get(Assets.BACKGROUND_TEXTURE);
         frontRopesTexture = game.assets.manager.get(Assets.FRONT_ROPES_TEXTURE);
+        backgroundRegion = new TextureRegion(backgroundTexture);
+        frontRopesRegion = new TextureRegion(frontRopesTexture);
     }
 
     /**
@@ -146,25 +179,36 @@ public class GameScreen implements Screen, InputProcessor {
      */
     private void setUpFonts() {
         smallFont = game.assets.manager.get(Assets.SMALL_FONT);
-        smallFont.getData().setScale(GlobalVariables.WORLD_SCALE);
         smallFont.setColor(DEFAULT_FONT_COLOR);
         smallFont.setUseIntegerPositions(false);
 
         mediumFont = game.assets.manager.get(Assets.MEDIUM_FONT);
-        mediumFont.getData().setScale(GlobalVariables.WORLD_SCALE);
         mediumFont.setColor(DEFAULT_FONT_COLOR);
         mediumFont.setUseIntegerPositions(false);
 
         largeFont = game.assets.manager.get(Assets.LARGE_FONT);
-        largeFont.getData().setScale(GlobalVariables.WORLD_SCALE);
         largeFont.setColor(DEFAULT_FONT_COLOR);
         largeFont.setUseIntegerPositions(false);
+
+        winsLabel = new HudLabel(smallFont, DEFAULT_FONT_COLOR, Align.left);
+        difficultyLabel = new HudLabel(smallFont, DEFAULT_FONT_COLOR, Align.right);
+        playerNameLabel = new HudLabel(smallFont, DEFAULT_FONT_COLOR, Align.left);
+        opponentNameLabel = new HudLabel(smallFont, DEFAULT_FONT_COLOR, Align.right);
+        roundTimerLabel = new HudLabel(mediumFont, DEFAULT_FONT_COLOR, Align.left);
+        startRoundLabel = new HudLabel(mediumFont, DEFAULT_FONT_COLOR, Align.center);
+        gameOverLabel = new HudLabel(largeFont, DEFAULT_FONT_COLOR, Align.center);
+        pausedLabel = new HudLabel(largeFont, DEFAULT_FONT_COLOR, Align.center);
+        pausedLabel.setText("GAME PAUSED");
     }
 
     /**
      * Creates buttons for menus.
      */
     private void createButtons() {
+        TextureAtlas fighterAtlas = game.assets.manager.get(Assets.FIGHTER_ATLAS);
+        hudRenderer = new HudRenderer(fighterAtlas.findRegion(Assets.WHITE_REGION));
+        performanceOverlay = new PerformanceOverlay(hudRenderer, smallFont);
+
         TextureAtlas buttonTextureAtlas = game.assets.manager.get(Assets.GAMEPLAY_BUTTONS_ATLAS);
         playAgainButtonSprite = new Sprite(buttonTextureAtlas.findRegion("PlayAgainButton"));
         playAgainButtonSprite.setSize(playAgainButtonSprite.getWidth() * GlobalVariables.WORLD_SCALE, playAgainButtonSprite.getHeight() * GlobalVariables.WORLD_SCALE);
@@ -183,24 +227,31 @@ public class GameScreen implements Screen, InputProcessor {
      * Initialize the blood splatters and blood pools.
      */
     private void createBlood() {
-        // init blood splatters
-        playerBloodSplatters = new BloodSplatter[BLOOD_SPLATTER_AMOUNT];
-        opponentBloodSplatters = new BloodSplatter[BLOOD_SPLATTER_AMOUNT];
-
-        for (int i = 0; i < BLOOD_SPLATTER_AMOUNT; i++) {
-            playerBloodSplatters[i] = new BloodSplatter(game);
-            opponentBloodSplatters[i] = new BloodSplatter(game);
-        }
+        TextureAtlas bloodAtlas = game.assets.manager.get(Assets.BLOOD_ATLAS);
 
-        currentPlayerBloodSplatterIndex = 0;
-        currentOpponentBloodSplatterIndex = 0;
+        // init blood splatters
+        Array<TextureAtlas.AtlasRegion> splatterFrames = bloodAtlas.findRegions("BloodSplatter");
+        playerBloodSplatters = ParticleSystem.animated(splatterFrames, BLOOD_SPLATTER_FRAME_DURATION, BLOOD_SPLATTER_AMOUNT);
+        opponentBloodSplatters = ParticleSystem.animated(splatterFrames, BLOOD_SPLATTER_FRAME_DURATION, BLOOD_SPLATTER_AMOUNT);
 
         // init blood pools
-        bloodPools = new BloodPool[BLOOD_POOL_AMOUNT];
-        for (int i = 0; i < BLOOD_POOL_AMOUNT; i++) {
-            bloodPools[i] = new BloodPool(game);
+        Array<TextureAtlas.AtlasRegion> poolTextures = new Array<>();
+        for (int i = 0; i < BLOOD_POOL_TEXTURE_AMOUNT; i++) {
+            poolTextures.add(bloodAtlas.findRegion("BloodPool" + i));
         }
-        currentBloodPoolIndex = 0;
+        TextureAtlas fighterAtlas = game.assets.manager.get(Assets.FIGHTER_ATLAS);
+        bloodPools = new DecalLayer(poolTextures, fighterAtlas.findRegion(Assets.WHITE_REGION),
+            backgroundTexture.getWidth() * GlobalVariables.WORLD_SCALE, backgroundTexture.getHeight() * GlobalVariables.WORLD_SCALE,
+            BLOOD_POOL_FADE_TIME, SNAPSHOT_TICKS * MatchSimulation.TICK_TIME);
+        bloodPools.setRandom(simulation.getEffectsRandom());
+    }
+
+    /**
+     * Initialize the audience in the stands.
+     */
+    private void createCrowd() {
+        crowd = new Crowd(CROWD_SIZE);
+        crowd.setRandom(simulation.getCosmeticsRandom());
     }
 
     @Override
@@ -208,9 +259,12 @@ public class GameScreen implements Screen, InputProcessor {
         // process user input
         Gdx.input.setInputProcessor(this);
 
-        // retrieve settings
-        difficulty = game.settingsManager.getDifficultySetting();
+        // retrieve settings; a replay sets its own difficulty
+        if (replay == null) {
+            simulation.setDifficulty(game.settingsManager.getDifficultySetting());
+        }
         showingBlood = game.settingsManager.isBloodSettingOn();
+        qualityGovernor.reset();
 
         // start the game
         startGame();
@@ -220,13 +274,83 @@ public class GameScreen implements Screen, InputProcessor {
      * Starts the game from the first round.
      */
     private void startGame() {
+        stopRecording();
+
         gameState = GameState.RUNNING;
-        roundsWon = 0;
-        roundsLost = 0;
+        inputs.clear();
+        timestep.reset();
+        snapshots.clear();
+
+        if (replay != null) {
+            // play the recorded match again, checking the AI makes the same decisions
+            stopOpponentScheduler();
+            replay.rewind();
+            simulation.setDifficulty(replay.getDifficulty());
+            simulation.setRecorder(replay);
+            simulation.setOpponentScript(replay);
+            simulation.startMatch(replay.getSeed());
+        } else {
+            simulation.setOpponentScript(null);
+            updateOpponentScheduler();
 
-        // start round 1
-        currentRound = 1;
-        startRound();
+            // record every match so it can be watched again
+            FileHandle replayFile = Gdx.files.local(REPLAY_DIRECTORY + TimeUtils.millis() + REPLAY_EXTENSION);
+            replayRecorder = new ReplayRecorder(new ReplayWriter(() -> replayFile.write(false)));
+            simulation.setRecorder(replayRecorder);
+            simulation.startMatch();
+        }
+    }
+
+    /**
+     * Starts a worker for the opponent's brain if the current difficulty has one, and stops any worker left over from
+     * another difficulty.
+     */
+    private void updateOpponentScheduler() {
+        stopOpponentScheduler();
+
+        OpponentBrain brain = simulation.getDifficulty().createBrain();
+        if (brain != null) {
+            opponentScheduler = new AiScheduler(brain, AiScheduler.DEFAULT_BUDGET_NANOS);
+            simulation.setOpponentScheduler(opponentScheduler);
+        }
+        performanceOverlay.setSearchBrain(brain instanceof MonteCarloBrain searchBrain ? searchBrain : null);
+    }
+
+    private void stopOpponentScheduler() {
+        simulation.setOpponentScheduler(null);
+        performanceOverlay.setSearchBrain(null);
+
+        if (opponentScheduler != null) {
+            opponentScheduler.close();
+            if (opponentScheduler.getError() != null) {
+                Gdx.app.error("GameScreen", "Opponent AI failed", opponentScheduler.getError());
+            }
+            opponentScheduler = null;
+        }
+    }
+
+    /**
+     * Plays back a recorded match the next time this screen is shown.
+     *
+     * @param replay    the match to play back
+     */
+    public void playReplay(ReplayPlayback replay) {
+        this.replay = replay;
+    }
+
+    /**
+     * Finishes writing the current match's replay, if one is being recorded.
+     */
+    private void stopRecording() {
+        simulation.setRecorder(null);
+
+        if (replayRecorder != null) {
+            replayRecorder.close();
+            if (replayRecorder.getWriter().getError() != null) {
+                Gdx.app.error("GameScreen", "Unable to save replay", replayRecorder.getWriter().getError());
+            }
+            replayRecorder = null;
+        }
     }
 
     /**
@@ -247,133 +371,195 @@ public class GameScreen implements Screen, InputProcessor {
         game.audioManager.playMusic();
     }
 
-    /**
-     * Starts a round.
-     */
-    private void startRound() {
-        game.player.getReady(playerStartPositionX, fighterStartPositionY);
-        game.opponent.getReady(opponentStartPositionX, fighterStartPositionY);
+    @Override
+    public void render(float delta) {
+        long updateStartTime = System.nanoTime();
+        long aiStartNanos = simulation.getOpponentAiNanos();
 
-        roundState = RoundState.STARTING;
-        roundStateTime = 0.0f;
-        roundTimer = MAX_ROUND_TIME;
-    }
+        // the first frame after idling would count all the time spent idle, which the game didn't run for
+        float gameDelta = idle ? 0.0f : delta;
 
-    /**
-     * Ends a round.
-     */
-    private void endRound() {
-        roundState = RoundState.ENDING;
-        roundStateTime = 0.0f;
-    }
+        if (gameState == GameState.RUNNING) {
+            int ticks = timestep.advance(gameDelta);
+            for (int i = 0; i < ticks && gameState == GameState.RUNNING; i++) {
+                update();
+            }
+        }
 
-    /**
-     * Wins a round for the player.
-     */
-    private void winRound() {
-        game.player.win();
-        game.opponent.lose();
-        roundsWon++;
+        long renderStartTime = System.nanoTime();
+        bloodPools.flush(game.batch);
+        applyQuality();
 
-        game.audioManager.playSound(Assets.CHEER_SOUND);
-        endRound();
+        // while the game is paused or over nothing in the scene moves, so it is captured once and the copy drawn
+        boolean frozen = gameState != GameState.RUNNING;
+        if (!frozen) {
+            freezeFrame.invalidate();
+        }
+        boolean drawingScene = !frozen || !freezeFrame.isCaptured();
+
+        // when frames can't keep up, the ring is drawn at a lower resolution and stretched over the screen
+        boolean ringScaled = drawingScene && appliedQuality.getRenderScale() < 1.0f
+            && scaledRing.begin(viewport, appliedQuality.getRenderScale());
+        if (ringScaled) {
+            game.batch.setProjectionMatrix(viewport.getCamera().combined);
+            game.batch.begin();
+            renderRing();
+            game.batch.end();
+            scaledRing.end();
+        }
+
+        if (frozen && !freezeFrame.isCaptured() && freezeFrame.begin()) {
+            beginFrame();
+            renderScene(ringScaled);
+            game.batch.end();
+            freezeFrame.end();
+        }
+
+        // everything else, including the HUD and overlays, is drawn in one batch
+        beginFrame();
+
+        if (frozen && freezeFrame.isCaptured()) {
+            freezeFrame.draw(game.batch, viewport);
+        } else {
+            renderScene(ringScaled);
+        }
+
+        if (gameState == GameState.GAME_OVER) {
+            renderGameOverOverlay();
+        } else if (gameState == GameState.PAUSED) {
+            renderPauseOverlay();
+        }
+
+        performanceOverlay.render(game.batch);
+
+        game.batch.end();
+
+        recordFrame(gameDelta, updateStartTime, renderStartTime, simulation.getOpponentAiNanos() - aiStartNanos);
+
+        // once the frozen scene is on screen nothing changes until the player does something
+        idle = frozen && freezeFrame.isCaptured() && !performanceOverlay.isVisible();
+        game.setIdle(idle);
     }
 
     /**
-     * Loses a round for the player.
+     * Sets the amount of blood to the quality chosen by the governor, if it has changed.
      */
-    private void loseRound() {
-        game.player.lose();
-        game.opponent.win();
-        roundsLost++;
+    private void applyQuality() {
+        QualityGovernor.Quality quality = qualityGovernor.getQuality();
+        if (quality == appliedQuality) {
+            return;
+        }
+        appliedQuality = quality;
 
-        game.audioManager.playSound(Assets.BOO_SOUND);
-        endRound();
+        playerBloodSplatters.setLimit(quality.scaleEffects(playerBloodSplatters.getCapacity()));
+        opponentBloodSplatters.setLimit(quality.scaleEffects(opponentBloodSplatters.getCapacity()));
+        bloodPools.setLimit(quality.scaleEffects(bloodPools.getCapacity()));
     }
 
-    @Override
-    public void render(float delta) {
+    /**
+     * Clears the screen and begins the batch, drawing to the viewport in world units.
+     */
+    private void beginFrame() {
+        viewport.apply();
         ScreenUtils.clear(Color.BLACK);
 
-        update(gameState == GameState.RUNNING ? delta : 0.0f);
-
         // set SpriteBatch to use camera
         game.batch.setProjectionMatrix(viewport.getCamera().combined);
-        game.shapeRenderer.setProjectionMatrix(viewport.getCamera().combined);
-
         game.batch.begin();
-        // draw background
-        game.batch.draw(
-            backgroundTexture, 0, 0,
-            backgroundTexture.getWidth() * GlobalVariables.WORLD_SCALE,
-            backgroundTexture.getHeight() * GlobalVariables.WORLD_SCALE
-        );
+    }
 
-        renderBloodPools();
-        renderFighters();
-        // draw front ropes
-        game.batch.draw(
-            frontRopesTexture, 0, 0,
-            frontRopesTexture.getWidth() * GlobalVariables.WORLD_SCALE,
-            frontRopesTexture.getHeight() * GlobalVariables.WORLD_SCALE
-        );
+    /**
+     * Draws the ring and the HUD, everything under the pause and game over overlays.
+     *
+     * @param ringScaled    <code>true</code> if the ring has already been drawn at a lower resolution this frame
+     */
+    private void renderScene(boolean ringScaled) {
+        if (ringScaled) {
+            scaledRing.draw(game.batch, viewport);
+        } else {
+            renderRing();
+        }
 
         renderHUD();
 
         renderPauseButton();
 
-        if (gameState == GameState.GAME_OVER) {
-            renderGameOverOverlay();
-        } else {
-            if (roundState == RoundState.STARTING) {
-                renderStartRoundText();
-            }
-            // if the game is paused, draw pause overlay
-            if (gameState == GameState.PAUSED) {
-                renderPauseOverlay();
-            }
+        if (gameState != GameState.GAME_OVER && simulation.getRoundState() == MatchSimulation.RoundState.STARTING) {
+            renderStartRoundText();
         }
+    }
 
-        game.batch.end();
+    /**
+     * Draws the background, crowd, blood, fighters and ropes.
+     */
+    private void renderRing() {
+        // draw fighters between the last two ticks
+        game.player.interpolate(timestep.getAlpha());
+        game.opponent.interpolate(timestep.getAlpha());
+
+        // the scene is queued in any order and drawn sorted by layer and depth
+        RenderQueue queue = game.renderQueue;
+        queue.draw(RenderQueue.Layer.BACKGROUND, backgroundRegion, 0, 0,
+            backgroundTexture.getWidth() * GlobalVariables.WORLD_SCALE,
+            backgroundTexture.getHeight() * GlobalVariables.WORLD_SCALE);
+        crowd.render(queue);
+        renderBloodPools(queue);
+        renderFighter(queue, game.player, playerBloodSplatters);
+        renderFighter(queue, game.opponent, opponentBloodSplatters);
+        queue.draw(RenderQueue.Layer.FOREGROUND, frontRopesRegion, 0, 0,
+            frontRopesTexture.getWidth() * GlobalVariables.WORLD_SCALE,
+            frontRopesTexture.getHeight() * GlobalVariables.WORLD_SCALE);
+        queue.flush(game.batch);
     }
 
     /**
-     * Draw fighters and then any active blood splatters.
+     * Hands the timings of the frame just drawn to the performance overlay and the quality governor.
+     *
+     * @param delta             time since the last frame
+     * @param updateStartTime   when the frame started updating the game
+     * @param renderStartTime   when the frame started drawing
+     * @param aiNanos           time spent on the opponent AI during the update
      */
-    private void renderFighters() {
-        if (game.player.getPosition().y > game.opponent.getPosition().y) {
-            game.player.render(game.batch);
-            renderBloodSplatters(playerBloodSplatters);
+    private void recordFrame(float delta, long updateStartTime, long renderStartTime, long aiNanos) {
+        // the worker's time is counted even while the overlay is hidden, so showing it doesn't start with a spike
+        long aiWorkerNanos = opponentScheduler != null ? opponentScheduler.getBusyNanos() : 0;
+        long aiWorkerFrameNanos = Math.max(0, aiWorkerNanos - lastAiWorkerNanos);
+        lastAiWorkerNanos = aiWorkerNanos;
 
-            game.opponent.render(game.batch);
-            renderBloodSplatters(opponentBloodSplatters);
-        } else {
-            game.opponent.render(game.batch);
-            renderBloodSplatters(opponentBloodSplatters);
+        long renderEndTime = System.nanoTime();
+        performanceOverlay.frameFinished(game.batch, crowd.renderCalls, renderStartTime - updateStartTime, aiNanos,
+            aiWorkerFrameNanos, renderEndTime - renderStartTime);
+        crowd.renderCalls = 0;
+
+        // frames in the background are held back on purpose, so they would only make it look like the game is slow
+        if (game.isInBackground() != governingInBackground) {
+            governingInBackground = game.isInBackground();
+            qualityGovernor.reset();
+        }
 
-            game.player.render(game.batch);
-            renderBloodSplatters(playerBloodSplatters);
+        // paused frames cost next to nothing, so they would only make it look like there is room to spare
+        if (gameState == GameState.RUNNING && !governingInBackground) {
+            qualityGovernor.frameFinished((long) (delta * 1_000_000_000L), renderEndTime - updateStartTime);
         }
     }
 
     /**
-     * Renders blood splatters to the screen.
+     * Queues a fighter and then any active blood splatters, over it at the same depth.
      *
-     * @param bloodSplatters    splatter objects to render
+     * @param queue             the queue for the scene
+     * @param fighter           fighter to render
+     * @param bloodSplatters    the fighter's splatters
      */
-    private void renderBloodSplatters(BloodSplatter[] bloodSplatters) {
+    private void renderFighter(RenderQueue queue, Fighter fighter, ParticleSystem bloodSplatters) {
+        fighter.render(queue);
         if (showingBlood) {
-            for (BloodSplatter splatter : bloodSplatters) {
-                splatter.render(game.batch);
-            }
+            bloodSplatters.render(queue, RenderQueue.Layer.FIGHTERS, fighter.getDepth(), 1);
         }
     }
 
-    private void renderBloodPools() {
+    private void renderBloodPools(RenderQueue queue) {
         if (showingBlood) {
-            for (BloodPool pool : bloodPools) {
-                pool.render(game.batch);
-            }
+            bloodPools.render(queue);
         }
     }
 
@@ -383,9 +569,19 @@ public class GameScreen implements Screen, InputProcessor {
      */
     private void renderHUD() {
         float hudMargin = 1.0f;
-        smallFont.draw(game.batch, "WINS: " + roundsWon + " - " + roundsLost, hudMargin, viewport.getWorldHeight() - hudMargin);
-        String text = "DIFFICULTY: " + difficulty.getName();
-        smallFont.draw(game.batch, text, viewport.getWorldWidth() - hudMargin, viewport.getWorldHeight() - hudMargin, 0, Align.right, false);
+        int roundsWon = simulation.getRoundsWon();
+        int roundsLost = simulation.getRoundsLost();
+        if (winsLabel.changed(((long) roundsWon << Integer.SIZE) | roundsLost)) {
+            winsLabel.text().append("WINS: ").append(roundsWon).append(" - ").append(roundsLost);
+            winsLabel.layout();
+        }
+        winsLabel.draw(game.batch, hudMargin, viewport.getWorldHeight() - hudMargin);
+
+        if (difficultyLabel.changed(simulation.getDifficulty().ordinal())) {
+            difficultyLabel.text().append("DIFFICULTY: ").append(simulation.getDifficulty().getName());
+            difficultyLabel.layout();
+        }
+        difficultyLabel.draw(game.batch, viewport.getWorldWidth() - hudMargin, viewport.getWorldHeight() - hudMargin);
 
         float healthBarPadding = 0.5f;
         float healthBarHeight = smallFont.getCapHeight() + healthBarPadding * 2.0f;
@@ -398,66 +594,51 @@ public class GameScreen implements Screen, InputProcessor {
         float healthBarPositionY = healthBarBackgroundPositionY + healthBarBackgroundPadding;
         float fighterNamePositionY = healthBarPositionY + healthBarHeight - healthBarPadding;
 
-        // draw health bar
-        game.batch.end();
-        game.shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-
-        game.shapeRenderer.setColor(HEALTH_BAR_BACKGROUND_COLOR);
-        game.shapeRenderer.rect(hudMargin, healthBarBackgroundPositionY, healthBarBackgroundWidth, healthBarBackgroundHeight);
-        game.shapeRenderer.rect(viewport.getWorldWidth() - hudMargin - healthBarBackgroundWidth, healthBarBackgroundPositionY, healthBarBackgroundWidth, healthBarBackgroundHeight);
-
-        game.shapeRenderer.setColor(HEALTH_BAR_COLOR);
-        float healthBarWidth = healthBarMaxWidth * game.player.getLife() / Fighter.MAX_LIFE;
-        game.shapeRenderer.rect(hudMargin + healthBarBackgroundPadding, healthBarPositionY, healthBarWidth, healthBarHeight);
-
-        healthBarWidth = healthBarMaxWidth * game.opponent.getLife() / Fighter.MAX_LIFE;
-        game.shapeRenderer.rect(viewport.getWorldWidth() - hudMargin - healthBarBackgroundPadding - healthBarWidth,
-            healthBarPositionY, healthBarWidth, healthBarHeight);
-
-        game.shapeRenderer.end();
-        game.batch.begin();
+        // draw health bars, the opponent's emptying towards the right edge
+        hudRenderer.drawBar(game.batch, hudMargin, healthBarBackgroundPositionY,
+            healthBarBackgroundWidth, healthBarBackgroundHeight, healthBarBackgroundPadding,
+            simulation.getPlayer().getLife() / FighterModel.MAX_LIFE, false, HEALTH_BAR_COLOR, HEALTH_BAR_BACKGROUND_COLOR);
+        hudRenderer.drawBar(game.batch, viewport.getWorldWidth() - hudMargin - healthBarBackgroundWidth, healthBarBackgroundPositionY,
+            healthBarBackgroundWidth, healthBarBackgroundHeight, healthBarBackgroundPadding,
+            simulation.getOpponent().getLife() / FighterModel.MAX_LIFE, true, HEALTH_BAR_COLOR, HEALTH_BAR_BACKGROUND_COLOR);
 
         // draw names
-        smallFont.draw(
-            game.batch,
-            game.player.getName(),
-            hudMargin + healthBarBackgroundPadding + healthBarPadding,
-            fighterNamePositionY);
-
-        smallFont.draw(
-            game.batch,
-            game.opponent.getName(),
-            viewport.getWorldWidth() - hudMargin - healthBarBackgroundPadding - healthBarPadding,
-            fighterNamePositionY,
-            0,
-            Align.right,
-            false
-        );
-
-        // draw round timer
-        if (roundTimer < CRITICAL_ROUND_TIME) {
-            mediumFont.setColor(CRITICAL_ROUND_TIME_COLOR);
+        playerNameLabel.setText(game.player.getName());
+        playerNameLabel.draw(game.batch, hudMargin + healthBarBackgroundPadding + healthBarPadding, fighterNamePositionY);
+
+        opponentNameLabel.setText(game.opponent.getName());
+        opponentNameLabel.draw(game.batch,
+            viewport.getWorldWidth() - hudMargin - healthBarBackgroundPadding - healthBarPadding, fighterNamePositionY);
+
+        // draw round timer, in whole seconds
+        int seconds = (int) simulation.getRoundTimer();
+        if (roundTimerLabel.changed(seconds)) {
+            if (seconds < 10) {
+                roundTimerLabel.text().append('0');
+            }
+            roundTimerLabel.text().append(seconds);
+            roundTimerLabel.layout(simulation.getRoundTimer() < CRITICAL_ROUND_TIME ? CRITICAL_ROUND_TIME_COLOR : DEFAULT_FONT_COLOR);
         }
-        mediumFont.draw(
+        roundTimerLabel.draw(
             game.batch,
-            String.format(Locale.getDefault(), "%02d", (int) roundTimer),
             viewport.getWorldWidth() / 2.0f - mediumFont.getSpaceXadvance() * 2.3f,
             viewport.getWorldHeight() - hudMargin
         );
-        mediumFont.setColor(DEFAULT_FONT_COLOR);
     }
 
     /**
      * Draws introductory text for a round to the screen.
      */
     private void renderStartRoundText() {
-        String text;
-        if (roundStateTime < START_ROUND_DELAY * 0.5f) {
-            text = "ROUND " + currentRound;
+        if (simulation.getRoundStateTime() < MatchSimulation.START_ROUND_DELAY * 0.5f) {
+            if (startRoundLabel.changed(simulation.getCurrentRound())) {
+                startRoundLabel.text().append("ROUND ").append(simulation.getCurrentRound());
+                startRoundLabel.layout();
+            }
         } else {
-            text = "FIGHT";
+            startRoundLabel.setText("FIGHT");
         }
-        mediumFont.draw(game.batch, text, viewport.getWorldWidth() / 2.0f, viewport.getWorldHeight() / 2.0f, 0, Align.center, false);
+        startRoundLabel.draw(game.batch, viewport.getWorldWidth() / 2.0f, viewport.getWorldHeight() / 2.0f);
     }
 
     /**
@@ -472,19 +653,7 @@ public class GameScreen implements Screen, InputProcessor {
      * Darken the screen and render game over menu and buttons
      */
     private void renderGameOverOverlay() {
-        game.batch.end();
-
-        Gdx.gl.glEnable(GL20.GL_BLEND);
-        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
-        game.shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-
-        game.shapeRenderer.setColor(0, 0, 0, 0.7f);
-        game.shapeRenderer.rect(0, 0, viewport.getWorldWidth(), viewport.getWorldHeight());
-
-        game.shapeRenderer.end();
-        Gdx.gl.glDisable(GL20.GL_BLEND);
-
-        game.batch.begin();
+        hudRenderer.dim(game.batch, viewport.getWorldWidth(), viewport.getWorldHeight(), OVERLAY_ALPHA);
 
         // calculate layout dimensions
         float textMarginBottom = 2.0f; // spacing between button and button below
@@ -506,15 +675,11 @@ public class GameScreen implements Screen, InputProcessor {
         playAgainButtonSprite.draw(game.batch);
 
         // draw text
-        String text = roundsWon > roundsLost ? "YOU WON!" : "YOU LOST!";
-        largeFont.draw(
+        gameOverLabel.setText(simulation.getRoundsWon() > simulation.getRoundsLost() ? "YOU WON!" : "YOU LOST!");
+        gameOverLabel.draw(
             game.batch,
-            text,
             viewport.getWorldWidth() / 2.0f,
-            playAgainButtonSprite.getY() + playAgainButtonSprite.getHeight() + textMarginBottom + largeFont.getCapHeight(),
-            0,
-            Align.center,
-            false
+            playAgainButtonSprite.getY() + playAgainButtonSprite.getHeight() + textMarginBottom + largeFont.getCapHeight()
         );
     }
 
@@ -522,19 +687,7 @@ public class GameScreen implements Screen, InputProcessor {
      * Darkens the screen and displays buttons when the game is paused.
      */
     private void renderPauseOverlay() {
-        game.batch.end();
-
-        Gdx.gl.glEnable(GL20.GL_BLEND);
-        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
-        game.shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-
-        game.shapeRenderer.setColor(0, 0, 0, 0.7f);
-        game.shapeRenderer.rect(0, 0, viewport.getWorldWidth(), viewport.getWorldHeight());
-
-        game.shapeRenderer.end();
-        Gdx.gl.glDisable(GL20.GL_BLEND);
-
-        game.batch.begin();
+        hudRenderer.dim(game.batch, viewport.getWorldWidth(), viewport.getWorldHeight(), OVERLAY_ALPHA);
 
         // calculate layout dimensions
         float textMarginBottom = 2.0f; // spacing between button and button below
@@ -556,357 +709,120 @@ public class GameScreen implements Screen, InputProcessor {
         continueButtonSprite.draw(game.batch);
 
         // draw text
-        largeFont.draw(
+        pausedLabel.draw(
             game.batch,
-            "GAME PAUSED",
             viewport.getWorldWidth() / 2.0f,
-            continueButtonSprite.getY() + continueButtonSprite.getHeight() + textMarginBottom + largeFont.getCapHeight(),
-            0,
-            Align.center,
-            false
+            continueButtonSprite.getY() + continueButtonSprite.getHeight() + textMarginBottom + largeFont.getCapHeight()
         );
     }
 
     /**
-     * Performs game logic.
-     *
-     * @param deltaTime delta time
+     * Advances the match simulation by one tick, then the objects that draw it.
      */
-    private void update(float deltaTime) {
-        if (roundState == RoundState.STARTING && roundStateTime >= START_ROUND_DELAY) {
-            // if the start round delay has been reached, start the round
-            roundState = RoundState.IN_PROGRESS;
-            roundStateTime = 0.0f;
-        } else if (roundState == RoundState.ENDING && roundStateTime >= END_ROUND_DELAY) {
-            // if the end round delay has been reached and the player has won or lost more than half the max number of rounds,
-            // end the game, else start the next round
-            if (roundsWon > MAX_ROUNDS / 2 || roundsLost > MAX_ROUNDS / 2) {
-                gameState = GameState.GAME_OVER;
-            } else {
-                currentRound++;
-                startRound();
-            }
-        } else {
-            roundStateTime += deltaTime;
-        }
+    private void update() {
+        float deltaTime = MatchSimulation.TICK_TIME;
 
-        game.player.update(deltaTime);
-        game.opponent.update(deltaTime);
-
-        for (int i = 0; i < BLOOD_SPLATTER_AMOUNT; i++) {
-            playerBloodSplatters[i].update(deltaTime);
-            opponentBloodSplatters[i].update(deltaTime);
+        if (replay != null) {
+            replay.readTick(simulation, inputs);
         }
 
-        for (BloodPool pool : bloodPools) {
-            pool.update(deltaTime);
-        }
-
-        if (game.player.getPosition().x <= game.opponent.getPosition().x) {
-            game.player.faceRight();
-            game.opponent.faceLeft();
-        } else {
-            game.player.faceLeft();
-            game.opponent.faceRight();
-        }
+        saveSnapshot();
+        simulation.step(inputs);
+        inputs.clear();
 
-        keepWithinRingBounds(game.player.getPosition());
-        keepWithinRingBounds(game.opponent.getPosition());
+        if (simulation.isMatchOver()) {
+            gameState = GameState.GAME_OVER;
 
-        if (roundState == RoundState.IN_PROGRESS) {
-            // if the round is in progress, decrease round timer
-            roundTimer -= deltaTime;
-
-            if (roundTimer <= 0.0f) {
-                // possible end game
-                if (game.player.getLife() >= game.opponent.getLife()) {
-                    winRound();
-                } else {
-                    loseRound();
-                }
-            }
-
-            performOpponentAI(deltaTime);
-
-            if (areWithinContactDistance(game.player.getPosition(), game.opponent.getPosition())) {
-
-                if (game.player.isAttackActive()) { // player
-                    // opponent gets hit
-                    game.opponent.getHit(Fighter.HIT_STRENGTH);
-                    if (game.opponent.isBlocking()) {
-                        // play block sound
-                        game.audioManager.playSound(Assets.BLOCK_SOUND);
-                    } else {
-                        game.audioManager.playSound(Assets.HIT_SOUND);
-                        spillBlood(game.opponent);
-                    }
-
-                    game.player.makeContact();
-
-                    if (game.opponent.hasLost()) {
-                        winRound(); // player wins
-                    }
-                } else if (game.opponent.isAttackActive()) { // opponent
-                    game.player.getHit(Fighter.HIT_STRENGTH); // player gets hit
-                    if (game.player.isBlocking()) {
-                        // play block sound
-                        game.audioManager.playSound(Assets.BLOCK_SOUND);
-                    } else {
-                        game.audioManager.playSound(Assets.HIT_SOUND);
-                        spillBlood(game.player);
-                    }
-
-                    game.opponent.makeContact();
-
-                    if (game.player.hasLost()) {
-                        loseRound(); // opponent wins
-                    }
-                }
+            if (replay != null && replay.isDesynced()) {
+                Gdx.app.error("GameScreen", "Replay played out differently from tick " + replay.getDesyncTick());
             }
         }
 
+        game.player.update(deltaTime);
+        game.opponent.update(deltaTime);
+
+        playerBloodSplatters.update(deltaTime);
+        opponentBloodSplatters.update(deltaTime);
+        bloodPools.update(deltaTime);
+        crowd.update(deltaTime);
     }
 
     /**
-     * Use the give fighter to get the correct blood splatter array and current index, then display blood on screen.
-     *
-     * @param fighter   fighter to display blood for
+     * Saves the match before the next tick.
      */
-    private void spillBlood(Fighter fighter) {
-        BloodSplatter[] bloodSplatters;
-        int currentBloodSplatterIndex;
-
-        if (fighter.equals(game.player)) {
-            bloodSplatters = playerBloodSplatters;
-            currentBloodSplatterIndex = currentPlayerBloodSplatterIndex;
-        } else {
-            bloodSplatters = opponentBloodSplatters;
-            currentBloodSplatterIndex = currentOpponentBloodSplatterIndex;
-        }
-
-        // activate current blood splatter
-        bloodSplatters[currentBloodSplatterIndex].activate(fighter.getPosition().x + BLOOD_SPLATTER_OFFSET_X, fighter.getPosition().y + BLOOD_SPLATTER_OFFSET_Y);
-        // increment index or return to first
-        if (fighter.equals(game.player)) {
-            if (currentPlayerBloodSplatterIndex < BLOOD_SPLATTER_AMOUNT - 1) {
-                currentPlayerBloodSplatterIndex++;
-            } else {
-                currentPlayerBloodSplatterIndex = 0;
-            }
-        } else {
-            if (currentOpponentBloodSplatterIndex < BLOOD_SPLATTER_AMOUNT - 1) {
-                currentOpponentBloodSplatterIndex++;
-            } else {
-                currentOpponentBloodSplatterIndex = 0;
-            }
-        }
-
-        // activate current blood pool in the array, then increment index
-        bloodPools[currentBloodPoolIndex].activate(fighter.getPosition().x, fighter.getPosition().y);
-        if (currentBloodPoolIndex < BLOOD_POOL_AMOUNT - 1) {
-            currentBloodPoolIndex++;
-        } else {
-            currentBloodPoolIndex = 0;
-        }
+    private void saveSnapshot() {
+        snapshots.save(simulation, inputs);
     }
 
     /**
-     * Restricts the given Vector to be within the Ring's bounds.
-     *
-     * @param position  a position to check
+     * Puts the match back to the oldest saved tick, up to one second ago. The rest of the match no longer follows
+     * from what was recorded, so recording stops.
      */
-    private void keepWithinRingBounds(Vector2 position) {
-        if (position.y < RING_MIN_Y) {
-            position.y = RING_MIN_Y;
-        } else if (position.y > RING_MAX_Y) {
-            position.y = RING_MAX_Y;
+    private void rewind() {
+        if (snapshots.getNewestTick() < 0) {
+            return;
         }
 
-        if (position.x < (position.y / RING_SLOPE) + RING_MIN_X) {
-            position.x = (position.y / RING_SLOPE) + RING_MIN_X;
-        } else if (position.x > (position.y / -RING_SLOPE) + RING_MAX_X) {
-            position.x = (position.y / -RING_SLOPE) + RING_MAX_X;
-        }
-    }
+        stopRecording();
 
-    /**
-     * @param position1 the first position
-     * @param position2 the second position
-     *
-     * @return  <code>true</code> if two positions are within a defined contact range
-     */
-    private boolean areWithinContactDistance(Vector2 position1, Vector2 position2) {
-        float xDistance = Math.abs(position1.x - position2.x);
-        float yDistance = Math.abs(position1.y - position2.y);
-        return xDistance <= fighterContactDistanceX && yDistance <= fighterContactDistanceY;
-    }
+        int tick = snapshots.getOldestTick();
+        float rewoundTime = (simulation.getTick() - tick) * MatchSimulation.TICK_TIME;
+        snapshots.restore(simulation, tick);
 
-    /**
-     * Opponent AI decision tree.
-     *
-     * @param deltaTime delta time
-     */
-    private void performOpponentAI(float deltaTime) {
-        // check contact decision (attack, block, etc.)
-        if (opponentAiMakingContactDecision) {
-            if (game.opponent.isBlocking()) {
-                // if opponent is blocking, stop blocking if the fighters are not within contact distance or player isn't attacking
-                if (!areWithinContactDistance(game.player.getPosition(), game.opponent.getPosition()) || !game.player.isAttacking() || game.player.hasMadeContact()) {
-                    game.opponent.stopBlocking();
-                }
-            } else if (!game.opponent.isAttacking()) {
-                if (areWithinContactDistance(game.player.getPosition(), game.opponent.getPosition())) {
-                    if (opponentAiTimer <= 0.0f) {
-                        // make a contact decision
-                        opponentAiMakeContactDecision();
-                    } else {
-                        // decrease ai timer
-                        opponentAiTimer -= deltaTime;
-                    }
-                } else {
-                    // don't make a contact decision
-                    opponentAiMakingContactDecision = false;
-                }
-            }
-        } else {
-            if (areWithinContactDistance(game.player.getPosition(), game.opponent.getPosition())) {
-                // make a contact decision
-                opponentAiMakeContactDecision();
-            } else {
-                if (opponentAiTimer <= 0.0f) {
-                    // pursue player or move in random direction
-                    float pursueChance = difficulty.pursuePlayerChance();
-
-                    if (MathUtils.random() <= pursueChance) {
-                        // opponent is pursuing player
-                        opponentAiPursuingPlayer = true;
-                        opponentAiMoveTowardPlayer();
-                    } else {
-                        // opponent is not pursuing player
-                        opponentAiPursuingPlayer = false;
-                        opponentAiMoveRandomly();
-                    }
-
-                    // set AI timer to decision delay
-                    opponentAiTimer = difficulty.nonContactDecisionDelay();
-                } else {
-                    // if opponent is pursuing player, move to player
-                    if (opponentAiPursuingPlayer) {
-                        opponentAiMoveTowardPlayer();
-                    }
-                    opponentAiTimer -= deltaTime;
-                }
-            }
-        }
+        // blood spilled since then disappears, the rest goes back to how it looked
+        playerBloodSplatters.rewind(rewoundTime);
+        opponentBloodSplatters.rewind(rewoundTime);
+        bloodPools.rewind(rewoundTime);
+
+        inputs.clear();
+        timestep.reset();
+        game.player.snapToModel();
+        game.opponent.snapToModel();
     }
 
-    private void opponentAiMakeContactDecision() {
-        opponentAiMakingContactDecision = true;
+    // MATCH LISTENER
 
-        if (game.player.isAttacking()) {
-            // if player is attacking and hasn't made contact, block or move away
-            if (!game.player.hasMadeContact()) {
-                if (MathUtils.random() <= difficulty.blockChance()) {
-                    game.opponent.block();
-                } else {
-                    opponentAiMoveAwayFromPlayer();
-                }
-            }
-        } else {
-            // attack or move away
-            if (MathUtils.random() <= difficulty.attackChance()) {
-                if (MathUtils.randomBoolean()) {
-                    game.opponent.punch();
-                } else {
-                    game.opponent.kick();
-                }
-            } else {
-                // move away
-                opponentAiMoveAwayFromPlayer();
-            }
-        }
-
-        // set opponent AI timer to contact decision delay
-        opponentAiTimer = difficulty.nonContactDecisionDelay();
+    @Override
+    public void roundStarted() {
+        game.player.snapToModel();
+        game.opponent.snapToModel();
     }
 
-    /**
-     * Moves opponent fighter towards player.
-     */
-    private void opponentAiMoveTowardPlayer() {
-        Vector2 playerPosition = game.player.getPosition();
-        Vector2 opponentPosition = game.opponent.getPosition();
-
-        if (opponentPosition.x > playerPosition.x + fighterContactDistanceX) {
-            game.opponent.moveLeft();
-        } else if (opponentPosition.x < playerPosition.x - fighterContactDistanceX) {
-            game.opponent.moveRight();
-        } else {
-            game.opponent.stopMovingLeft();
-            game.opponent.stopMovingRight();
-        }
-
-        if (opponentPosition.y < playerPosition.y - fighterContactDistanceY) {
-            game.opponent.moveUp();
-        } else if (opponentPosition.y > playerPosition.y - fighterContactDistanceY) {
-            game.opponent.moveDown();
+    @Override
+    public void fighterHit(FighterModel fighter, boolean blocked) {
+        if (blocked) {
+            // play block sound
+            game.audioManager.playSound(Assets.BLOCK_SOUND);
         } else {
-            game.opponent.stopMovingUp();
-            game.opponent.stopMovingDown();
+            game.audioManager.playSound(Assets.HIT_SOUND);
+            spillBlood(fighter == game.player.getModel() ? game.player : game.opponent);
         }
     }
 
-    /**
-     * Moves opponent fighter away from the player.
-     */
-    private void opponentAiMoveAwayFromPlayer() {
-        Vector2 playerPosition = game.player.getPosition();
-        Vector2 opponentPosition = game.opponent.getPosition();
-
-        if (opponentPosition.x > playerPosition.x) {
-            game.opponent.moveRight();
-        } else{
-            game.opponent.moveLeft();
-        }
+    @Override
+    public void roundWon() {
+        game.audioManager.playSound(Assets.CHEER_SOUND);
+        crowd.react(true);
+    }
 
-        if (opponentPosition.y > playerPosition.y - fighterContactDistanceY) {
-            game.opponent.moveUp();
-        } else {
-            game.opponent.moveDown();
-        }
+    @Override
+    public void roundLost() {
+        game.audioManager.playSound(Assets.BOO_SOUND);
+        crowd.react(false);
     }
 
     /**
-     * Randomly set vertical and horizontal movement of the opponent fighter
+     * Use the given fighter to pick its blood splatters, then display blood on screen.
+     *
+     * @param fighter   fighter to display blood for
      */
-    private void opponentAiMoveRandomly() {
-        // horizontal movement
-        switch(MathUtils.random(2)) {
-            case 0:
-                game.opponent.moveLeft();
-                break;
-            case 1:
-                game.opponent.moveRight();
-                break;
-            case 2:
-            default:
-                game.opponent.stopMovingRight();
-                game.opponent.stopMovingLeft();
-        }
+    private void spillBlood(Fighter fighter) {
+        ParticleSystem bloodSplatters = fighter.equals(game.player) ? playerBloodSplatters : opponentBloodSplatters;
 
-        // vertical movement
-        switch(MathUtils.random(2)) {
-            case 0:
-                game.opponent.moveUp();
-                break;
-            case 1:
-                game.opponent.moveDown();
-                break;
-            case 2:
-            default:
-                game.opponent.stopMovingUp();
-                game.opponent.stopMovingDown();
-        }
+        // spawn a blood splatter and a blood pool; if there are too many splatters, the oldest is replaced
+        FighterModel model = fighter.getModel();
+        bloodSplatters.spawn(model.getPositionX() + BLOOD_SPLATTER_OFFSET_X, model.getPositionY() + BLOOD_SPLATTER_OFFSET_Y);
+        bloodPools.spawn(model.getPositionX(), model.getPositionY());
     }
 
     // SCREEN
@@ -914,6 +830,7 @@ public class GameScreen implements Screen, InputProcessor {
     @Override
     public void resize(int width, int height) {
         viewport.update(width, height, true);
+        freezeFrame.invalidate();
     }
 
     @Override
@@ -931,12 +848,22 @@ public class GameScreen implements Screen, InputProcessor {
 
     @Override
     public void hide() {
-
+        stopRecording();
+        stopOpponentScheduler();
+        performanceOverlay.setVisible(false);
+        replay = null;
+        idle = false;
+        game.setIdle(false);
     }
 
     @Override
     public void dispose() {
-
+        stopRecording();
+        stopOpponentScheduler();
+        bloodPools.dispose();
+        crowd.dispose();
+        freezeFrame.dispose();
+        scaledRing.dispose();
     }
 
     // INPUT PROCESSOR
@@ -946,10 +873,8 @@ public class GameScreen implements Screen, InputProcessor {
         if (keycode == Input.Keys.SPACE) {
             if (gameState == GameState.RUNNING) {
                 // if game is running, skip round delays
-                if (roundState == RoundState.STARTING) {
-                    roundStateTime = START_ROUND_DELAY;
-                } else if (roundState == RoundState.ENDING) {
-                    roundStateTime = END_ROUND_DELAY;
+                if (replay == null) {
+                    inputs.press(MatchInputs.SKIP_DELAY);
                 }
             } else if (gameState == GameState.GAME_OVER) {
                 // if game over, start new game
@@ -968,36 +893,24 @@ public class GameScreen implements Screen, InputProcessor {
         } else if (keycode == Input.Keys.M) {
             // M toggles music on or off
             game.audioManager.toggleMusic();
-        } else if (keycode == Input.Keys.L) {
+        } else if (keycode == Input.Keys.L && replay == null) {
             // change difficulty
-            difficulty = difficulty.nextDifficulty();
+            simulation.setDifficulty(simulation.getDifficulty().nextDifficulty());
+            updateOpponentScheduler();
+            freezeFrame.invalidate();
+        } else if (keycode == Input.Keys.F3) {
+            // F3 toggles the performance overlay
+            performanceOverlay.toggle();
         } else if (keycode == Input.Keys.K) {
             // toggle blood
             showingBlood = !showingBlood;
-        } else {
-            if (roundState == RoundState.IN_PROGRESS) {
-                // only if round is in progress check if player has pressed a movement key
-                if (keycode == Input.Keys.LEFT || keycode == Input.Keys.A) {
-                    game.player.moveLeft();
-                } else if (keycode == Input.Keys.RIGHT || keycode == Input.Keys.D) {
-                    game.player.moveRight();
-                }
-
-                if (keycode == Input.Keys.UP || keycode == Input.Keys.W) {
-                    game.player.moveUp();
-                } else if (keycode == Input.Keys.DOWN || keycode == Input.Keys.S) {
-                    game.player.moveDown();
-                }
-            }
-
-            // check if player has pressed block or attack key
-            if (keycode == Input.Keys.B) {
-                game.player.block();
-            } else if (keycode == Input.Keys.F) {
-                game.player.punch();
-            } else if (keycode == Input.Keys.V) {
-                game.player.kick();
-            }
+            freezeFrame.invalidate();
+        } else if (keycode == Input.Keys.R && gameState == GameState.RUNNING && replay == null) {
+            // rewind up to one second
+            rewind();
+        } else if (gameState == GameState.RUNNING && replay == null) {
+            // fighter inputs are only collected while the game is running
+            inputs.press(toMatchInput(keycode));
         }
 
         return true;
@@ -1005,25 +918,30 @@ public class GameScreen implements Screen, InputProcessor {
 
     @Override
     public boolean keyUp(int keycode) {
-        // if player has released a movement key, stop moving
-        if (keycode == Input.Keys.LEFT || keycode == Input.Keys.A) {
-            game.player.stopMovingLeft();
-        } else if (keycode == Input.Keys.RIGHT || keycode == Input.Keys.D) {
-            game.player.stopMovingRight();
-        }
-
-        if (keycode == Input.Keys.UP || keycode == Input.Keys.W) {
-            game.player.stopMovingUp();
-        } else if (keycode == Input.Keys.DOWN || keycode == Input.Keys.S) {
-            game.player.stopMovingDown();
-        }
-
-        if (keycode == Input.Keys.B) {
-            game.player.stopBlocking();
+        // releases are always collected so that the player doesn't keep moving after the game resumes
+        if (replay == null) {
+            inputs.release(toMatchInput(keycode));
         }
         return true;
     }
 
+    /**
+     * @param keycode   a key code from {@link Input.Keys}
+     * @return  the matching {@link MatchInputs} flag, or 0 if the key doesn't control the player
+     */
+    private int toMatchInput(int keycode) {
+        return switch (keycode) {
+            case Input.Keys.LEFT, Input.Keys.A -> MatchInputs.LEFT;
+            case Input.Keys.RIGHT, Input.Keys.D -> MatchInputs.RIGHT;
+            case Input.Keys.UP, Input.Keys.W -> MatchInputs.UP;
+            case Input.Keys.DOWN, Input.Keys.S -> MatchInputs.DOWN;
+            case Input.Keys.B -> MatchInputs.BLOCK;
+            case Input.Keys.F -> MatchInputs.PUNCH;
+            case Input.Keys.V -> MatchInputs.KICK;
+            default -> 0;
+        };
+    }
+
     @Override
     public boolean keyTyped(char character) {
         return false;
@@ -1040,12 +958,9 @@ public class GameScreen implements Screen, InputProcessor {
             if (pauseButtonSprite.getBoundingRectangle().contains(position.x, position.y)) {
                 pauseGame();
                 game.audioManager.playSound(Assets.CLICK_SOUND);
-            } else if (roundState == RoundState.STARTING) {
-                // skip start round delay
-                roundStateTime = START_ROUND_DELAY;
-            } else if (roundState == RoundState.ENDING) {
-                // skip end round delay
-                roundStateTime = END_ROUND_DELAY;
+            } else if (replay == null) {
+                // skip start or end round delay
+                inputs.press(MatchInputs.SKIP_DELAY);
             }
         } else {
             if (gameState == GameState.GAME_OVER && playAgainButtonSprite.getBoundingRectangle().contains(position.x, position.y)) {
@@ -1066,10 +981,8 @@ public class GameScreen implements Screen, InputProcessor {
                 }
 
                 // deactivate all blood
-                for (int i = 0; i < BLOOD_SPLATTER_AMOUNT; i++) {
-                    playerBloodSplatters[i].deactivate();
-                    opponentBloodSplatters[i].deactivate();
-                }
+                playerBloodSplatters.clear();
+                opponentBloodSplatters.clear();
 
                 game.setScreen(game.mainMenuScreen);
             }
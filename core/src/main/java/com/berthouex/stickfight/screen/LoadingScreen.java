@@ -1,8 +1,10 @@
 package com.berthouex.stickfight.screen;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.utils.ScreenUtils;
+import com.badlogic.gdx.utils.Timer;
 import com.badlogic.gdx.utils.viewport.ExtendViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.berthouex.stickfight.Main;
@@ -20,6 +22,13 @@ public class LoadingScreen implements Screen {
     private float delayTimer;
     private boolean delayStarted;
     private static final float DELAY_TIME = 1.0f;
+    /** asks for a frame when the delay is over, since nothing else does while the screen is idle **/
+    private final Timer.Task delayEnded = new Timer.Task() {
+        @Override
+        public void run() {
+            Gdx.graphics.requestRendering();
+        }
+    };
 
     public LoadingScreen(Main game) {
         this.game = game;
@@ -46,10 +55,14 @@ public class LoadingScreen implements Screen {
                 game.assetsLoaded();
             } else {
                 delayTimer -= delta;
+                if (!delayEnded.isScheduled()) {
+                    Timer.schedule(delayEnded, Math.max(delayTimer, 0.0f));
+                }
             }
         } else if (game.assets.manager.update()) {
-            // if assets have finished loading, start delay
+            // if assets have finished loading, start delay; the full progress bar doesn't change, so stop drawing
             delayStarted = true;
+            game.setIdle(true);
         }
 
         // shape renderer use viewport camera; draw progress bar
@@ -92,7 +105,8 @@ public class LoadingScreen implements Screen {
 
     @Override
     public void hide() {
-
+        delayEnded.cancel();
+        game.setIdle(false);
     }
 
     @Override
@@ -16,16 +16,18 @@ import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
-import com.badlogic.gdx.utils.ScreenUtils;
 import com.badlogic.gdx.utils.viewport.ExtendViewport;
 import com.berthouex.stickfight.Main;
 import com.berthouex.stickfight.objects.FighterChoice;
+import com.berthouex.stickfight.objects.StageCache;
 import com.berthouex.stickfight.resources.Assets;
 import com.berthouex.stickfight.resources.GlobalVariables;
 
 public class MainMenuScreen implements Screen {
     private final Main game;
     private final Stage stage;
+    /** draws the stage only when it changes **/
+    private final StageCache stageCache;
     private final TextureAtlas menuItemsAtlas;
 
     // image widgets
@@ -62,6 +64,7 @@ public class MainMenuScreen implements Screen {
                 0,
                 stage.getCamera()
             ));
+        this.stageCache = new StageCache(stage, GlobalVariables.BLUE_BACKGROUND);
         this.menuItemsAtlas = game.assets.manager.get(Assets.MENU_ITEMS_ATLAS);
 
         // create widgets
@@ -225,7 +228,6 @@ public class MainMenuScreen implements Screen {
 
     private void createLabels() {
         BitmapFont smallFont = game.assets.manager.get(Assets.SMALL_FONT);
-        smallFont.getData().setScale(GlobalVariables.WORLD_SCALE);
         smallFont.setUseIntegerPositions(false);
 
         // create label style
@@ -321,18 +323,21 @@ public class MainMenuScreen implements Screen {
                 break;
             }
         }
+        stageCache.invalidate();
+
+        // the menu is still until the player does something, so frames are only drawn when asked for
+        game.setIdle(true);
     }
 
     @Override
     public void render(float delta) {
-        ScreenUtils.clear(GlobalVariables.BLUE_BACKGROUND);
-        stage.act(delta);
-        stage.draw();
+        stageCache.render(delta);
     }
 
     @Override
     public void resize(int width, int height) {
         stage.getViewport().update(width, height, true);
+        stageCache.resize();
     }
 
     @Override
@@ -347,12 +352,13 @@ public class MainMenuScreen implements Screen {
 
     @Override
     public void hide() {
-
+        game.setIdle(false);
     }
 
     @Override
     public void dispose() {
         stage.dispose();
+        stageCache.dispose();
     }
 
 }
@@ -11,15 +11,18 @@ import com.badlogic.gdx.scenes.scene2d.ui.Stack;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
-import com.badlogic.gdx.utils.ScreenUtils;
 import com.badlogic.gdx.utils.viewport.ExtendViewport;
 import com.berthouex.stickfight.Main;
+import com.berthouex.stickfight.objects.StageCache;
 import com.berthouex.stickfight.resources.Assets;
 import com.berthouex.stickfight.resources.GlobalVariables;
+import com.berthouex.stickfight.simulation.Difficulty;
 
 public class SettingsScreen implements Screen {
     private final Main game;
     private final Stage stage;
+    /** draws the stage only when it changes **/
+    private final StageCache stageCache;
     private final TextureAtlas menuItemsAtlas;
 
     // image widgets
@@ -54,6 +57,7 @@ public class SettingsScreen implements Screen {
                 0,
                 stage.getCamera())
         );
+        stageCache = new StageCache(stage, GlobalVariables.BLUE_BACKGROUND);
         menuItemsAtlas = game.assets.manager.get(Assets.MENU_ITEMS_ATLAS);
 
         createImages();
@@ -411,6 +415,10 @@ public class SettingsScreen implements Screen {
         Gdx.input.setInputProcessor(stage);
 
         synchronizeSettingsDisplay();
+        stageCache.invalidate();
+
+        // the menu is still until the player does something, so frames are only drawn when asked for
+        game.setIdle(true);
     }
 
     private void synchronizeSettingsDisplay() {
@@ -456,14 +464,13 @@ public class SettingsScreen implements Screen {
 
     @Override
     public void render(float delta) {
-        ScreenUtils.clear(GlobalVariables.BLUE_BACKGROUND);
-        stage.act(delta);
-        stage.draw();
+        stageCache.render(delta);
     }
 
     @Override
     public void resize(int width, int height) {
         stage.getViewport().update(width, height, true);
+        stageCache.resize();
     }
 
     @Override
@@ -478,12 +485,13 @@ public class SettingsScreen implements Screen {
 
     @Override
     public void hide() {
-
+        game.setIdle(false);
     }
 
     @Override
     public void dispose() {
         stage.dispose();
+        stageCache.dispose();
     }
 
 }
@@ -1,24 +1,80 @@
 package com.berthouex.stickfight.lwjgl3;
 
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Window;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3WindowAdapter;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.berthouex.stickfight.Main;
 import com.berthouex.stickfight.resources.GlobalVariables;
 
 /** Launches the desktop (LWJGL3) application. */
 public class Lwjgl3Launcher {
+    /** frame rate while the window is in the background; enough for a match to keep running at full speed **/
+    // each frame runs 4 of the game's ticks, half of the most a frame catches up on, so late frames don't slow it down
+    private static final int BACKGROUND_FPS = 30;
+    /** set once the window is open, so errors after that aren't taken for a missing OpenGL version **/
+    private static boolean windowCreated;
+
     public static void main(String[] args) {
         if (StartupHelper.startNewJvmIfRequired()) {
             return; // This handles macOS support and helps on Windows.
         }
-        createApplication();
+        createApplication(args);
+    }
+
+    private static Lwjgl3Application createApplication(String[] args) {
+        // --replay <file> plays back a recorded match, e.g. one from the replays/ folder
+        // --arena <count> starts a free-for-all between that many AI fighters
+        // --skeletal draws fighters as skeletons rather than from their sprite sheets
+        String replayPath = null;
+        int arenaFighterCount = 0;
+        boolean skeletal = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--skeletal")) {
+                skeletal = true;
+            } else if (i + 1 < args.length && args[i].equals("--replay")) {
+                replayPath = args[i + 1];
+            } else if (i + 1 < args.length && args[i].equals("--arena")) {
+                arenaFighterCount = Integer.parseInt(args[i + 1]);
+            }
+        }
+
+        // OpenGL 3.2 draws the whole crowd as instances of one quad; without it, everything still works on OpenGL 2.0
+        try {
+            return startApplication(new Main(replayPath, arenaFighterCount, skeletal), true);
+        } catch (GdxRuntimeException e) {
+            if (windowCreated) {
+                throw e;
+            }
+            System.err.println("OpenGL 3.2 isn't available, starting with OpenGL 2.0: " + e.getMessage());
+            return startApplication(new Main(replayPath, arenaFighterCount, skeletal), false);
+        }
     }
 
-    private static Lwjgl3Application createApplication() {
-        return new Lwjgl3Application(new Main(), getDefaultConfiguration());
+    /**
+     * @param game  the game to run
+     * @param gl30  <code>true</code> to ask for an OpenGL 3.2 context, <code>false</code> for the default OpenGL 2.0
+     * @return  the application, once it has closed
+     */
+    private static Lwjgl3Application startApplication(Main game, boolean gl30) {
+        Lwjgl3ApplicationConfiguration configuration = getDefaultConfiguration(game);
+        if (gl30) {
+            configuration.setOpenGLEmulation(Lwjgl3ApplicationConfiguration.GLEmulation.GL30, 3, 2);
+            // the game's shaders are written for OpenGL ES 2.0, and are translated to GLSL 1.50 for the 3.2 context
+            ShaderProgram.prependVertexCode = "#version 150\n#define varying out\n#define attribute in\n";
+            ShaderProgram.prependFragmentCode = "#version 150\n#define varying in\n#define texture2D texture\n"
+                + "#define gl_FragColor fragColor\nout vec4 fragColor;\n";
+        } else {
+            ShaderProgram.prependVertexCode = "";
+            ShaderProgram.prependFragmentCode = "";
+        }
+        return new Lwjgl3Application(game, configuration);
     }
 
-    private static Lwjgl3ApplicationConfiguration getDefaultConfiguration() {
+    private static Lwjgl3ApplicationConfiguration getDefaultConfiguration(Main game) {
         Lwjgl3ApplicationConfiguration configuration = new Lwjgl3ApplicationConfiguration();
         configuration.setTitle("Stick Figure Showdown");
         //// Vsync limits the frames per second to what your hardware can display, and helps eliminate
@@ -26,11 +82,32 @@ public class Lwjgl3Launcher {
         configuration.useVsync(true);
         //// Limits FPS to the refresh rate of the currently active monitor, plus 1 to try to match fractional
         //// refresh rates. The Vsync setting above should limit the actual FPS to match the monitor.
-        configuration.setForegroundFPS(Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate + 1);
+        int foregroundFps = Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate + 1;
+        configuration.setForegroundFPS(foregroundFps);
         //// If you remove the above line and set Vsync to false, you can get unlimited FPS, which can be
         //// useful for testing performance, but can also be very stressful to some hardware.
         //// You may also need to configure GPU drivers to fully disable Vsync; this can cause screen tearing.
 
+        // nobody is watching closely while another window has focus, so draw far fewer frames
+        configuration.setWindowListener(new Lwjgl3WindowAdapter() {
+            @Override
+            public void created(Lwjgl3Window window) {
+                windowCreated = true;
+            }
+
+            @Override
+            public void focusLost() {
+                Gdx.graphics.setForegroundFPS(BACKGROUND_FPS);
+                game.setInBackground(true);
+            }
+
+            @Override
+            public void focusGained() {
+                Gdx.graphics.setForegroundFPS(foregroundFps);
+                game.setInBackground(false);
+            }
+        });
+
         configuration.setWindowedMode(GlobalVariables.WINDOW_WIDTH, GlobalVariables.WINDOW_HEIGHT);
         //// You can change these files; they are in lwjgl3/src/main/resources/ .
         //// They can also be loaded from the root of assets/ .
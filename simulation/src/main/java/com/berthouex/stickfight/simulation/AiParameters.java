@@ -0,0 +1,31 @@
+package com.berthouex.stickfight.simulation;
+
+/**
+ * The numbers that set how the built-in {@link OpponentAi} plays. Each {@link Difficulty} has a set, and
+ * {@link DifficultyTuner} searches for new ones.
+ *
+ * @param nonContactDecisionDelay   the time between decisions, in seconds
+ * @param blockChance               the chance of blocking an attack, rather than backing off
+ * @param attackChance              the chance of attacking when close enough, rather than backing off
+ * @param pursuePlayerChance        the chance of going after the other fighter, rather than wandering
+ */
+public record AiParameters(float nonContactDecisionDelay, float blockChance, float attackChance, float pursuePlayerChance) {
+    public static final float MAX_DECISION_DELAY = 0.5f;
+
+    /**
+     * @throws IllegalArgumentException if the delay or any chance is out of range
+     */
+    public AiParameters {
+        if (nonContactDecisionDelay < 0.0f || nonContactDecisionDelay > MAX_DECISION_DELAY) {
+            throw new IllegalArgumentException("decision delay must be within 0-" + MAX_DECISION_DELAY);
+        }
+        if (!isChance(blockChance) || !isChance(attackChance) || !isChance(pursuePlayerChance)) {
+            throw new IllegalArgumentException("chances must be within 0-1");
+        }
+    }
+
+    private static boolean isChance(float chance) {
+        return chance >= 0.0f && chance <= 1.0f;
+    }
+
+}
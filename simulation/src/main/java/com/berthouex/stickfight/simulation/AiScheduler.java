@@ -0,0 +1,164 @@
+package com.berthouex.stickfight.simulation;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs an {@link OpponentBrain} on a worker thread so the opponent can think for longer than a simulation tick
+ * allows. After every tick the simulation hands over a snapshot of the fight; the brain decides under a time budget
+ * and posts its decision to a mailbox that the next tick takes. Nothing is locked and nothing is allocated per tick.
+ * <p>
+ * Snapshots are triple buffered: the simulation writes one, the brain reads another, and the third holds the newest
+ * snapshot the brain hasn't picked up yet. If the brain falls behind it skips straight to the newest snapshot, and if
+ * no decision is ready in time the opponent carries on with the last one.
+ * <p>
+ * Decisions depend on how fast the worker runs, so a match played with a scheduler can't be repeated from its seed
+ * alone.
+ */
+public class AiScheduler implements Closeable {
+    /** returned by {@link #poll()} when the brain hasn't decided anything new **/
+    public static final int NO_DECISION = -1;
+    /** enough time to decide once per tick **/
+    public static final long DEFAULT_BUDGET_NANOS = (long) (MatchSimulation.TICK_TIME * TimeUnit.SECONDS.toNanos(1));
+
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4; // set on the shared index when it holds a snapshot the brain hasn't seen
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final OpponentBrain brain;
+    private final long budgetNanos;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private volatile RuntimeException error;
+
+    private final MatchSnapshot[] views = { new MatchSnapshot(), new MatchSnapshot(), new MatchSnapshot() };
+    private int writeIndex = 0; // simulation thread only
+    private final AtomicInteger sharedIndex = new AtomicInteger(1);
+    private int readIndex = 2; // worker thread only
+
+    // the tick the decision was made for in the high bits, the decision in the low bits
+    private final AtomicLong mailbox = new AtomicLong(EMPTY);
+    private final AtomicLong decisionCount = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private int decisionTick = -1;
+
+    /**
+     * Starts the worker thread.
+     *
+     * @param brain         decides for the opponent
+     * @param budgetNanos   the time the brain gets for each decision
+     */
+    public AiScheduler(OpponentBrain brain, long budgetNanos) {
+        this.brain = brain;
+        this.budgetNanos = budgetNanos;
+
+        worker = new Thread(this::run, "opponent-ai");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Hands the fight over to the brain. Called by the simulation at the end of every tick.
+     *
+     * @param simulation    the simulation to snapshot
+     */
+    void submit(MatchSimulation simulation) {
+        simulation.saveSnapshot(views[writeIndex]);
+        writeIndex = sharedIndex.getAndSet(writeIndex | FRESH) & INDEX_MASK;
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Takes the newest decision out of the mailbox. Called by the simulation at the start of every tick.
+     *
+     * @return  the inputs the opponent should hold down, or {@link #NO_DECISION}
+     */
+    int poll() {
+        long message = mailbox.getAndSet(EMPTY);
+        if (message == EMPTY) {
+            return NO_DECISION;
+        }
+        decisionTick = (int) (message >>> Integer.SIZE);
+        return (int) message;
+    }
+
+    private void run() {
+        while (running) {
+            if ((sharedIndex.get() & FRESH) == 0) {
+                LockSupport.park(this);
+                continue;
+            }
+            readIndex = sharedIndex.getAndSet(readIndex) & INDEX_MASK;
+            MatchSnapshot view = views[readIndex];
+
+            int decision;
+            long startTime = System.nanoTime();
+            try {
+                decision = brain.decide(view, startTime + budgetNanos);
+            } catch (RuntimeException e) {
+                error = e;
+                running = false;
+                break;
+            }
+
+            mailbox.set(((long) view.getTick() << Integer.SIZE) | (decision & 0xFFFFFFFFL));
+            decisionCount.incrementAndGet();
+            busyNanos.addAndGet(System.nanoTime() - startTime);
+        }
+
+        brain.close();
+    }
+
+    /**
+     * Stops the worker thread, and then the brain, once the current decision is made. Decisions still in the mailbox
+     * are dropped.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    public OpponentBrain getBrain() {
+        return brain;
+    }
+
+    /**
+     * @return  the time the brain gets for each decision, in nanoseconds
+     */
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * @return  the number of decisions the brain has made
+     */
+    public long getDecisionCount() {
+        return decisionCount.get();
+    }
+
+    /**
+     * @return  the total time the brain has spent deciding, in nanoseconds
+     */
+    public long getBusyNanos() {
+        return busyNanos.get();
+    }
+
+    /**
+     * @return  the tick of the snapshot behind the last decision taken, or <code>-1</code> if none has been taken
+     */
+    public int getDecisionTick() {
+        return decisionTick;
+    }
+
+    /**
+     * @return  the exception that stopped the brain, or <code>null</code>
+     */
+    public RuntimeException getError() {
+        return error;
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.berthouex.stickfight.simulation;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A free-for-all between many AI fighters in one ring; the last fighter standing wins. Contacts are found with a
+ * {@link ContactGrid} and resolved with the same rules as a {@link MatchSimulation}.
+ */
+public class ArenaSimulation {
+    public static final int MIN_FIGHTERS = 2;
+    public static final int MAX_FIGHTERS = 256;
+    /** once the time runs out, the fighter with the most life left wins **/
+    public static final float MAX_TIME = MatchSimulation.MAX_ROUND_TIME;
+
+    private final FighterModel[] fighters;
+    private final OpponentAi[] ais;
+    private final int[] targets; // index of the fighter each AI is fighting
+    private final MatchRandom random = new MatchRandom(0);
+    private final ContactGrid grid;
+    private final ContactGrid.PairVisitor contactResolver = this::resolveContact;
+    private MatchListener listener = new MatchListener() { };
+
+    private float timer;
+    private int fightersLeft;
+    private int winner;
+    private boolean over;
+
+    /**
+     * @param fighters      the fighters, from {@link #MIN_FIGHTERS} to {@link #MAX_FIGHTERS}
+     * @param difficulty    the difficulty every AI plays at
+     */
+    public ArenaSimulation(FighterModel[] fighters, Difficulty difficulty) {
+        if (fighters.length < MIN_FIGHTERS || fighters.length > MAX_FIGHTERS) {
+            throw new IllegalArgumentException("An arena needs " + MIN_FIGHTERS + " to " + MAX_FIGHTERS + " fighters");
+        }
+
+        this.fighters = fighters;
+        this.ais = new OpponentAi[fighters.length];
+        for (int i = 0; i < fighters.length; i++) {
+            ais[i] = new OpponentAi(difficulty, random);
+        }
+        this.targets = new int[fighters.length];
+        this.grid = new ContactGrid(fighters.length);
+    }
+
+    /**
+     * @param listener  receives hits; rounds aren't used
+     */
+    public void setListener(MatchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Starts the fight with a new random seed.
+     */
+    public void start() {
+        start(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Puts every fighter at a random spot in the ring and starts the fight.
+     *
+     * @param seed  seed for positions and AI decisions
+     */
+    public void start(long seed) {
+        random.setSeed(seed, MatchRandom.Stream.AI);
+        for (int i = 0; i < fighters.length; i++) {
+            fighters[i].getReady(
+                Ring.RING_MIN_X + random.nextFloat() * (Ring.RING_MAX_X - Ring.RING_MIN_X),
+                Ring.RING_MIN_Y + random.nextFloat() * (Ring.RING_MAX_Y - Ring.RING_MIN_Y));
+            Ring.keepWithinRingBounds(fighters[i]);
+            ais[i].reset();
+        }
+
+        grid.rebuild(fighters);
+        for (int i = 0; i < fighters.length; i++) {
+            targets[i] = chooseTarget(i);
+        }
+
+        timer = MAX_TIME;
+        fightersLeft = fighters.length;
+        winner = -1;
+        over = false;
+    }
+
+    /**
+     * Advances the fight by one tick.
+     */
+    public void step() {
+        if (over) {
+            return;
+        }
+
+        float deltaTime = MatchSimulation.TICK_TIME;
+
+        for (FighterModel fighter : fighters) {
+            fighter.update(deltaTime);
+            Ring.keepWithinRingBounds(fighter);
+        }
+
+        grid.rebuild(fighters);
+
+        for (int i = 0; i < fighters.length; i++) {
+            if (fighters[i].hasLost()) {
+                continue;
+            }
+
+            if (fighters[targets[i]].hasLost()) {
+                targets[i] = chooseTarget(i);
+            }
+            FighterModel target = fighters[targets[i]];
+
+            if (fighters[i].getPositionX() <= target.getPositionX()) {
+                fighters[i].faceRight();
+            } else {
+                fighters[i].faceLeft();
+            }
+
+            ais[i].performOpponentAI(fighters[i], target, deltaTime);
+        }
+
+        grid.forEachPair(contactResolver);
+
+        timer -= deltaTime;
+        if (fightersLeft <= 1 || timer <= 0.0f) {
+            end();
+        }
+    }
+
+    /**
+     * Applies the hit rules to a pair of fighters that might be in contact. Fighters knocked out earlier in the tick
+     * are still in the grid, so pairs with one of them are skipped, and each knockout is counted once.
+     */
+    private void resolveContact(int first, int second) {
+        if (fighters[first].hasLost() || fighters[second].hasLost()) {
+            return;
+        }
+
+        FighterModel hitFighter = MatchSimulation.resolveContact(fighters[first], fighters[second]);
+        if (hitFighter != null) {
+            listener.fighterHit(hitFighter, hitFighter.isBlocking());
+            if (hitFighter.hasLost()) {
+                fightersLeft--;
+            }
+        }
+    }
+
+    /**
+     * Picks the nearest fighter still standing, or any fighter still standing if none are close.
+     */
+    private int chooseTarget(int index) {
+        int nearest = grid.nearest(fighters, index);
+        if (nearest >= 0) {
+            return nearest;
+        }
+
+        // start the search at a random fighter so targets are spread out
+        int start = random.nextInt(fighters.length);
+        for (int i = 0; i < fighters.length; i++) {
+            int other = (start + i) % fighters.length;
+            if (other != index && !fighters[other].hasLost()) {
+                return other;
+            }
+        }
+        return index == 0 ? 1 : 0;
+    }
+
+    /**
+     * Ends the fight; the fighter with the most life left wins.
+     */
+    private void end() {
+        over = true;
+
+        for (int i = 0; i < fighters.length; i++) {
+            if (!fighters[i].hasLost() && (winner < 0 || fighters[i].getLife() > fighters[winner].getLife())) {
+                winner = i;
+            }
+        }
+        if (winner >= 0) {
+            fighters[winner].win();
+        }
+    }
+
+    public FighterModel[] getFighters() {
+        return fighters;
+    }
+
+    public int getFightersLeft() {
+        return fightersLeft;
+    }
+
+    /**
+     * @return  the index of the winning fighter, or <code>-1</code> if the fight isn't over or nobody is left
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    public float getTimer() {
+        return timer;
+    }
+
+    public boolean isOver() {
+        return over;
+    }
+
+}
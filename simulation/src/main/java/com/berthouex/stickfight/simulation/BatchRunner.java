@@ -0,0 +1,194 @@
+package com.berthouex.stickfight.simulation;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Command line tool that plays full AI-vs-AI matches for every pairing of {@link Difficulty} presets and reports win
+ * rates, average round length and damage. Matches are spread over all cores, and each pairing stops once the
+ * confidence interval on its win rate is narrow enough. Every match is seeded, so a run always gives the same results.
+ * <p>
+ * Arguments, all optional: {@code [margin] [maxMatches] [batchSize]}, e.g. {@code 0.01 200000 2000}.
+ */
+public class BatchRunner {
+    private static final double DEFAULT_MARGIN = 0.01;
+    private static final int DEFAULT_MAX_MATCHES = 200_000;
+    private static final int DEFAULT_BATCH_SIZE = 2_000;
+    /** matches played by one fork/join task before it stops splitting **/
+    private static final int MATCHES_PER_TASK = 50;
+
+    private final ForkJoinPool pool;
+    private final double margin;
+    private final int maxMatches;
+    private final int batchSize;
+
+    /**
+     * @param pool          the pool to play matches on
+     * @param margin        stop once the win rate is known to within this much, with 95% confidence
+     * @param maxMatches    the most matches to play for a single pairing
+     * @param batchSize     the number of matches to play between checks of the margin
+     */
+    public BatchRunner(ForkJoinPool pool, double margin, int maxMatches, int batchSize) {
+        this.pool = pool;
+        this.margin = margin;
+        this.maxMatches = maxMatches;
+        this.batchSize = batchSize;
+    }
+
+    public static void main(String[] args) {
+        double margin = args.length > 0 ? Double.parseDouble(args[0]) : DEFAULT_MARGIN;
+        int maxMatches = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_MATCHES;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_BATCH_SIZE;
+
+        BatchRunner runner = new BatchRunner(ForkJoinPool.commonPool(), margin, maxMatches, batchSize);
+
+        System.out.printf(Locale.ROOT, "%-8s %-8s %9s %17s %10s %12s %12s %8s%n",
+            "PLAYER", "OPPONENT", "MATCHES", "PLAYER WIN RATE", "ROUND (S)", "PLAYER DMG", "OPP DMG", "TIME (S)");
+
+        for (Difficulty player : Difficulty.values()) {
+            for (Difficulty opponent : Difficulty.values()) {
+                if (player.hasBrain() || opponent.hasBrain()) {
+                    continue; // brains think in real time, far too slowly to play matches in bulk
+                }
+
+                long startTime = System.nanoTime();
+                BatchStatistics statistics = runner.run(player, opponent);
+                double seconds = (System.nanoTime() - startTime) / 1.0e9;
+
+                System.out.printf(Locale.ROOT, "%-8s %-8s %9d %9.3f +-%.3f %10.2f %12.2f %12.2f %8.2f%n",
+                    player.getName(),
+                    opponent.getName(),
+                    statistics.getMatches(),
+                    statistics.getPlayerWinRate(),
+                    statistics.getWinRateMargin(),
+                    statistics.getAverageRoundTime(),
+                    statistics.getAveragePlayerDamagePerMatch(),
+                    statistics.getAverageOpponentDamagePerMatch(),
+                    seconds);
+            }
+        }
+    }
+
+    /**
+     * Plays batches of matches until the win rate margin is small enough or the match limit is reached.
+     *
+     * @param player    difficulty of the AI controlling the player fighter
+     * @param opponent  difficulty of the AI controlling the opponent fighter
+     * @return  statistics for all matches played
+     */
+    public BatchStatistics run(Difficulty player, Difficulty opponent) {
+        BatchStatistics statistics = new BatchStatistics();
+        while (statistics.getMatches() < maxMatches && (statistics.getMatches() == 0 || statistics.getWinRateMargin() > margin)) {
+            int matches = Math.min(batchSize, maxMatches - statistics.getMatches());
+            statistics.add(pool.invoke(new MatchBatchTask(player, opponent, statistics.getMatches(), matches)));
+        }
+        return statistics;
+    }
+
+    /**
+     * Plays a single three-round match between two AIs.
+     *
+     * @param player    difficulty of the AI controlling the player fighter
+     * @param opponent  difficulty of the AI controlling the opponent fighter
+     * @param seed      seed for both AIs; the same seed plays the same match
+     * @param statistics    statistics to record the match to
+     */
+    public static void playMatch(Difficulty player, Difficulty opponent, long seed, BatchStatistics statistics) {
+        MatchSimulation simulation = new MatchSimulation(new FighterModel(), new FighterModel(), opponent);
+        simulation.setPlayerAi(new OpponentAi(player, new MatchRandom(MatchRandom.streamSeed(seed, MatchRandom.Stream.PLAYER_AI))));
+        simulation.setListener(new StatisticsListener(simulation, statistics));
+
+        MatchInputs inputs = new MatchInputs();
+        simulation.startMatch(seed);
+        while (!simulation.isMatchOver()) {
+            simulation.step(inputs);
+        }
+
+        statistics.addMatch(simulation.getRoundsWon() > simulation.getRoundsLost());
+    }
+
+    /**
+     * Plays a number of matches, splitting them across the pool until each task has only a few left. Match seeds
+     * are numbered from the first seed, so a batch plays the same matches however it is split.
+     */
+    private static class MatchBatchTask extends RecursiveTask<BatchStatistics> {
+        private final Difficulty player;
+        private final Difficulty opponent;
+        private final long firstSeed;
+        private final int matches;
+
+        MatchBatchTask(Difficulty player, Difficulty opponent, long firstSeed, int matches) {
+            this.player = player;
+            this.opponent = opponent;
+            this.firstSeed = firstSeed;
+            this.matches = matches;
+        }
+
+        @Override
+        protected BatchStatistics compute() {
+            if (matches <= MATCHES_PER_TASK) {
+                BatchStatistics statistics = new BatchStatistics();
+                for (int i = 0; i < matches; i++) {
+                    playMatch(player, opponent, firstSeed + i, statistics);
+                }
+                return statistics;
+            }
+
+            MatchBatchTask first = new MatchBatchTask(player, opponent, firstSeed, matches / 2);
+            MatchBatchTask second = new MatchBatchTask(player, opponent, firstSeed + matches / 2, matches - matches / 2);
+            first.fork();
+            BatchStatistics statistics = second.compute();
+            statistics.add(first.join());
+            return statistics;
+        }
+    }
+
+    /**
+     * Records round lengths and damage as a match is played.
+     */
+    private static class StatisticsListener implements MatchListener {
+        private final MatchSimulation simulation;
+        private final BatchStatistics statistics;
+        private float playerLife;
+        private float opponentLife;
+
+        StatisticsListener(MatchSimulation simulation, BatchStatistics statistics) {
+            this.simulation = simulation;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public void roundStarted() {
+            playerLife = FighterModel.MAX_LIFE;
+            opponentLife = FighterModel.MAX_LIFE;
+        }
+
+        @Override
+        public void fighterHit(FighterModel fighter, boolean blocked) {
+            // damage is measured from life lost, so a finishing blow only counts the life that was left
+            if (fighter == simulation.getPlayer()) {
+                statistics.addOpponentDamage(playerLife - fighter.getLife());
+                playerLife = fighter.getLife();
+            } else {
+                statistics.addPlayerDamage(opponentLife - fighter.getLife());
+                opponentLife = fighter.getLife();
+            }
+        }
+
+        @Override
+        public void roundWon() {
+            roundEnded();
+        }
+
+        @Override
+        public void roundLost() {
+            roundEnded();
+        }
+
+        private void roundEnded() {
+            statistics.addRound(Math.min(MatchSimulation.MAX_ROUND_TIME - simulation.getRoundTimer(), MatchSimulation.MAX_ROUND_TIME));
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.berthouex.stickfight.simulation;
+
+/**
+ * Totals collected from a batch of AI-vs-AI matches. Batches played on different threads are combined with
+ * {@link #add(BatchStatistics)}.
+ */
+public class BatchStatistics {
+    /** z-score of a 95% confidence interval **/
+    private static final double CONFIDENCE_Z = 1.96;
+
+    private int matches;
+    private int playerWins;
+    private int rounds;
+    private double totalRoundTime;
+    private double playerDamageDealt;
+    private double opponentDamageDealt;
+
+    /**
+     * Records the result of a single match.
+     *
+     * @param playerWon whether the player won the match
+     */
+    void addMatch(boolean playerWon) {
+        matches++;
+        if (playerWon) {
+            playerWins++;
+        }
+    }
+
+    /**
+     * Records the length of a single round.
+     *
+     * @param roundTime the time the round took, not counting the start and end delays
+     */
+    void addRound(float roundTime) {
+        rounds++;
+        totalRoundTime += roundTime;
+    }
+
+    /**
+     * @param damage    damage the player dealt to the opponent
+     */
+    void addPlayerDamage(float damage) {
+        playerDamageDealt += damage;
+    }
+
+    /**
+     * @param damage    damage the opponent dealt to the player
+     */
+    void addOpponentDamage(float damage) {
+        opponentDamageDealt += damage;
+    }
+
+    /**
+     * @param other statistics to add to this one
+     */
+    public void add(BatchStatistics other) {
+        matches += other.matches;
+        playerWins += other.playerWins;
+        rounds += other.rounds;
+        totalRoundTime += other.totalRoundTime;
+        playerDamageDealt += other.playerDamageDealt;
+        opponentDamageDealt += other.opponentDamageDealt;
+    }
+
+    public int getMatches() {
+        return matches;
+    }
+
+    /**
+     * @return  the fraction of matches won by the player
+     */
+    public double getPlayerWinRate() {
+        return matches == 0 ? 0.0 : (double) playerWins / matches;
+    }
+
+    /**
+     * Half the width of the 95% Wilson score interval around {@link #getPlayerWinRate()}.
+     *
+     * @return  how far the true win rate may be from the measured one
+     */
+    public double getWinRateMargin() {
+        if (matches == 0) {
+            return 1.0;
+        }
+
+        double z2 = CONFIDENCE_Z * CONFIDENCE_Z;
+        double p = getPlayerWinRate();
+        return CONFIDENCE_Z * Math.sqrt(p * (1.0 - p) / matches + z2 / (4.0 * matches * matches)) / (1.0 + z2 / matches);
+    }
+
+    public double getAverageRoundTime() {
+        return rounds == 0 ? 0.0 : totalRoundTime / rounds;
+    }
+
+    public double getAveragePlayerDamagePerMatch() {
+        return matches == 0 ? 0.0 : playerDamageDealt / matches;
+    }
+
+    public double getAverageOpponentDamagePerMatch() {
+        return matches == 0 ? 0.0 : opponentDamageDealt / matches;
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.berthouex.stickfight.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the ring used to find fighters that might be in contact without testing every pair. Cells are at
+ * least as big as the longest reach in the {@link FrameData}, so fighters that can hit each other are always in the
+ * same or neighbouring cells. The grid
+ * is rebuilt every tick with a counting sort into flat arrays; nothing is allocated after construction.
+ */
+public class ContactGrid {
+    /**
+     * Receives pairs of fighters in the same or neighbouring cells.
+     */
+    @FunctionalInterface
+    public interface PairVisitor {
+        void visit(int first, int second);
+    }
+
+    private static final float CELL_WIDTH = Math.max(MatchSimulation.fighterContactDistanceX, FrameData.getDefault().getMaxReachX());
+    private static final float CELL_HEIGHT = Math.max(MatchSimulation.fighterContactDistanceY, FrameData.getDefault().getMaxReachY());
+    static final int COLUMNS = (int) Math.ceil((Ring.RING_MAX_X - Ring.RING_MIN_X) / CELL_WIDTH) + 1;
+    static final int ROWS = (int) Math.ceil((Ring.RING_MAX_Y - Ring.RING_MIN_Y) / CELL_HEIGHT) + 1;
+
+    private final int[] cellStart = new int[COLUMNS * ROWS + 1]; // cell i holds sorted[cellStart[i]] up to sorted[cellStart[i + 1]]
+    private final int[] cellCursor = new int[COLUMNS * ROWS];
+    private final int[] cellOf;
+    private final int[] sorted; // fighter indices, grouped by cell
+    private int count;
+
+    /**
+     * @param capacity  the most fighters the grid will hold
+     */
+    public ContactGrid(int capacity) {
+        cellOf = new int[capacity];
+        sorted = new int[capacity];
+    }
+
+    /**
+     * Sorts every fighter that hasn't lost into its cell.
+     *
+     * @param fighters  all fighters, no more than the capacity
+     */
+    public void rebuild(FighterModel[] fighters) {
+        Arrays.fill(cellStart, 0);
+
+        // count fighters per cell
+        for (int i = 0; i < fighters.length; i++) {
+            if (fighters[i].hasLost()) {
+                cellOf[i] = -1;
+            } else {
+                cellOf[i] = cellAt(fighters[i].getPositionX(), fighters[i].getPositionY());
+                cellStart[cellOf[i] + 1]++;
+            }
+        }
+
+        // turn counts into start offsets
+        for (int cell = 0; cell < COLUMNS * ROWS; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        count = cellStart[COLUMNS * ROWS];
+
+        // place fighters in index order
+        System.arraycopy(cellStart, 0, cellCursor, 0, COLUMNS * ROWS);
+        for (int i = 0; i < fighters.length; i++) {
+            if (cellOf[i] >= 0) {
+                sorted[cellCursor[cellOf[i]]++] = i;
+            }
+        }
+    }
+
+    /**
+     * Visits every pair of fighters that share or neighbour a cell, each pair once, in a fixed order.
+     *
+     * @param visitor   receives the pairs
+     */
+    public void forEachPair(PairVisitor visitor) {
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                int cell = row * COLUMNS + column;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int first = sorted[i];
+
+                    // the rest of this cell, then the neighbours ahead of it so no pair is visited twice
+                    for (int j = i + 1; j < cellStart[cell + 1]; j++) {
+                        visitor.visit(first, sorted[j]);
+                    }
+                    visitCell(visitor, first, column + 1, row);
+                    visitCell(visitor, first, column - 1, row + 1);
+                    visitCell(visitor, first, column, row + 1);
+                    visitCell(visitor, first, column + 1, row + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param fighters  the fighters the grid was built from
+     * @param index     the fighter to search around
+     * @return  the closest other fighter in the same or a neighbouring cell, or <code>-1</code> if there is none
+     */
+    public int nearest(FighterModel[] fighters, int index) {
+        FighterModel fighter = fighters[index];
+        int cell = cellAt(fighter.getPositionX(), fighter.getPositionY());
+        int column = cell % COLUMNS;
+        int row = cell / COLUMNS;
+
+        int nearest = -1;
+        float nearestDistance = Float.MAX_VALUE;
+        for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, ROWS - 1); r++) {
+            for (int c = Math.max(column - 1, 0); c <= Math.min(column + 1, COLUMNS - 1); c++) {
+                int neighbour = r * COLUMNS + c;
+                for (int i = cellStart[neighbour]; i < cellStart[neighbour + 1]; i++) {
+                    int other = sorted[i];
+                    if (other == index) {
+                        continue;
+                    }
+
+                    float dx = fighters[other].getPositionX() - fighter.getPositionX();
+                    float dy = fighters[other].getPositionY() - fighter.getPositionY();
+                    float distance = dx * dx + dy * dy;
+                    if (distance < nearestDistance) {
+                        nearest = other;
+                        nearestDistance = distance;
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * @return  the number of fighters in the grid
+     */
+    public int getCount() {
+        return count;
+    }
+
+    private void visitCell(PairVisitor visitor, int first, int column, int row) {
+        if (column < 0 || column >= COLUMNS || row >= ROWS) {
+            return;
+        }
+
+        int cell = row * COLUMNS + column;
+        for (int j = cellStart[cell]; j < cellStart[cell + 1]; j++) {
+            visitor.visit(first, sorted[j]);
+        }
+    }
+
+    private static int cellAt(float x, float y) {
+        int column = Math.min(Math.max((int) ((x - Ring.RING_MIN_X) / CELL_WIDTH), 0), COLUMNS - 1);
+        int row = Math.min(Math.max((int) ((y - Ring.RING_MIN_Y) / CELL_HEIGHT), 0), ROWS - 1);
+        return row * COLUMNS + column;
+    }
+
+}
@@ -0,0 +1,239 @@
+package com.berthouex.stickfight.simulation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * How well the opponent plays. The numbers below are the hand-picked defaults; tuned numbers written by
+ * {@link DifficultyTuner} to {@code difficulty.txt} replace them when the game starts.
+ */
+public enum Difficulty {
+    EASY    ("EASY",    0.10f, 0.30f, 0.70f, 0.20f),
+    MEDIUM  ("MEDIUM",  0.07f, 0.35f, 0.75f, 0.50f),
+    HARD    ("HARD",    0.01f, 0.40f, 0.80f, 0.99f),
+    // searches for its moves; the numbers are used where the search can't run, such as the arena
+    EXPERT  ("EXPERT",  0.01f, 0.40f, 0.80f, 0.99f, MonteCarloBrain::new);
+
+    private static final String PARAMETERS_RESOURCE = "difficulty.txt";
+
+    private final String name;
+    private final AiParameters defaultParameters;
+    private final Supplier<OpponentBrain> brainFactory;
+
+    Difficulty(String name, float nonContactDecisionDelay, float blockChance, float attackChance, float pursuePlayerChance) {
+        this(name, nonContactDecisionDelay, blockChance, attackChance, pursuePlayerChance, null);
+    }
+
+    Difficulty(String name, float nonContactDecisionDelay, float blockChance, float attackChance, float pursuePlayerChance,
+               Supplier<OpponentBrain> brainFactory) {
+        this.name = name;
+        this.defaultParameters = new AiParameters(nonContactDecisionDelay, blockChance, attackChance, pursuePlayerChance);
+        this.brainFactory = brainFactory;
+    }
+
+    /**
+     * Loads the tuned parameters when first used; class initialization makes this thread-safe without locking.
+     */
+    private static class ParametersHolder {
+        static final AiParameters[] PARAMETERS = loadParameters();
+
+        private static AiParameters[] loadParameters() {
+            try (InputStream in = Difficulty.class.getResourceAsStream(PARAMETERS_RESOURCE)) {
+                return in != null ? readParameters(in) : defaultParameterSet();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to load difficulty parameters", e);
+            }
+        }
+    }
+
+    /**
+     * @return  the hand-picked parameters of every Difficulty, indexed by ordinal
+     */
+    public static AiParameters[] defaultParameterSet() {
+        AiParameters[] parameters = new AiParameters[values().length];
+        for (Difficulty difficulty : values()) {
+            parameters[difficulty.ordinal()] = difficulty.defaultParameters;
+        }
+        return parameters;
+    }
+
+    /**
+     * Reads parameters in the {@code difficulty.txt} format: one line per Difficulty with its name and the four
+     * numbers of {@link AiParameters}, in order. Blank lines and anything after a {@code #} are ignored, and any
+     * Difficulty left out keeps its defaults.
+     *
+     * @param in    parameters in the {@code difficulty.txt} format; not closed
+     * @return  the parameters of every Difficulty, indexed by ordinal
+     *
+     * @throws IOException  if the data can't be read or is malformed
+     */
+    public static AiParameters[] readParameters(InputStream in) throws IOException {
+        AiParameters[] parameters = defaultParameterSet();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            String[] tokens = line.split("\\s+");
+            try {
+                if (tokens.length != 5) {
+                    throw new IllegalArgumentException("expected a difficulty and 4 numbers");
+                }
+                parameters[valueOf(tokens[0]).ordinal()] = new AiParameters(
+                    Float.parseFloat(tokens[1]),
+                    Float.parseFloat(tokens[2]),
+                    Float.parseFloat(tokens[3]),
+                    Float.parseFloat(tokens[4]));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Difficulty parameters line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+
+        return parameters;
+    }
+
+    /**
+     * Writes parameters in the {@code difficulty.txt} format.
+     *
+     * @param parameters    the parameters of every Difficulty, indexed by ordinal
+     * @param out           receives the parameters; not closed
+     *
+     * @throws IOException  if the parameters can't be written
+     */
+    public static void writeParameters(AiParameters[] parameters, Writer out) throws IOException {
+        out.write("# Opponent AI parameters, written by DifficultyTuner\n");
+        out.write("# difficulty  nonContactDecisionDelay  blockChance  attackChance  pursuePlayerChance\n");
+        for (Difficulty difficulty : values()) {
+            AiParameters p = parameters[difficulty.ordinal()];
+            out.write(String.format(Locale.ROOT, "%-8s %.4f %.4f %.4f %.4f\n", difficulty.name(),
+                p.nonContactDecisionDelay(), p.blockChance(), p.attackChance(), p.pursuePlayerChance()));
+        }
+    }
+
+    /**
+     * @return this Difficulty's name in string form
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return this Difficulty's parameters, tuned if a tuned set was loaded
+     */
+    public AiParameters parameters() {
+        return ParametersHolder.PARAMETERS[ordinal()];
+    }
+
+    /**
+     * @return this Difficulty's hand-picked parameters
+     */
+    public AiParameters defaultParameters() {
+        return defaultParameters;
+    }
+
+    /**
+     * @return this Difficulty's contact decision delay
+     */
+    public float nonContactDecisionDelay() {
+        return parameters().nonContactDecisionDelay();
+    }
+
+    /**
+     * @return this Difficulty's block chance
+     */
+    public float blockChance() {
+        return parameters().blockChance();
+    }
+
+    /**
+     * @return this Difficulty's attack chance
+     */
+    public float attackChance() {
+        return parameters().attackChance();
+    }
+
+    /**
+     * @return this Difficulty's player pursuit chance
+     */
+    public float pursuePlayerChance() {
+        return parameters().pursuePlayerChance();
+    }
+
+    /**
+     * Levels whose AI is too slow to run inside a simulation tick provide a brain to run on an {@link AiScheduler}.
+     *
+     * @return  a new brain for this Difficulty, or <code>null</code> if the built-in {@link OpponentAi} plays it
+     */
+    public OpponentBrain createBrain() {
+        return brainFactory != null ? brainFactory.get() : null;
+    }
+
+    /**
+     * @return  <code>true</code> if this Difficulty is played by a brain rather than the built-in {@link OpponentAi}
+     */
+    public boolean hasBrain() {
+        return brainFactory != null;
+    }
+
+    /**
+     * Returns the next difficulty in the series in ascending order. After reaching the last in the series,
+     * returns the first difficulty option.
+     *
+     * @return  the next difficulty
+     */
+    public Difficulty nextDifficulty() {
+        return switch(this) {
+            case EASY -> MEDIUM;
+            case MEDIUM -> HARD;
+            case HARD -> EXPERT;
+            case EXPERT -> EASY;
+        };
+    }
+
+    /**
+     * Returns the previous difficulty in the series in ascending order. After reaching the first in the series,
+     * returns the last difficulty option.
+     *
+     * @return  the previous difficulty
+     */
+    public Difficulty previousDifficulty() {
+        return switch(this) {
+            case EASY -> EXPERT;
+            case MEDIUM -> EASY;
+            case HARD -> MEDIUM;
+            case EXPERT -> HARD;
+        };
+    }
+
+    /**
+     * Given an integer, searches for the Enum with the same ordinal. Throws a {@link NoSuchElementException} if no match is found.
+     *
+     * @param ordinal   an ordinal to search for
+     * @return  a matching Enum value
+     *
+     * @throws NoSuchElementException   if no such element with matching ordinal exists
+     */
+    public static Difficulty matchOrdinal(int ordinal) throws NoSuchElementException {
+        return Arrays.stream(values()).filter(difficulty -> difficulty.ordinal() == ordinal).findFirst().orElseThrow();
+    }
+
+}
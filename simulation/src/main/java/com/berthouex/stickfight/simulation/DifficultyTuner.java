@@ -0,0 +1,241 @@
+package com.berthouex.stickfight.simulation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Command line tool that tunes the {@link AiParameters} of every {@link Difficulty} so the opponent wins a set share
+ * of its matches against a field of reference bots, and writes the result to {@code difficulty.txt}. Each Difficulty
+ * is tuned with a simple evolution strategy: a population of candidates is scored, the best few are kept, and the
+ * rest are replaced by mutated copies of them.
+ * <p>
+ * Every candidate plays the same seeded matches, so scores are repeatable and differences between candidates come
+ * from their parameters rather than luck. Candidates are scored in parallel, and matches skip the round delays.
+ * <p>
+ * Arguments, all optional: {@code [output] [generations] [matchesPerBot]}, e.g.
+ * {@code simulation/src/main/resources/com/berthouex/stickfight/simulation/difficulty.txt 30 200}.
+ */
+public class DifficultyTuner {
+    private static final String DEFAULT_OUTPUT = "simulation/src/main/resources/com/berthouex/stickfight/simulation/difficulty.txt";
+    private static final int DEFAULT_GENERATIONS = 30;
+    private static final int DEFAULT_MATCHES_PER_BOT = 200;
+    private static final int POPULATION = 24;
+    private static final int ELITES = 6;
+    /** mutation size at the start, as a share of each parameter's range; shrinks every generation **/
+    private static final float INITIAL_MUTATION = 0.2f;
+    private static final float MUTATION_DECAY = 0.9f;
+    /** seeds used to check the winner on matches it wasn't tuned on **/
+    private static final long CHECK_SEED_OFFSET = 1L << 32;
+
+    private final ForkJoinPool pool;
+    private final AiParameters[] referenceBots;
+    private final int generations;
+    private final int matchesPerBot;
+    private final Random random = new Random(0);
+
+    /**
+     * @param pool          the pool to score candidates on
+     * @param referenceBots the players every candidate is scored against
+     * @param generations   the number of generations to evolve each Difficulty for
+     * @param matchesPerBot the matches each candidate plays against each reference bot
+     */
+    public DifficultyTuner(ForkJoinPool pool, AiParameters[] referenceBots, int generations, int matchesPerBot) {
+        this.pool = pool;
+        this.referenceBots = referenceBots;
+        this.generations = generations;
+        this.matchesPerBot = matchesPerBot;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path output = Path.of(args.length > 0 ? args[0] : DEFAULT_OUTPUT);
+        int generations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_GENERATIONS;
+        int matchesPerBot = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MATCHES_PER_BOT;
+
+        // the hand-picked presets stand in for players of every skill, and never change between runs
+        AiParameters[] referenceBots = Arrays.stream(Difficulty.values())
+            .filter(difficulty -> !difficulty.hasBrain())
+            .map(Difficulty::defaultParameters)
+            .toArray(AiParameters[]::new);
+        DifficultyTuner tuner = new DifficultyTuner(ForkJoinPool.commonPool(), referenceBots, generations, matchesPerBot);
+
+        AiParameters[] parameters = Difficulty.defaultParameterSet();
+        for (Difficulty difficulty : Difficulty.values()) {
+            if (difficulty.hasBrain()) {
+                continue; // a brain doesn't play by these numbers, so keep them as they are
+            }
+
+            long startTime = System.nanoTime();
+            Candidate best = tuner.tune(difficulty.defaultParameters(), targetWinRate(difficulty));
+            double seconds = (System.nanoTime() - startTime) / 1.0e9;
+
+            parameters[difficulty.ordinal()] = best.parameters;
+            AiParameters tuned = best.parameters;
+            System.out.printf(Locale.ROOT,
+                "%-8s target %.2f, won %.3f (%.3f on unseen matches): delay %.3f block %.3f attack %.3f pursue %.3f (%.1f s)%n",
+                difficulty.getName(), targetWinRate(difficulty), best.winRate, tuner.winRate(tuned, CHECK_SEED_OFFSET),
+                tuned.nonContactDecisionDelay(), tuned.blockChance(), tuned.attackChance(), tuned.pursuePlayerChance(), seconds);
+        }
+
+        try (Writer out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            Difficulty.writeParameters(parameters, out);
+        }
+        System.out.println("Wrote " + output);
+    }
+
+    /**
+     * @param difficulty    a Difficulty played by the built-in AI
+     * @return  the share of matches the opponent should win against the reference bots
+     */
+    static double targetWinRate(Difficulty difficulty) {
+        return switch (difficulty) {
+            case EASY -> 0.25;
+            case MEDIUM -> 0.5;
+            default -> 0.75;
+        };
+    }
+
+    /**
+     * Evolves parameters towards a target win rate.
+     *
+     * @param start         the parameters to start from; always part of the first generation
+     * @param targetWinRate the share of matches to win against the reference bots
+     * @return  the best candidate found
+     */
+    public Candidate tune(AiParameters start, double targetWinRate) {
+        List<Candidate> population = new ArrayList<>();
+        population.add(new Candidate(start));
+        while (population.size() < POPULATION) {
+            population.add(new Candidate(mutate(start, INITIAL_MUTATION)));
+        }
+
+        float mutation = INITIAL_MUTATION;
+        Comparator<Candidate> byError = Comparator.comparingDouble(candidate -> Math.abs(candidate.winRate - targetWinRate));
+        for (int generation = 0; generation < generations; generation++) {
+            score(population);
+            population.sort(byError);
+
+            // keep the best, and fill the rest of the population with their mutated copies
+            List<Candidate> next = new ArrayList<>(population.subList(0, ELITES));
+            while (next.size() < POPULATION) {
+                next.add(new Candidate(mutate(next.get(random.nextInt(ELITES)).parameters, mutation)));
+            }
+            population = next;
+            mutation *= MUTATION_DECAY;
+        }
+
+        score(population);
+        population.sort(byError);
+        return population.get(0);
+    }
+
+    /**
+     * Scores every candidate that hasn't been scored yet, one task per candidate.
+     */
+    private void score(List<Candidate> population) {
+        List<RecursiveAction> tasks = new ArrayList<>();
+        for (Candidate candidate : population) {
+            if (Double.isNaN(candidate.winRate)) {
+                tasks.add(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        candidate.winRate = winRate(candidate.parameters, 0);
+                    }
+                });
+            }
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+    }
+
+    private AiParameters mutate(AiParameters parameters, float mutation) {
+        return new AiParameters(
+            mutate(parameters.nonContactDecisionDelay(), AiParameters.MAX_DECISION_DELAY, mutation),
+            mutate(parameters.blockChance(), 1.0f, mutation),
+            mutate(parameters.attackChance(), 1.0f, mutation),
+            mutate(parameters.pursuePlayerChance(), 1.0f, mutation));
+    }
+
+    private float mutate(float value, float max, float mutation) {
+        float mutated = value + (float) random.nextGaussian() * mutation * max;
+        return Math.min(Math.max(mutated, 0.0f), max);
+    }
+
+    /**
+     * Plays the candidate as the opponent against every reference bot.
+     *
+     * @param candidate     parameters for the opponent AI
+     * @param seedOffset    added to the seed of every match, to play a different set of matches
+     * @return  the share of matches the opponent won
+     */
+    public double winRate(AiParameters candidate, long seedOffset) {
+        int wins = 0;
+        for (AiParameters referenceBot : referenceBots) {
+            for (int i = 0; i < matchesPerBot; i++) {
+                if (opponentWins(candidate, referenceBot, seedOffset + i)) {
+                    wins++;
+                }
+            }
+        }
+        return (double) wins / (referenceBots.length * matchesPerBot);
+    }
+
+    /**
+     * Plays a single match without round delays.
+     *
+     * @param opponent  parameters for the opponent AI
+     * @param player    parameters for the AI playing the player fighter
+     * @param seed      seed for both AIs
+     * @return  <code>true</code> if the opponent won
+     */
+    static boolean opponentWins(AiParameters opponent, AiParameters player, long seed) {
+        MatchSimulation simulation = new MatchSimulation(new FighterModel(), new FighterModel(), Difficulty.MEDIUM);
+        simulation.setPlayerAi(new OpponentAi(player, new MatchRandom(MatchRandom.streamSeed(seed, MatchRandom.Stream.PLAYER_AI))));
+
+        MatchInputs inputs = new MatchInputs();
+        inputs.press(MatchInputs.SKIP_DELAY);
+        simulation.startMatch(seed);
+        simulation.setOpponentParameters(opponent);
+        while (!simulation.isMatchOver()) {
+            simulation.step(inputs);
+        }
+
+        return simulation.getRoundsLost() > simulation.getRoundsWon();
+    }
+
+    /**
+     * A set of parameters and how often they won.
+     */
+    public static class Candidate {
+        final AiParameters parameters;
+        double winRate = Double.NaN; // not scored yet
+
+        Candidate(AiParameters parameters) {
+            this.parameters = parameters;
+        }
+
+        public AiParameters getParameters() {
+            return parameters;
+        }
+
+        public double getWinRate() {
+            return winRate;
+        }
+    }
+
+}
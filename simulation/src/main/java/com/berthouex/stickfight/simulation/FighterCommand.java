@@ -0,0 +1,50 @@
+package com.berthouex.stickfight.simulation;
+
+/**
+ * A control command that can be given to a fighter, e.g. by the opponent AI.
+ */
+public enum FighterCommand {
+    MOVE_LEFT,
+    MOVE_RIGHT,
+    MOVE_UP,
+    MOVE_DOWN,
+    STOP_MOVING_LEFT,
+    STOP_MOVING_RIGHT,
+    STOP_MOVING_UP,
+    STOP_MOVING_DOWN,
+    BLOCK,
+    STOP_BLOCKING,
+    PUNCH,
+    KICK;
+
+    /**
+     * @param fighter   the fighter to give this command to
+     * @return  <code>true</code> if the command changed what the fighter is doing, e.g. not moving left while already
+     *          moving left
+     */
+    public boolean applyTo(FighterModel fighter) {
+        FighterModel.State state = fighter.getState();
+        float movementDirectionX = fighter.getMovementDirectionX();
+        float movementDirectionY = fighter.getMovementDirectionY();
+
+        switch (this) {
+            case MOVE_LEFT -> fighter.moveLeft();
+            case MOVE_RIGHT -> fighter.moveRight();
+            case MOVE_UP -> fighter.moveUp();
+            case MOVE_DOWN -> fighter.moveDown();
+            case STOP_MOVING_LEFT -> fighter.stopMovingLeft();
+            case STOP_MOVING_RIGHT -> fighter.stopMovingRight();
+            case STOP_MOVING_UP -> fighter.stopMovingUp();
+            case STOP_MOVING_DOWN -> fighter.stopMovingDown();
+            case BLOCK -> fighter.block();
+            case STOP_BLOCKING -> fighter.stopBlocking();
+            case PUNCH -> fighter.punch();
+            case KICK -> fighter.kick();
+        }
+
+        return state != fighter.getState()
+            || movementDirectionX != fighter.getMovementDirectionX()
+            || movementDirectionY != fighter.getMovementDirectionY();
+    }
+
+}
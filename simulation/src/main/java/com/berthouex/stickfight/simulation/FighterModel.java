@@ -0,0 +1,318 @@
+package com.berthouex.stickfight.simulation;
+
+/**
+ * The simulated state of a fighter. Holds everything needed to play a fight, but nothing needed to draw one.
+ */
+public class FighterModel {
+    // number of frames in each animation
+    public static final int FRAME_COUNT = 6;
+
+    public static final float MOVEMENT_SPEED = 10.0f;
+    public static final float MAX_LIFE = 10.0f;
+    public static final float HIT_STRENGTH = 5.0f;
+    public static final float BLOCK_DAMAGE_FACTOR = 0.2f;
+
+    /**
+     * A state that corresponds to the animations and sprite sheets.
+     */
+    public enum State {
+        BLOCK   (0.05f, true),
+        HURT    (0.03f, false),
+        IDLE    (0.1f,  true),
+        KICK    (0.05f, false),
+        LOSE    (0.05f, false),
+        PUNCH   (0.05f, false),
+        WALK    (0.08f, true),
+        WIN     (0.05f, true);
+
+        private final float frameDuration;
+        private final boolean looping;
+
+        State(float frameDuration, boolean looping) {
+            this.frameDuration = frameDuration;
+            this.looping = looping;
+        }
+
+        /**
+         * @return  the time each animation frame of this State is shown for
+         */
+        public float frameDuration() {
+            return frameDuration;
+        }
+
+        /**
+         * @return  <code>true</code> if the animation of this State repeats
+         */
+        public boolean isLooping() {
+            return looping;
+        }
+
+        /**
+         * @return  the length of one play-through of this State's animation
+         */
+        public float animationDuration() {
+            return frameDuration * FRAME_COUNT;
+        }
+
+        /**
+         * Matches the behaviour of {@code Animation.isAnimationFinished} so the simulation agrees with what is drawn.
+         *
+         * @param stateTime time spent in this State
+         * @return  <code>true</code> if the animation has played past its last frame
+         */
+        public boolean isFinished(float stateTime) {
+            int frameNumber = (int) (stateTime / frameDuration);
+            return FRAME_COUNT - 1 < frameNumber;
+        }
+    }
+
+    private State state;
+    private float stateTime;
+    private float positionX;
+    private float positionY;
+    private float movementDirectionX;
+    private float movementDirectionY;
+    private float life;
+    private int facing; // -1 or 1
+    private boolean madeContact; // whether the attack has hit
+
+    public FighterModel() {
+        state = State.IDLE;
+        life = MAX_LIFE;
+        facing = 1;
+    }
+
+    /**
+     * Resets this Fighter to a default state.
+     *
+     * @param positionX x-coordinate
+     * @param positionY y-coordinate
+     */
+    public void getReady(float positionX, float positionY) {
+        state = State.IDLE;
+        stateTime = 0.0f;
+        this.positionX = positionX;
+        this.positionY = positionY;
+        movementDirectionX = 0;
+        movementDirectionY = 0;
+        life = MAX_LIFE;
+        madeContact = false;
+    }
+
+    /**
+     * Copies another fighter's state into this one.
+     *
+     * @param other the fighter to copy
+     */
+    public void set(FighterModel other) {
+        state = other.state;
+        stateTime = other.stateTime;
+        positionX = other.positionX;
+        positionY = other.positionY;
+        movementDirectionX = other.movementDirectionX;
+        movementDirectionY = other.movementDirectionY;
+        life = other.life;
+        facing = other.facing;
+        madeContact = other.madeContact;
+    }
+
+    public void update(float deltaTime) {
+        stateTime += deltaTime;
+
+        if (state == State.WALK) {
+            // if the fighter is walking move in the direction of the movement direction variable
+            positionX += (movementDirectionX * MOVEMENT_SPEED * deltaTime);
+            positionY += (movementDirectionY * MOVEMENT_SPEED * deltaTime);
+        } else if ((state == State.PUNCH || state == State.KICK || state == State.HURT) && state.isFinished(stateTime)) {
+            // walk or go idle if animation is finished
+            if (movementDirectionX != 0 || movementDirectionY != 0) {
+                changeState(State.WALK);
+            } else {
+                changeState(State.IDLE);
+            }
+        }
+    }
+
+    public void faceLeft() {
+        facing = -1;
+    }
+
+    public void faceRight() {
+        facing = 1;
+    }
+
+    private void changeState(State newState) {
+        state = newState;
+        stateTime = 0.0f;
+    }
+
+    private void setMovement(float x, float y) {
+        movementDirectionX = x;
+        movementDirectionY = y;
+        if (state == State.WALK && x == 0 && y == 0) {
+            changeState(State.IDLE);
+        } else if (state == State.IDLE && (x != 0 || y != 0)) {
+            changeState(State.WALK);
+        }
+    }
+
+    public void moveLeft() {
+        setMovement(-1, movementDirectionY);
+    }
+
+    public void moveRight() {
+        setMovement(1, movementDirectionY);
+    }
+
+    public void moveUp() {
+        setMovement(movementDirectionX, 1);
+    }
+
+    public void moveDown() {
+        setMovement(movementDirectionX, -1);
+    }
+
+    public void stopMovingLeft() {
+        if (movementDirectionX == -1) {
+            setMovement(0, movementDirectionY);
+        }
+    }
+
+    public void stopMovingRight() {
+        if (movementDirectionX == 1) {
+            setMovement(0, movementDirectionY);
+        }
+    }
+
+    public void stopMovingUp() {
+        if (movementDirectionY == 1) {
+            setMovement(movementDirectionX, 0);
+        }
+    }
+
+    public void stopMovingDown() {
+        if (movementDirectionY == -1) {
+            setMovement(movementDirectionX, 0);
+        }
+    }
+
+    public void block() {
+        if (state == State.IDLE || state == State.WALK) {
+            changeState(State.BLOCK);
+        }
+    }
+
+    public void stopBlocking() {
+        if (state == State.BLOCK) {
+            if (movementDirectionX != 0 || movementDirectionY != 0) {
+                changeState(State.WALK);
+            } else {
+                changeState(State.IDLE);
+            }
+        }
+    }
+
+    public boolean isBlocking() {
+        return state == State.BLOCK;
+    }
+
+    public void punch() {
+        if (state == State.IDLE || state == State.WALK) {
+            changeState(State.PUNCH);
+            madeContact = false;
+        }
+    }
+
+    public void kick() {
+        if (state == State.IDLE || state == State.WALK) {
+            changeState(State.KICK);
+            madeContact = false;
+        }
+    }
+
+    public void makeContact() {
+        madeContact = true;
+    }
+
+    public boolean hasMadeContact() {
+        return madeContact;
+    }
+
+    public boolean isAttackActive() {
+        // attack is only active if fighter has not made contact and the animation is on one of its active frames
+        if (hasMadeContact()) {
+            return false;
+        }
+        return FrameData.getDefault().isActive(state, stateTime);
+    }
+
+    public void getHit(float damage) {
+        if (state == State.HURT || state == State.WIN || state == State.LOSE) {
+            return;
+        }
+
+        // reduce fighters life by damage amount
+        life -= (state == State.BLOCK) ? damage * BLOCK_DAMAGE_FACTOR : damage;
+
+        if (life <= 0.0f) {
+            lose();
+        } else if (state != State.BLOCK) {
+            changeState(State.HURT);
+        }
+    }
+
+    public void lose() {
+        changeState(State.LOSE);
+        life = 0.0f;
+    }
+
+    public boolean hasLost() {
+        return state == State.LOSE;
+    }
+
+    public void win() {
+        changeState(State.WIN);
+    }
+
+    public boolean isAttacking() {
+        return state == State.PUNCH || state == State.KICK;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public float getStateTime() {
+        return stateTime;
+    }
+
+    public float getPositionX() {
+        return positionX;
+    }
+
+    public float getPositionY() {
+        return positionY;
+    }
+
+    public void setPosition(float positionX, float positionY) {
+        this.positionX = positionX;
+        this.positionY = positionY;
+    }
+
+    public float getMovementDirectionX() {
+        return movementDirectionX;
+    }
+
+    public float getMovementDirectionY() {
+        return movementDirectionY;
+    }
+
+    public float getLife() {
+        return life;
+    }
+
+    public int getFacing() {
+        return facing;
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.berthouex.stickfight.simulation;
+
+/**
+ * Turns variable frame times into a whole number of fixed simulation steps, so that the simulation gives the same
+ * results at any frame rate. Time left over between steps is exposed as an interpolation factor for rendering.
+ */
+public class FixedTimestep {
+    private final float stepTime;
+    private final int maxStepsPerFrame;
+    private float accumulator;
+
+    /**
+     * @param stepTime          the length of one simulation step
+     * @param maxStepsPerFrame  the most steps to catch up on in a single frame
+     */
+    public FixedTimestep(float stepTime, int maxStepsPerFrame) {
+        this.stepTime = stepTime;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    /**
+     * Adds a frame's time and returns how many steps should be simulated. If more than the maximum number of steps are
+     * owed, e.g. after a hitch, the extra time is dropped so the game slows down instead of spiralling further behind.
+     *
+     * @param deltaTime frame time
+     * @return  the number of steps to simulate this frame
+     */
+    public int advance(float deltaTime) {
+        accumulator += deltaTime;
+
+        int steps = 0;
+        while (accumulator >= stepTime && steps < maxStepsPerFrame) {
+            accumulator -= stepTime;
+            steps++;
+        }
+
+        if (accumulator >= stepTime) {
+            accumulator %= stepTime;
+        }
+
+        return steps;
+    }
+
+    /**
+     * @return  how far between the last step and the next one the current frame is, from 0 to 1
+     */
+    public float getAlpha() {
+        return accumulator / stepTime;
+    }
+
+    public float getStepTime() {
+        return stepTime;
+    }
+
+    /**
+     * Discards any accumulated time.
+     */
+    public void reset() {
+        accumulator = 0.0f;
+    }
+
+}
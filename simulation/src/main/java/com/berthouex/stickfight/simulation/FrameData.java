@@ -0,0 +1,279 @@
+package com.berthouex.stickfight.simulation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Startup, active and recovery frames for every {@link FighterModel.State}, with a hurtbox and a hitbox for every
+ * animation frame. Everything is held in flat arrays indexed by state ordinal and frame, so checking a hit is a few
+ * array lookups and a rectangle overlap test. See {@code frame_data.txt} for the file format.
+ */
+public final class FrameData {
+    private static final String DEFAULT_RESOURCE = "frame_data.txt";
+    private static final int STATES = FighterModel.State.values().length;
+    private static final int FRAMES = FighterModel.FRAME_COUNT;
+    // each box is x, y, width, height; a width of 0 means no box
+    private static final int BOX_SIZE = 4;
+
+    private final int[] startupFrames = new int[STATES];
+    private final int[] activeFrames = new int[STATES];
+    private final float[] framesPerSecond = new float[STATES];
+    private final boolean[] looping = new boolean[STATES];
+    private final float[] hurtboxes = new float[STATES * FRAMES * BOX_SIZE];
+    private final float[] hitboxes = new float[STATES * FRAMES * BOX_SIZE];
+    private float maxReachX;
+    private float maxReachY;
+
+    private FrameData() {
+        for (FighterModel.State state : FighterModel.State.values()) {
+            framesPerSecond[state.ordinal()] = 1.0f / state.frameDuration();
+            looping[state.ordinal()] = state.isLooping();
+        }
+    }
+
+    /**
+     * @return  the frame data shipped with the game, loaded the first time it is needed
+     */
+    public static FrameData getDefault() {
+        return DefaultHolder.FRAME_DATA;
+    }
+
+    /**
+     * Loads the default frame data when first used; class initialization makes this thread-safe without locking.
+     */
+    private static class DefaultHolder {
+        static final FrameData FRAME_DATA = loadDefault();
+
+        private static FrameData loadDefault() {
+            try (InputStream in = FrameData.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+                if (in == null) {
+                    throw new IOException("Missing " + DEFAULT_RESOURCE);
+                }
+                return read(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to load frame data", e);
+            }
+        }
+    }
+
+    /**
+     * @param in    frame data in the {@code frame_data.txt} format; not closed
+     * @return  the frame data
+     *
+     * @throws IOException  if the data can't be read or is malformed
+     */
+    public static FrameData read(InputStream in) throws IOException {
+        FrameData frameData = new FrameData();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            try {
+                frameData.parseLine(line.split("\\s+"));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Frame data line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+
+        frameData.computeReach();
+        return frameData;
+    }
+
+    private void parseLine(String[] tokens) {
+        switch (tokens[0]) {
+            case "frames" -> {
+                expectTokens(tokens, 5);
+                int state = parseState(tokens[1]);
+                int startup = Integer.parseInt(tokens[2]);
+                int active = Integer.parseInt(tokens[3]);
+                int recovery = Integer.parseInt(tokens[4]);
+                if (startup < 0 || active < 0 || recovery < 0 || startup + active + recovery != FRAMES) {
+                    throw new IllegalArgumentException("startup, active and recovery frames must add up to " + FRAMES);
+                }
+                startupFrames[state] = startup;
+                activeFrames[state] = active;
+            }
+            case "hurtbox" -> parseBox(tokens, hurtboxes);
+            case "hitbox" -> parseBox(tokens, hitboxes);
+            default -> throw new IllegalArgumentException("unknown entry " + tokens[0]);
+        }
+    }
+
+    private static void parseBox(String[] tokens, float[] boxes) {
+        expectTokens(tokens, 7);
+        float x = Float.parseFloat(tokens[3]);
+        float y = Float.parseFloat(tokens[4]);
+        float width = Float.parseFloat(tokens[5]);
+        float height = Float.parseFloat(tokens[6]);
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("box size can't be negative");
+        }
+
+        int firstState = tokens[1].equals("*") ? 0 : parseState(tokens[1]);
+        int lastState = tokens[1].equals("*") ? STATES - 1 : firstState;
+
+        int firstFrame;
+        int lastFrame;
+        if (tokens[2].equals("*")) {
+            firstFrame = 0;
+            lastFrame = FRAMES - 1;
+        } else {
+            int dash = tokens[2].indexOf('-');
+            firstFrame = Integer.parseInt(dash < 0 ? tokens[2] : tokens[2].substring(0, dash));
+            lastFrame = dash < 0 ? firstFrame : Integer.parseInt(tokens[2].substring(dash + 1));
+            if (firstFrame < 0 || lastFrame >= FRAMES || firstFrame > lastFrame) {
+                throw new IllegalArgumentException("frames must be within 0-" + (FRAMES - 1));
+            }
+        }
+
+        for (int state = firstState; state <= lastState; state++) {
+            for (int frame = firstFrame; frame <= lastFrame; frame++) {
+                int index = boxIndex(state, frame);
+                boxes[index] = x;
+                boxes[index + 1] = y;
+                boxes[index + 2] = width;
+                boxes[index + 3] = height;
+            }
+        }
+    }
+
+    private static int parseState(String token) {
+        return FighterModel.State.valueOf(token).ordinal();
+    }
+
+    private static void expectTokens(String[] tokens, int count) {
+        if (tokens.length != count) {
+            throw new IllegalArgumentException(tokens[0] + " needs " + (count - 1) + " values");
+        }
+    }
+
+    /**
+     * Finds how far apart two fighters can be along each axis and still hit.
+     */
+    private void computeReach() {
+        float hitReachX = 0.0f;
+        float hitReachY = 0.0f;
+        float hurtReachX = 0.0f;
+        float hurtReachY = 0.0f;
+        for (int index = 0; index < hitboxes.length; index += BOX_SIZE) {
+            if (hitboxes[index + 2] > 0) {
+                hitReachX = Math.max(hitReachX, Math.max(Math.abs(hitboxes[index]), Math.abs(hitboxes[index] + hitboxes[index + 2])));
+                hitReachY = Math.max(hitReachY, Math.max(Math.abs(hitboxes[index + 1]), Math.abs(hitboxes[index + 1] + hitboxes[index + 3])));
+            }
+            if (hurtboxes[index + 2] > 0) {
+                hurtReachX = Math.max(hurtReachX, Math.max(Math.abs(hurtboxes[index]), Math.abs(hurtboxes[index] + hurtboxes[index + 2])));
+                hurtReachY = Math.max(hurtReachY, Math.max(Math.abs(hurtboxes[index + 1]), Math.abs(hurtboxes[index + 1] + hurtboxes[index + 3])));
+            }
+        }
+        maxReachX = hitReachX + hurtReachX;
+        maxReachY = hitReachY + hurtReachY;
+    }
+
+    private static int boxIndex(int state, int frame) {
+        return (state * FRAMES + frame) * BOX_SIZE;
+    }
+
+    /**
+     * @param state     a fighter state
+     * @param stateTime time spent in the state
+     * @return  the animation frame being shown
+     */
+    public int frameAt(FighterModel.State state, float stateTime) {
+        int frame = (int) (stateTime * framesPerSecond[state.ordinal()]);
+        return looping[state.ordinal()] ? frame % FRAMES : Math.min(frame, FRAMES - 1);
+    }
+
+    /**
+     * @param state     a fighter state
+     * @param stateTime time spent in the state
+     * @return  <code>true</code> if the animation is on one of the state's active frames
+     */
+    public boolean isActive(FighterModel.State state, float stateTime) {
+        int active = activeFrames[state.ordinal()];
+        if (active == 0) {
+            return false;
+        }
+
+        int frame = frameAt(state, stateTime);
+        int startup = startupFrames[state.ordinal()];
+        return frame >= startup && frame < startup + active;
+    }
+
+    /**
+     * Checks whether the attacker's current hitbox overlaps the defender's current hurtbox. Whether the attack is
+     * active is not checked.
+     *
+     * @param attacker  the fighter attacking
+     * @param defender  the fighter that might get hit
+     * @return  <code>true</code> if the boxes overlap
+     */
+    public boolean hits(FighterModel attacker, FighterModel defender) {
+        int hitbox = boxIndex(attacker.getState().ordinal(), frameAt(attacker.getState(), attacker.getStateTime()));
+        if (hitboxes[hitbox + 2] <= 0) {
+            return false;
+        }
+        int hurtbox = boxIndex(defender.getState().ordinal(), frameAt(defender.getState(), defender.getStateTime()));
+        if (hurtboxes[hurtbox + 2] <= 0) {
+            return false;
+        }
+
+        float hitMinX = boxMinX(hitboxes, hitbox, attacker);
+        float hurtMinX = boxMinX(hurtboxes, hurtbox, defender);
+        float hitMinY = attacker.getPositionY() + hitboxes[hitbox + 1];
+        float hurtMinY = defender.getPositionY() + hurtboxes[hurtbox + 1];
+
+        // touching edges count as a hit, matching the original contact distance check
+        return hitMinX <= hurtMinX + hurtboxes[hurtbox + 2]
+            && hurtMinX <= hitMinX + hitboxes[hitbox + 2]
+            && hitMinY <= hurtMinY + hurtboxes[hurtbox + 3]
+            && hurtMinY <= hitMinY + hitboxes[hitbox + 3];
+    }
+
+    /**
+     * @return  the left edge of a box in world units, mirrored if the fighter faces left
+     */
+    private static float boxMinX(float[] boxes, int index, FighterModel fighter) {
+        if (fighter.getFacing() >= 0) {
+            return fighter.getPositionX() + boxes[index];
+        }
+        return fighter.getPositionX() - boxes[index] - boxes[index + 2];
+    }
+
+    public int getStartupFrames(FighterModel.State state) {
+        return startupFrames[state.ordinal()];
+    }
+
+    public int getActiveFrames(FighterModel.State state) {
+        return activeFrames[state.ordinal()];
+    }
+
+    /**
+     * @return  the furthest apart two fighters can be along the ring and still hit
+     */
+    public float getMaxReachX() {
+        return maxReachX;
+    }
+
+    /**
+     * @return  the furthest apart two fighters can be in depth and still hit
+     */
+    public float getMaxReachY() {
+        return maxReachY;
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.berthouex.stickfight.simulation;
+
+/**
+ * The player's input for a single simulation step, stored as bit flags of the keys pressed and released since the
+ * previous step.
+ */
+public class MatchInputs {
+    public static final int LEFT = 1;
+    public static final int RIGHT = 1 << 1;
+    public static final int UP = 1 << 2;
+    public static final int DOWN = 1 << 3;
+    public static final int BLOCK = 1 << 4;
+    public static final int PUNCH = 1 << 5;
+    public static final int KICK = 1 << 6;
+    /** Skips the delay at the start or end of a round **/
+    public static final int SKIP_DELAY = 1 << 7;
+
+    private int pressed;
+    private int released;
+
+    public void press(int input) {
+        pressed |= input;
+    }
+
+    public void release(int input) {
+        released |= input;
+    }
+
+    public boolean isPressed(int input) {
+        return (pressed & input) != 0;
+    }
+
+    public boolean isReleased(int input) {
+        return (released & input) != 0;
+    }
+
+    public int getPressed() {
+        return pressed;
+    }
+
+    public int getReleased() {
+        return released;
+    }
+
+    /**
+     * Clears all inputs. Call after each simulation step.
+     */
+    public void clear() {
+        pressed = 0;
+        released = 0;
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.berthouex.stickfight.simulation;
+
+/**
+ * Receives notable events from a {@link MatchSimulation}, e.g. to play sounds or draw blood. All methods default to
+ * doing nothing, so a headless simulation needs no listener at all.
+ */
+public interface MatchListener {
+
+    /**
+     * Called when a round starts and the fighters are moved to their start positions.
+     */
+    default void roundStarted() {
+
+    }
+
+    /**
+     * @param fighter   the fighter that was hit
+     * @param blocked   whether the hit was blocked
+     */
+    default void fighterHit(FighterModel fighter, boolean blocked) {
+
+    }
+
+    /**
+     * Called when the player wins a round.
+     */
+    default void roundWon() {
+
+    }
+
+    /**
+     * Called when the player loses a round.
+     */
+    default void roundLost() {
+
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.berthouex.stickfight.simulation;
+
+import java.util.Random;
+
+/**
+ * A fast xorshift128+ generator, the same algorithm as libGDX's {@code RandomXS128}, whose whole state is two longs
+ * that can be read and restored. This lets a {@link MatchSnapshot} rewind the opponent AI's decisions along with
+ * everything else.
+ * <p>
+ * A match never shares a generator with anything else. Its seed is split into independent {@link Stream}s, so that
+ * e.g. drawing more blood doesn't change what the AI decides, and any number of matches can run side by side.
+ */
+public class MatchRandom extends Random {
+    /**
+     * The independent streams of random numbers a match seed is split into.
+     */
+    public enum Stream {
+        /** the opponent AI's decisions **/
+        AI,
+        /** an AI playing the player fighter, in AI-vs-AI matches **/
+        PLAYER_AI,
+        /** effects that follow from the fight, such as blood **/
+        EFFECTS,
+        /** decoration that has nothing to do with the fight **/
+        COSMETICS
+    }
+
+    // the golden ratio, which spreads consecutive stream numbers evenly over the seeds
+    private static final long STREAM_INCREMENT = 0x9E3779B97F4A7C15L;
+
+    private long seed0;
+    private long seed1;
+
+    /**
+     * @param seed  the initial seed
+     */
+    public MatchRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * @param matchSeed the seed a match was started with
+     * @param stream    one of the match's streams
+     * @return  the seed for that stream
+     */
+    public static long streamSeed(long matchSeed, Stream stream) {
+        return murmurHash3(matchSeed + (stream.ordinal() + 1) * STREAM_INCREMENT);
+    }
+
+    /**
+     * Seeds this generator with one of a match's streams.
+     *
+     * @param matchSeed the seed a match was started with
+     * @param stream    the stream to produce
+     */
+    public void setSeed(long matchSeed, Stream stream) {
+        setSeed(streamSeed(matchSeed, stream));
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        long newSeed0 = murmurHash3(seed == 0 ? Long.MIN_VALUE : seed);
+        setState(newSeed0, murmurHash3(newSeed0));
+    }
+
+    // the high bits of xorshift128+ are its best, so every value is taken from the top of nextLong()
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (Long.SIZE - bits));
+    }
+
+    @Override
+    public float nextFloat() {
+        return (nextLong() >>> 40) * 0x1.0p-24f;
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public long nextLong() {
+        long s1 = seed0;
+        long s0 = seed1;
+        seed0 = s0;
+        s1 ^= s1 << 23;
+        return (seed1 = (s1 ^ s0 ^ (s1 >>> 17) ^ (s0 >>> 26))) + s0;
+    }
+
+    /**
+     * @param seed0 first half of the state, from {@link #getState0()}
+     * @param seed1 second half of the state, from {@link #getState1()}
+     */
+    public void setState(long seed0, long seed1) {
+        this.seed0 = seed0;
+        this.seed1 = seed1;
+    }
+
+    public long getState0() {
+        return seed0;
+    }
+
+    public long getState1() {
+        return seed1;
+    }
+
+    private static long murmurHash3(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+}
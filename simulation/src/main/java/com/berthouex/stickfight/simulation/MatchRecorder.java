@@ -0,0 +1,43 @@
+package com.berthouex.stickfight.simulation;
+
+/**
+ * Receives everything needed to play a match again exactly as it happened. Ticks are counted from the start of the
+ * match; an event recorded at tick <code>n</code> happened just before, or during, the <code>n</code>th step.
+ */
+public interface MatchRecorder {
+
+    /**
+     * @param seed          the seed of the match's random number generator
+     * @param difficulty    the opponent's difficulty at the start of the match
+     */
+    void matchStarted(long seed, Difficulty difficulty);
+
+    /**
+     * Called only for ticks in which the player pressed or released something.
+     *
+     * @param tick      the current tick
+     * @param pressed   {@link MatchInputs} flags pressed this tick
+     * @param released  {@link MatchInputs} flags released this tick
+     */
+    void playerInputs(int tick, int pressed, int released);
+
+    /**
+     * Called only for commands that changed what the opponent is doing.
+     *
+     * @param tick      the current tick
+     * @param command   a command the opponent AI gave its fighter
+     */
+    void opponentCommand(int tick, FighterCommand command);
+
+    /**
+     * @param tick          the tick the new difficulty first applies to
+     * @param difficulty    the opponent's new difficulty
+     */
+    void difficultyChanged(int tick, Difficulty difficulty);
+
+    /**
+     * @param tick  the tick the match ended on
+     */
+    void matchEnded(int tick);
+
+}
@@ -0,0 +1,641 @@
+package com.berthouex.stickfight.simulation;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Plays a match of rounds between the player and the opponent. The simulation knows nothing about rendering or
+ * audio; it is advanced in fixed ticks with {@link #step(MatchInputs)} and reports notable events to a
+ * {@link MatchListener}.
+ */
+public class MatchSimulation {
+    public enum RoundState {
+        STARTING,
+        IN_PROGRESS,
+        ENDING
+    }
+
+    /** Length of one simulation tick (120 Hz). Attack windows last only a few ticks, so this must stay small **/
+    public static final float TICK_TIME = 1.0f / 120.0f;
+
+    public static final float MAX_ROUND_TIME = 99.99f;
+    public static final float START_ROUND_DELAY = 2.0f;
+    public static final float END_ROUND_DELAY = 2.0f;
+    public static final int MAX_ROUNDS = 3;
+
+    // fighters
+    static final float playerStartPositionX = 16.0f;        // values in world units, not pixels
+    static final float opponentStartPositionX = 51.0f;
+    static final float fighterStartPositionY = 15.0f;
+    static final float fighterContactDistanceX = 7.5f;
+    static final float fighterContactDistanceY = 1.5f;
+
+    private final FighterModel player;
+    private final FighterModel opponent;
+    private final MatchRandom random; // the opponent AI's stream
+    private final MatchRandom effectsRandom = new MatchRandom(0);
+    private final MatchRandom cosmeticsRandom = new MatchRandom(0);
+    private final OpponentAi opponentAi;
+    private OpponentAi playerAi;
+    private AiScheduler opponentScheduler;
+    private ReplayPlayback opponentScript;
+    private final OpponentAi.CommandListener opponentCommander = this::commandOpponent;
+    private boolean opponentDecisionsGiven; // set once decisions come from setOpponentDecision
+    private int opponentDecision = AiScheduler.NO_DECISION;
+    private int opponentHeld; // inputs the scheduled opponent is holding down
+    private long opponentAiNanos; // time spent deciding for the opponent on the simulation thread
+    private MatchListener listener = new MatchListener() { };
+    private MatchRecorder recorder;
+
+    private long seed;
+    private int tick;
+
+    private int roundsWon = 0;
+    private int roundsLost = 0;
+    private float roundTimer = MAX_ROUND_TIME;
+    private RoundState roundState;
+    private float roundStateTime;
+    private int currentRound;
+    private boolean matchOver;
+
+    /**
+     * @param player        the fighter controlled by {@link MatchInputs}, or by a player AI if one is set
+     * @param opponent      the fighter controlled by the opponent AI
+     * @param difficulty    the opponent AI's difficulty
+     */
+    public MatchSimulation(FighterModel player, FighterModel opponent, Difficulty difficulty) {
+        this.player = player;
+        this.opponent = opponent;
+        this.random = new MatchRandom(0);
+        this.opponentAi = new OpponentAi(difficulty, random);
+        this.opponentAi.setCommandListener(command -> {
+            if (recorder != null) {
+                recorder.opponentCommand(tick, command);
+            }
+        });
+    }
+
+    /**
+     * @param listener  receives match events
+     */
+    public void setListener(MatchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Lets an AI control the player fighter instead of {@link MatchInputs}, for AI-vs-AI matches.
+     *
+     * @param playerAi  an AI for the player, or <code>null</code> to use inputs
+     */
+    public void setPlayerAi(OpponentAi playerAi) {
+        this.playerAi = playerAi;
+    }
+
+    /**
+     * Lets a scheduled {@link OpponentBrain} control the opponent instead of the built-in AI. The scheduler is given a
+     * snapshot after every tick, and its decisions are applied at the start of the following tick.
+     *
+     * @param opponentScheduler runs the opponent's brain, or <code>null</code> to use the built-in AI
+     */
+    public void setOpponentScheduler(AiScheduler opponentScheduler) {
+        this.opponentScheduler = opponentScheduler;
+        opponentHeld = 0;
+    }
+
+    /**
+     * Plays the opponent from a recording whenever the difficulty {@linkplain Difficulty#hasBrain() has a brain}, as
+     * those matches can't be repeated from their seed. At other difficulties the built-in AI plays as usual.
+     *
+     * @param opponentScript    the recorded match, or <code>null</code>
+     */
+    public void setOpponentScript(ReplayPlayback opponentScript) {
+        this.opponentScript = opponentScript;
+    }
+
+    /**
+     * Makes the opponent hold the given inputs from the next tick, as if a scheduled brain had decided them. Once
+     * called, the built-in AI no longer plays the opponent. Used by rollouts, which play the opponent themselves.
+     *
+     * @param held  the {@link MatchInputs} flags to hold down
+     */
+    void setOpponentDecision(int held) {
+        opponentDecisionsGiven = true;
+        opponentDecision = held;
+    }
+
+    /**
+     * Records the match as it is played. Set this before starting the match.
+     *
+     * @param recorder  records the match, or <code>null</code>
+     */
+    public void setRecorder(MatchRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Starts the match from the first round with a new random seed.
+     */
+    public void startMatch() {
+        startMatch(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Starts the match from the first round. Given the same seed, difficulty and inputs, a match always plays out the
+     * same way.
+     *
+     * @param seed  split into streams for the opponent AI's decisions, effects and cosmetics
+     */
+    public void startMatch(long seed) {
+        this.seed = seed;
+        random.setSeed(seed, MatchRandom.Stream.AI);
+        effectsRandom.setSeed(seed, MatchRandom.Stream.EFFECTS);
+        cosmeticsRandom.setSeed(seed, MatchRandom.Stream.COSMETICS);
+        opponentAi.reset();
+        tick = 0;
+
+        if (recorder != null) {
+            recorder.matchStarted(seed, getDifficulty());
+        }
+
+        matchOver = false;
+        roundsWon = 0;
+        roundsLost = 0;
+
+        // start round 1
+        currentRound = 1;
+        startRound();
+    }
+
+    /**
+     * Starts a round.
+     */
+    private void startRound() {
+        player.getReady(playerStartPositionX, fighterStartPositionY);
+        opponent.getReady(opponentStartPositionX, fighterStartPositionY);
+        opponentHeld = 0;
+
+        roundState = RoundState.STARTING;
+        roundStateTime = 0.0f;
+        roundTimer = MAX_ROUND_TIME;
+
+        listener.roundStarted();
+    }
+
+    /**
+     * Ends a round.
+     */
+    private void endRound() {
+        roundState = RoundState.ENDING;
+        roundStateTime = 0.0f;
+    }
+
+    /**
+     * Wins a round for the player.
+     */
+    private void winRound() {
+        player.win();
+        opponent.lose();
+        roundsWon++;
+
+        listener.roundWon();
+        endRound();
+    }
+
+    /**
+     * Loses a round for the player.
+     */
+    private void loseRound() {
+        player.lose();
+        opponent.win();
+        roundsLost++;
+
+        listener.roundLost();
+        endRound();
+    }
+
+    /**
+     * Applies the player's inputs, then advances the match by one tick.
+     *
+     * @param inputs    player inputs since the last step
+     */
+    public void step(MatchInputs inputs) {
+        step(inputs, TICK_TIME);
+    }
+
+    /**
+     * Applies the player's inputs, then advances the match. Prefer {@link #step(MatchInputs)}; hits may be missed if
+     * the delta time is longer than an attack's active window.
+     *
+     * @param inputs    player inputs since the last step
+     * @param deltaTime delta time
+     */
+    public void step(MatchInputs inputs, float deltaTime) {
+        if (matchOver) {
+            return;
+        }
+
+        if (recorder != null && (inputs.getPressed() != 0 || inputs.getReleased() != 0)) {
+            recorder.playerInputs(tick, inputs.getPressed(), inputs.getReleased());
+        }
+
+        applyInputs(inputs);
+        update(deltaTime);
+
+        if (recorder != null && matchOver) {
+            recorder.matchEnded(tick);
+        }
+        tick++;
+
+        if (opponentScheduler != null && !matchOver) {
+            opponentScheduler.submit(this);
+        }
+    }
+
+    /**
+     * Applies key presses before key releases, so a key tapped within a single step still registers.
+     *
+     * @param inputs    player inputs since the last step
+     */
+    private void applyInputs(MatchInputs inputs) {
+        if (inputs.isPressed(MatchInputs.SKIP_DELAY)) {
+            // skip round delays
+            if (roundState == RoundState.STARTING) {
+                roundStateTime = START_ROUND_DELAY;
+            } else if (roundState == RoundState.ENDING) {
+                roundStateTime = END_ROUND_DELAY;
+            }
+        }
+
+        if (roundState == RoundState.IN_PROGRESS) {
+            // only if round is in progress check if player has pressed a movement key
+            if (inputs.isPressed(MatchInputs.LEFT)) {
+                player.moveLeft();
+            }
+            if (inputs.isPressed(MatchInputs.RIGHT)) {
+                player.moveRight();
+            }
+            if (inputs.isPressed(MatchInputs.UP)) {
+                player.moveUp();
+            }
+            if (inputs.isPressed(MatchInputs.DOWN)) {
+                player.moveDown();
+            }
+        }
+
+        // check if player has pressed block or attack key
+        if (inputs.isPressed(MatchInputs.BLOCK)) {
+            player.block();
+        }
+        if (inputs.isPressed(MatchInputs.PUNCH)) {
+            player.punch();
+        }
+        if (inputs.isPressed(MatchInputs.KICK)) {
+            player.kick();
+        }
+
+        // if player has released a movement key, stop moving
+        if (inputs.isReleased(MatchInputs.LEFT)) {
+            player.stopMovingLeft();
+        }
+        if (inputs.isReleased(MatchInputs.RIGHT)) {
+            player.stopMovingRight();
+        }
+        if (inputs.isReleased(MatchInputs.UP)) {
+            player.stopMovingUp();
+        }
+        if (inputs.isReleased(MatchInputs.DOWN)) {
+            player.stopMovingDown();
+        }
+        if (inputs.isReleased(MatchInputs.BLOCK)) {
+            player.stopBlocking();
+        }
+    }
+
+    /**
+     * Performs game logic.
+     *
+     * @param deltaTime delta time
+     */
+    private void update(float deltaTime) {
+        if (roundState == RoundState.STARTING && roundStateTime >= START_ROUND_DELAY) {
+            // if the start round delay has been reached, start the round
+            roundState = RoundState.IN_PROGRESS;
+            roundStateTime = 0.0f;
+        } else if (roundState == RoundState.ENDING && roundStateTime >= END_ROUND_DELAY) {
+            // if the end round delay has been reached and the player has won or lost more than half the max number of rounds,
+            // end the match, else start the next round
+            if (roundsWon > MAX_ROUNDS / 2 || roundsLost > MAX_ROUNDS / 2) {
+                matchOver = true;
+            } else {
+                currentRound++;
+                startRound();
+            }
+        } else {
+            roundStateTime += deltaTime;
+        }
+
+        player.update(deltaTime);
+        opponent.update(deltaTime);
+
+        if (player.getPositionX() <= opponent.getPositionX()) {
+            player.faceRight();
+            opponent.faceLeft();
+        } else {
+            player.faceLeft();
+            opponent.faceRight();
+        }
+
+        Ring.keepWithinRingBounds(player);
+        Ring.keepWithinRingBounds(opponent);
+
+        if (roundState == RoundState.IN_PROGRESS) {
+            // if the round is in progress, decrease round timer
+            roundTimer -= deltaTime;
+
+            if (roundTimer <= 0.0f) {
+                // possible end game
+                if (player.getLife() >= opponent.getLife()) {
+                    winRound();
+                } else {
+                    loseRound();
+                }
+            }
+
+            if (playerAi != null) {
+                playerAi.performOpponentAI(player, opponent, deltaTime);
+            }
+            long aiStartTime = System.nanoTime();
+            if (opponentScript != null && getDifficulty().hasBrain()) {
+                opponentScript.scriptOpponent(tick, opponentCommander);
+            } else if (opponentScheduler != null) {
+                applyOpponentDecision(opponentScheduler.poll());
+            } else if (opponentDecisionsGiven) {
+                applyOpponentDecision(opponentDecision);
+                opponentDecision = AiScheduler.NO_DECISION;
+            } else {
+                opponentAi.performOpponentAI(opponent, player, deltaTime);
+            }
+            opponentAiNanos += System.nanoTime() - aiStartTime;
+
+            FighterModel hitFighter = resolveContact(player, opponent);
+            if (hitFighter != null) {
+                listener.fighterHit(hitFighter, hitFighter.isBlocking());
+
+                if (hitFighter == opponent && opponent.hasLost()) {
+                    winRound(); // player wins
+                } else if (hitFighter == player && player.hasLost()) {
+                    loseRound(); // opponent wins
+                }
+            }
+        }
+    }
+
+    /**
+     * Turns the inputs a scheduled brain wants held down into commands for the opponent. Releases are applied before
+     * presses so the opponent can change direction in a single decision.
+     *
+     * @param held  the inputs to hold down, or {@link AiScheduler#NO_DECISION} to carry on as before
+     */
+    private void applyOpponentDecision(int held) {
+        if (held == AiScheduler.NO_DECISION) {
+            return;
+        }
+
+        int released = opponentHeld & ~held;
+        int pressed = held & ~opponentHeld;
+        opponentHeld = held & ~(MatchInputs.PUNCH | MatchInputs.KICK);
+
+        if ((released & MatchInputs.LEFT) != 0) {
+            commandOpponent(FighterCommand.STOP_MOVING_LEFT);
+        }
+        if ((released & MatchInputs.RIGHT) != 0) {
+            commandOpponent(FighterCommand.STOP_MOVING_RIGHT);
+        }
+        if ((released & MatchInputs.UP) != 0) {
+            commandOpponent(FighterCommand.STOP_MOVING_UP);
+        }
+        if ((released & MatchInputs.DOWN) != 0) {
+            commandOpponent(FighterCommand.STOP_MOVING_DOWN);
+        }
+        if ((released & MatchInputs.BLOCK) != 0) {
+            commandOpponent(FighterCommand.STOP_BLOCKING);
+        }
+
+        if ((pressed & MatchInputs.LEFT) != 0) {
+            commandOpponent(FighterCommand.MOVE_LEFT);
+        }
+        if ((pressed & MatchInputs.RIGHT) != 0) {
+            commandOpponent(FighterCommand.MOVE_RIGHT);
+        }
+        if ((pressed & MatchInputs.UP) != 0) {
+            commandOpponent(FighterCommand.MOVE_UP);
+        }
+        if ((pressed & MatchInputs.DOWN) != 0) {
+            commandOpponent(FighterCommand.MOVE_DOWN);
+        }
+        if ((pressed & MatchInputs.BLOCK) != 0) {
+            commandOpponent(FighterCommand.BLOCK);
+        }
+        if ((pressed & MatchInputs.PUNCH) != 0) {
+            commandOpponent(FighterCommand.PUNCH);
+        }
+        if ((pressed & MatchInputs.KICK) != 0) {
+            commandOpponent(FighterCommand.KICK);
+        }
+    }
+
+    /**
+     * Gives the opponent a command, recording it if it changed anything.
+     */
+    private void commandOpponent(FighterCommand command) {
+        if (command.applyTo(opponent) && recorder != null) {
+            recorder.opponentCommand(tick, command);
+        }
+    }
+
+    /**
+     * Saves everything needed to carry on from the current tick. The player AI, if any, is not included.
+     *
+     * @param snapshot  receives the state; no references to the simulation are kept
+     */
+    public void saveSnapshot(MatchSnapshot snapshot) {
+        snapshot.player.set(player);
+        snapshot.opponent.set(opponent);
+
+        snapshot.tick = tick;
+        snapshot.roundsWon = roundsWon;
+        snapshot.roundsLost = roundsLost;
+        snapshot.roundTimer = roundTimer;
+        snapshot.roundState = roundState;
+        snapshot.roundStateTime = roundStateTime;
+        snapshot.currentRound = currentRound;
+        snapshot.matchOver = matchOver;
+
+        opponentAi.saveSnapshot(snapshot);
+        snapshot.randomState0 = random.getState0();
+        snapshot.randomState1 = random.getState1();
+        snapshot.effectsRandomState0 = effectsRandom.getState0();
+        snapshot.effectsRandomState1 = effectsRandom.getState1();
+        snapshot.cosmeticsRandomState0 = cosmeticsRandom.getState0();
+        snapshot.cosmeticsRandomState1 = cosmeticsRandom.getState1();
+        snapshot.opponentHeld = opponentHeld;
+    }
+
+    /**
+     * Goes back to a saved state. No listener or recorder events are fired.
+     *
+     * @param snapshot  a state saved from this simulation
+     */
+    public void restoreSnapshot(MatchSnapshot snapshot) {
+        player.set(snapshot.player);
+        opponent.set(snapshot.opponent);
+
+        tick = snapshot.tick;
+        roundsWon = snapshot.roundsWon;
+        roundsLost = snapshot.roundsLost;
+        roundTimer = snapshot.roundTimer;
+        roundState = snapshot.roundState;
+        roundStateTime = snapshot.roundStateTime;
+        currentRound = snapshot.currentRound;
+        matchOver = snapshot.matchOver;
+
+        opponentAi.restoreSnapshot(snapshot);
+        random.setState(snapshot.randomState0, snapshot.randomState1);
+        effectsRandom.setState(snapshot.effectsRandomState0, snapshot.effectsRandomState1);
+        cosmeticsRandom.setState(snapshot.cosmeticsRandomState0, snapshot.cosmeticsRandomState1);
+        opponentHeld = snapshot.opponentHeld;
+    }
+
+    /**
+     * Applies the hit rules to two fighters: if the first fighter's attack is active and its hitbox overlaps the second
+     * fighter's hurtbox, the second fighter gets hit, otherwise the same is checked the other way round. An attack can
+     * only hit once. Hitboxes come from {@link FrameData}.
+     *
+     * @param first     the fighter whose attack is checked first
+     * @param second    the other fighter
+     * @return  the fighter that got hit, or <code>null</code>
+     */
+    public static FighterModel resolveContact(FighterModel first, FighterModel second) {
+        FrameData frameData = FrameData.getDefault();
+        if (first.isAttackActive() && frameData.hits(first, second)) {
+            second.getHit(FighterModel.HIT_STRENGTH);
+            first.makeContact();
+            return second;
+        } else if (second.isAttackActive() && frameData.hits(second, first)) {
+            first.getHit(FighterModel.HIT_STRENGTH);
+            second.makeContact();
+            return first;
+        }
+        return null;
+    }
+
+    /**
+     * Used by the AI to decide when to attack or block; hits themselves are decided by {@link FrameData}.
+     *
+     * @param fighter1  the first fighter
+     * @param fighter2  the second fighter
+     *
+     * @return  <code>true</code> if two fighters are within a defined contact range
+     */
+    public static boolean areWithinContactDistance(FighterModel fighter1, FighterModel fighter2) {
+        float xDistance = Math.abs(fighter1.getPositionX() - fighter2.getPositionX());
+        float yDistance = Math.abs(fighter1.getPositionY() - fighter2.getPositionY());
+        return xDistance <= fighterContactDistanceX && yDistance <= fighterContactDistanceY;
+    }
+
+    public FighterModel getPlayer() {
+        return player;
+    }
+
+    public FighterModel getOpponent() {
+        return opponent;
+    }
+
+    public Difficulty getDifficulty() {
+        return opponentAi.getDifficulty();
+    }
+
+    /**
+     * Plays the opponent by numbers that don't belong to a difficulty, e.g. while tuning. Changing the difficulty
+     * goes back to that difficulty's numbers. Not recorded, so matches played this way can't be replayed.
+     *
+     * @param parameters    the numbers for the opponent AI to play by
+     */
+    public void setOpponentParameters(AiParameters parameters) {
+        opponentAi.setParameters(parameters);
+    }
+
+    public void setDifficulty(Difficulty difficulty) {
+        if (recorder != null && difficulty != opponentAi.getDifficulty()) {
+            recorder.difficultyChanged(tick, difficulty);
+        }
+        opponentAi.setDifficulty(difficulty);
+    }
+
+    /**
+     * Random numbers for effects that follow from the fight, such as blood. Drawing from it doesn't change what
+     * the AI does, and a replay draws the same numbers.
+     *
+     * @return  this match's effects stream
+     */
+    public MatchRandom getEffectsRandom() {
+        return effectsRandom;
+    }
+
+    /**
+     * @return  this match's stream for decoration that has nothing to do with the fight
+     */
+    public MatchRandom getCosmeticsRandom() {
+        return cosmeticsRandom;
+    }
+
+    /**
+     * @return  the seed the current match was started with
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return  the number of steps taken since the match started
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * @return  the total time spent deciding the opponent's moves on the thread calling {@link #step}, in nanoseconds;
+     *          a scheduled brain's thinking happens elsewhere and only polling it counts
+     */
+    public long getOpponentAiNanos() {
+        return opponentAiNanos;
+    }
+
+    public int getRoundsWon() {
+        return roundsWon;
+    }
+
+    public int getRoundsLost() {
+        return roundsLost;
+    }
+
+    public float getRoundTimer() {
+        return roundTimer;
+    }
+
+    public RoundState getRoundState() {
+        return roundState;
+    }
+
+    public float getRoundStateTime() {
+        return roundStateTime;
+    }
+
+    public int getCurrentRound() {
+        return currentRound;
+    }
+
+    public boolean isMatchOver() {
+        return matchOver;
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.berthouex.stickfight.simulation;
+
+/**
+ * Everything a {@link MatchSimulation} needs to carry on from a given tick. Snapshots are meant to be allocated once
+ * and reused; saving and restoring only copies fields. An {@link OpponentBrain} reads the fight through the getters;
+ * the fighters returned must not be modified.
+ */
+public class MatchSnapshot {
+    // fighters
+    final FighterModel player = new FighterModel();
+    final FighterModel opponent = new FighterModel();
+
+    // round
+    int tick;
+    int roundsWon;
+    int roundsLost;
+    float roundTimer;
+    MatchSimulation.RoundState roundState;
+    float roundStateTime;
+    int currentRound;
+    boolean matchOver;
+
+    // opponent AI
+    Difficulty difficulty;
+    AiParameters opponentAiParameters;
+    float opponentAiTimer;
+    boolean opponentAiMakingContactDecision;
+    boolean opponentAiPursuingPlayer;
+    long randomState0;
+    long randomState1;
+
+    // effects and cosmetics
+    long effectsRandomState0;
+    long effectsRandomState1;
+    long cosmeticsRandomState0;
+    long cosmeticsRandomState1;
+    int opponentHeld;
+
+    /**
+     * @return  the tick this snapshot was saved before
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    public FighterModel getPlayer() {
+        return player;
+    }
+
+    public FighterModel getOpponent() {
+        return opponent;
+    }
+
+    public MatchSimulation.RoundState getRoundState() {
+        return roundState;
+    }
+
+    public float getRoundTimer() {
+        return roundTimer;
+    }
+
+    public int getRoundsWon() {
+        return roundsWon;
+    }
+
+    public int getRoundsLost() {
+        return roundsLost;
+    }
+
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+}
@@ -0,0 +1,249 @@
+package com.berthouex.stickfight.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks the opponent's next move by playing the fight forward many times from the current tick. Each rollout copies
+ * the fight into a headless {@link MatchSimulation}, makes one of the candidate moves, then plays on with random moves
+ * against a player modelled by the built-in AI, scoring the damage dealt against the damage taken. Moves are chosen
+ * for rollouts with UCB1, so promising moves get tried more often, and the move tried most wins.
+ * <p>
+ * Rollouts are spread over the cores, each searcher keeping its own statistics that are added up at the deadline.
+ */
+public class MonteCarloBrain implements OpponentBrain {
+    /** how far ahead each rollout plays **/
+    static final int ROLLOUT_TICKS = 90;
+    /** how long a move is held before the next one is picked, during rollouts **/
+    static final int MOVE_TICKS = 6;
+    /** the level the player is assumed to play at in rollouts **/
+    static final Difficulty PLAYER_MODEL = Difficulty.HARD;
+
+    private static final int PUNCH = 0;
+    private static final int KICK = 1;
+    private static final int BLOCK = 2;
+    private static final int APPROACH = 3;
+    private static final int RETREAT = 4;
+    private static final int WAIT = 5;
+    private static final int MOVES = 6;
+
+    private static final double EXPLORATION = Math.sqrt(2.0);
+
+    private final Searcher[] searchers;
+    private final ExecutorService pool; // runs every searcher but the first, which runs on the calling thread
+    private final List<Future<?>> futures = new ArrayList<>();
+    private final long[] visits = new long[MOVES];
+
+    private volatile double rolloutsPerSecond;
+
+    /**
+     * Searches on every core but one, leaving a core for the game.
+     */
+    public MonteCarloBrain() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * @param threads   the number of searchers to run at once
+     */
+    public MonteCarloBrain(int threads) {
+        searchers = new Searcher[threads];
+        for (int i = 0; i < threads; i++) {
+            searchers[i] = new Searcher();
+        }
+
+        pool = threads > 1
+            ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+                Thread thread = new Thread(runnable, "opponent-ai-search");
+                thread.setDaemon(true);
+                return thread;
+            })
+            : null;
+    }
+
+    @Override
+    public int decide(MatchSnapshot view, long deadlineNanos) {
+        long startTime = System.nanoTime();
+
+        for (Searcher searcher : searchers) {
+            searcher.prepare(view, deadlineNanos);
+        }
+
+        futures.clear();
+        for (int i = 1; i < searchers.length; i++) {
+            futures.add(pool.submit(searchers[i]));
+        }
+        searchers[0].run();
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Rollout failed", e.getCause());
+            }
+        }
+
+        // the move tried most is the most reliably good one
+        long rollouts = 0;
+        Arrays.fill(visits, 0);
+        for (Searcher searcher : searchers) {
+            for (int move = 0; move < MOVES; move++) {
+                visits[move] += searcher.visits[move];
+            }
+            rollouts += searcher.rollouts;
+        }
+        int best = 0;
+        for (int move = 1; move < MOVES; move++) {
+            if (visits[move] > visits[best]) {
+                best = move;
+            }
+        }
+
+        long elapsed = Math.max(1, System.nanoTime() - startTime);
+        rolloutsPerSecond = rollouts * 1.0e9 / elapsed;
+
+        return heldInputs(best, view.getOpponent(), view.getPlayer());
+    }
+
+    /**
+     * @param move      one of the candidate moves
+     * @param opponent  the fighter making the move
+     * @param player    the fighter being fought
+     * @return  the inputs to hold down to make the move
+     */
+    static int heldInputs(int move, FighterModel opponent, FighterModel player) {
+        int towards = opponent.getPositionX() > player.getPositionX() ? MatchInputs.LEFT : MatchInputs.RIGHT;
+        int away = towards == MatchInputs.LEFT ? MatchInputs.RIGHT : MatchInputs.LEFT;
+
+        return switch (move) {
+            case PUNCH -> MatchInputs.PUNCH;
+            case KICK -> MatchInputs.KICK;
+            case BLOCK -> MatchInputs.BLOCK;
+            case APPROACH -> {
+                // line up in depth while closing in
+                float offsetY = player.getPositionY() - opponent.getPositionY();
+                int vertical = offsetY > MatchSimulation.fighterContactDistanceY / 2.0f ? MatchInputs.UP
+                    : offsetY < -MatchSimulation.fighterContactDistanceY / 2.0f ? MatchInputs.DOWN : 0;
+                yield towards | vertical;
+            }
+            case RETREAT -> away;
+            case WAIT -> 0;
+            default -> throw new IllegalArgumentException("Unknown move " + move);
+        };
+    }
+
+    /**
+     * Stops the searcher threads.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @return  rollouts played per second during the last decision, across all searchers
+     */
+    public double getRolloutsPerSecond() {
+        return rolloutsPerSecond;
+    }
+
+    /**
+     * Plays rollouts on its own copy of the fight until the deadline.
+     */
+    private static class Searcher implements Runnable {
+        private final MatchSimulation simulation;
+        private final MatchRandom random = new MatchRandom(ThreadLocalRandom.current().nextLong());
+        private final OpponentAi playerAi = new OpponentAi(PLAYER_MODEL, random);
+        private final MatchInputs noInputs = new MatchInputs();
+
+        final long[] visits = new long[MOVES];
+        private final double[] totalScore = new double[MOVES];
+        long rollouts;
+
+        private MatchSnapshot view;
+        private long deadlineNanos;
+
+        Searcher() {
+            simulation = new MatchSimulation(new FighterModel(), new FighterModel(), PLAYER_MODEL);
+            simulation.setPlayerAi(playerAi);
+        }
+
+        void prepare(MatchSnapshot view, long deadlineNanos) {
+            this.view = view;
+            this.deadlineNanos = deadlineNanos;
+            Arrays.fill(visits, 0);
+            Arrays.fill(totalScore, 0.0);
+            rollouts = 0;
+        }
+
+        @Override
+        public void run() {
+            // always try every move once, even if the deadline has passed
+            do {
+                int move = chooseMove();
+                totalScore[move] += rollout(move);
+                visits[move]++;
+                rollouts++;
+            } while (rollouts < MOVES || System.nanoTime() < deadlineNanos);
+        }
+
+        /**
+         * UCB1: the best average score so far, plus a bonus for moves that haven't been tried much.
+         */
+        private int chooseMove() {
+            if (rollouts < MOVES) {
+                return (int) rollouts;
+            }
+
+            double logRollouts = Math.log(rollouts);
+            int best = 0;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int move = 0; move < MOVES; move++) {
+                double value = totalScore[move] / visits[move] + EXPLORATION * Math.sqrt(logRollouts / visits[move]);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = move;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * @return  the score of one playout starting with the given move, from -1 for losing all the opponent's life
+         *          to 1 for taking all the player's
+         */
+        private double rollout(int firstMove) {
+            simulation.restoreSnapshot(view);
+            playerAi.reset();
+
+            FighterModel player = simulation.getPlayer();
+            FighterModel opponent = simulation.getOpponent();
+            float playerLife = player.getLife();
+            float opponentLife = opponent.getLife();
+
+            int move = firstMove;
+            for (int tick = 0; tick < ROLLOUT_TICKS && !simulation.isMatchOver(); tick++) {
+                if (tick % MOVE_TICKS == 0) {
+                    simulation.setOpponentDecision(heldInputs(move, opponent, player));
+                    move = random.nextInt(MOVES);
+                }
+                simulation.step(noInputs);
+            }
+
+            // a new round resets life, so count a finished round as all the life that was left
+            float playerDamage = simulation.getRoundsLost() > view.getRoundsLost() ? playerLife : playerLife - player.getLife();
+            float opponentDamage = simulation.getRoundsWon() > view.getRoundsWon() ? opponentLife : opponentLife - opponent.getLife();
+            return (playerDamage - opponentDamage) / FighterModel.MAX_LIFE;
+        }
+    }
+
+}
@@ -0,0 +1,282 @@
+package com.berthouex.stickfight.simulation;
+
+import java.util.Random;
+
+/**
+ * Computer controlled fighter. Decides whether to attack, block, or move based on a {@link Difficulty}.
+ */
+public class OpponentAi {
+    /**
+     * Told about every command the AI gives that changes what its fighter is doing.
+     */
+    @FunctionalInterface
+    public interface CommandListener {
+        void commandIssued(FighterCommand command);
+    }
+
+    private final Random random;
+    private Difficulty difficulty;
+    private AiParameters parameters;
+    private CommandListener commandListener;
+
+    private float opponentAiTimer;
+    private boolean opponentAiMakingContactDecision;
+    private boolean opponentAiPursuingPlayer;
+
+    /**
+     * @param difficulty    the difficulty to play at
+     * @param random        the source of randomness for decisions
+     */
+    public OpponentAi(Difficulty difficulty, Random random) {
+        this.difficulty = difficulty;
+        this.parameters = difficulty.parameters();
+        this.random = random;
+    }
+
+    /**
+     * @param parameters    numbers to play by that don't belong to a difficulty, e.g. while tuning
+     * @param random        the source of randomness for decisions
+     */
+    public OpponentAi(AiParameters parameters, Random random) {
+        this.parameters = parameters;
+        this.random = random;
+    }
+
+    /**
+     * @return  the difficulty played at, or <code>null</code> if playing by parameters of its own
+     */
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(Difficulty difficulty) {
+        this.difficulty = difficulty;
+        this.parameters = difficulty.parameters();
+    }
+
+    public AiParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Plays by numbers that don't belong to a difficulty, keeping the current difficulty's name.
+     *
+     * @param parameters    the numbers to play by
+     */
+    public void setParameters(AiParameters parameters) {
+        this.parameters = parameters;
+    }
+
+    /**
+     * @param commandListener   told about the AI's decisions, or <code>null</code>
+     */
+    public void setCommandListener(CommandListener commandListener) {
+        this.commandListener = commandListener;
+    }
+
+    /**
+     * Forgets any decision in progress, so a new match plays the same way every time for the same random seed.
+     */
+    public void reset() {
+        opponentAiTimer = 0.0f;
+        opponentAiMakingContactDecision = false;
+        opponentAiPursuingPlayer = false;
+    }
+
+    /**
+     * @param snapshot  receives the AI's decision state
+     */
+    void saveSnapshot(MatchSnapshot snapshot) {
+        snapshot.difficulty = difficulty;
+        snapshot.opponentAiParameters = parameters;
+        snapshot.opponentAiTimer = opponentAiTimer;
+        snapshot.opponentAiMakingContactDecision = opponentAiMakingContactDecision;
+        snapshot.opponentAiPursuingPlayer = opponentAiPursuingPlayer;
+    }
+
+    /**
+     * @param snapshot  the decision state to go back to
+     */
+    void restoreSnapshot(MatchSnapshot snapshot) {
+        difficulty = snapshot.difficulty;
+        parameters = snapshot.opponentAiParameters;
+        opponentAiTimer = snapshot.opponentAiTimer;
+        opponentAiMakingContactDecision = snapshot.opponentAiMakingContactDecision;
+        opponentAiPursuingPlayer = snapshot.opponentAiPursuingPlayer;
+    }
+
+    /**
+     * Opponent AI decision tree.
+     *
+     * @param opponent  the fighter controlled by this AI
+     * @param player    the fighter being fought
+     * @param deltaTime delta time
+     */
+    public void performOpponentAI(FighterModel opponent, FighterModel player, float deltaTime) {
+        // check contact decision (attack, block, etc.)
+        if (opponentAiMakingContactDecision) {
+            if (opponent.isBlocking()) {
+                // if opponent is blocking, stop blocking if the fighters are not within contact distance or player isn't attacking
+                if (!MatchSimulation.areWithinContactDistance(player, opponent) || !player.isAttacking() || player.hasMadeContact()) {
+                    issue(opponent, FighterCommand.STOP_BLOCKING);
+                }
+            } else if (!opponent.isAttacking()) {
+                if (MatchSimulation.areWithinContactDistance(player, opponent)) {
+                    if (opponentAiTimer <= 0.0f) {
+                        // make a contact decision
+                        opponentAiMakeContactDecision(opponent, player);
+                    } else {
+                        // decrease ai timer
+                        opponentAiTimer -= deltaTime;
+                    }
+                } else {
+                    // don't make a contact decision
+                    opponentAiMakingContactDecision = false;
+                }
+            }
+        } else {
+            if (MatchSimulation.areWithinContactDistance(player, opponent)) {
+                // make a contact decision
+                opponentAiMakeContactDecision(opponent, player);
+            } else {
+                if (opponentAiTimer <= 0.0f) {
+                    // pursue player or move in random direction
+                    float pursueChance = parameters.pursuePlayerChance();
+
+                    if (random.nextFloat() <= pursueChance) {
+                        // opponent is pursuing player
+                        opponentAiPursuingPlayer = true;
+                        opponentAiMoveTowardPlayer(opponent, player);
+                    } else {
+                        // opponent is not pursuing player
+                        opponentAiPursuingPlayer = false;
+                        opponentAiMoveRandomly(opponent);
+                    }
+
+                    // set AI timer to decision delay
+                    opponentAiTimer = parameters.nonContactDecisionDelay();
+                } else {
+                    // if opponent is pursuing player, move to player
+                    if (opponentAiPursuingPlayer) {
+                        opponentAiMoveTowardPlayer(opponent, player);
+                    }
+                    opponentAiTimer -= deltaTime;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives a command to the fighter. Commands that change nothing, such as moving left while already moving left,
+     * are not passed on to the command listener.
+     */
+    private void issue(FighterModel opponent, FighterCommand command) {
+        if (command.applyTo(opponent) && commandListener != null) {
+            commandListener.commandIssued(command);
+        }
+    }
+
+    private void opponentAiMakeContactDecision(FighterModel opponent, FighterModel player) {
+        opponentAiMakingContactDecision = true;
+
+        if (player.isAttacking()) {
+            // if player is attacking and hasn't made contact, block or move away
+            if (!player.hasMadeContact()) {
+                if (random.nextFloat() <= parameters.blockChance()) {
+                    issue(opponent, FighterCommand.BLOCK);
+                } else {
+                    opponentAiMoveAwayFromPlayer(opponent, player);
+                }
+            }
+        } else {
+            // attack or move away
+            if (random.nextFloat() <= parameters.attackChance()) {
+                if (random.nextBoolean()) {
+                    issue(opponent, FighterCommand.PUNCH);
+                } else {
+                    issue(opponent, FighterCommand.KICK);
+                }
+            } else {
+                // move away
+                opponentAiMoveAwayFromPlayer(opponent, player);
+            }
+        }
+
+        // set opponent AI timer to contact decision delay
+        opponentAiTimer = parameters.nonContactDecisionDelay();
+    }
+
+    /**
+     * Moves opponent fighter towards player.
+     */
+    private void opponentAiMoveTowardPlayer(FighterModel opponent, FighterModel player) {
+        if (opponent.getPositionX() > player.getPositionX() + MatchSimulation.fighterContactDistanceX) {
+            issue(opponent, FighterCommand.MOVE_LEFT);
+        } else if (opponent.getPositionX() < player.getPositionX() - MatchSimulation.fighterContactDistanceX) {
+            issue(opponent, FighterCommand.MOVE_RIGHT);
+        } else {
+            issue(opponent, FighterCommand.STOP_MOVING_LEFT);
+            issue(opponent, FighterCommand.STOP_MOVING_RIGHT);
+        }
+
+        if (opponent.getPositionY() < player.getPositionY() - MatchSimulation.fighterContactDistanceY) {
+            issue(opponent, FighterCommand.MOVE_UP);
+        } else if (opponent.getPositionY() > player.getPositionY() - MatchSimulation.fighterContactDistanceY) {
+            issue(opponent, FighterCommand.MOVE_DOWN);
+        } else {
+            issue(opponent, FighterCommand.STOP_MOVING_UP);
+            issue(opponent, FighterCommand.STOP_MOVING_DOWN);
+        }
+    }
+
+    /**
+     * Moves opponent fighter away from the player.
+     */
+    private void opponentAiMoveAwayFromPlayer(FighterModel opponent, FighterModel player) {
+        if (opponent.getPositionX() > player.getPositionX()) {
+            issue(opponent, FighterCommand.MOVE_RIGHT);
+        } else {
+            issue(opponent, FighterCommand.MOVE_LEFT);
+        }
+
+        if (opponent.getPositionY() > player.getPositionY() - MatchSimulation.fighterContactDistanceY) {
+            issue(opponent, FighterCommand.MOVE_UP);
+        } else {
+            issue(opponent, FighterCommand.MOVE_DOWN);
+        }
+    }
+
+    /**
+     * Randomly set vertical and horizontal movement of the opponent fighter
+     */
+    private void opponentAiMoveRandomly(FighterModel opponent) {
+        // horizontal movement
+        switch(random.nextInt(3)) {
+            case 0:
+                issue(opponent, FighterCommand.MOVE_LEFT);
+                break;
+            case 1:
+                issue(opponent, FighterCommand.MOVE_RIGHT);
+                break;
+            case 2:
+            default:
+                issue(opponent, FighterCommand.STOP_MOVING_RIGHT);
+                issue(opponent, FighterCommand.STOP_MOVING_LEFT);
+        }
+
+        // vertical movement
+        switch(random.nextInt(3)) {
+            case 0:
+                issue(opponent, FighterCommand.MOVE_UP);
+                break;
+            case 1:
+                issue(opponent, FighterCommand.MOVE_DOWN);
+                break;
+            case 2:
+            default:
+                issue(opponent, FighterCommand.STOP_MOVING_UP);
+                issue(opponent, FighterCommand.STOP_MOVING_DOWN);
+        }
+    }
+
+}
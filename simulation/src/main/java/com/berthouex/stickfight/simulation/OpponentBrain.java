@@ -0,0 +1,28 @@
+package com.berthouex.stickfight.simulation;
+
+/**
+ * Decides what the opponent does next, for AI levels too slow to run inside a simulation tick. A brain runs on the
+ * {@link AiScheduler}'s worker thread and only ever sees snapshots of the fight, never the live simulation.
+ */
+@FunctionalInterface
+public interface OpponentBrain {
+
+    /**
+     * Called on the AI worker thread. The view must not be modified and must not be kept after returning, as it is
+     * reused for later ticks.
+     *
+     * @param view          the fight as it was at the end of a tick
+     * @param deadlineNanos the {@link System#nanoTime()} to have decided by
+     * @return  the {@link MatchInputs} flags the opponent should hold down; {@link MatchInputs#PUNCH} and
+     *          {@link MatchInputs#KICK} attack once each time they are returned
+     */
+    int decide(MatchSnapshot view, long deadlineNanos);
+
+    /**
+     * Called on the AI worker thread once the scheduler is closed and no more decisions will be asked for. Brains
+     * that start threads of their own stop them here.
+     */
+    default void close() {
+    }
+
+}
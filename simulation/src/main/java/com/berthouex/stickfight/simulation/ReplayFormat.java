@@ -0,0 +1,35 @@
+package com.berthouex.stickfight.simulation;
+
+/**
+ * Layout of a replay file.
+ * <p>
+ * A replay starts with a header: the magic bytes {@code SFRP}, the format version as a varint, the 8-byte match seed
+ * and the starting difficulty's ordinal as a varint. Then follows a list of events. Each event begins with a varint
+ * holding the number of ticks since the previous event shifted left by two, OR'd with the event kind:
+ * <ul>
+ *     <li>{@link #PLAYER_INPUTS}: pressed flags and released flags, as two varints</li>
+ *     <li>{@link #OPPONENT_COMMAND}: a single byte, the {@link FighterCommand} ordinal</li>
+ *     <li>{@link #DIFFICULTY}: the new difficulty's ordinal, as a varint</li>
+ *     <li>{@link #END}: nothing</li>
+ * </ul>
+ * Varints are unsigned LEB128: seven bits per byte, least significant group first, high bit set on all but the last
+ * byte. A file that stops without an {@link #END} event, e.g. because the match was abandoned, is still valid.
+ */
+final class ReplayFormat {
+    static final byte[] MAGIC = { 'S', 'F', 'R', 'P' };
+    // version 2 splits the seed into streams, so version 1 AIs decide differently; version 3 takes random numbers from
+    // the high bits of the generator, so version 2 AIs decide differently too
+    static final int VERSION = 3;
+
+    static final int PLAYER_INPUTS = 0;
+    static final int OPPONENT_COMMAND = 1;
+    static final int DIFFICULTY = 2;
+    static final int END = 3;
+
+    static final int KIND_BITS = 2;
+    static final int KIND_MASK = (1 << KIND_BITS) - 1;
+
+    private ReplayFormat() {
+    }
+
+}
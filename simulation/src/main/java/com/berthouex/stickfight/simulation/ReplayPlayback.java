@@ -0,0 +1,295 @@
+package com.berthouex.stickfight.simulation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * A recorded match, decoded and ready to be played again. Before each step, {@link #readTick(MatchSimulation,
+ * MatchInputs)} supplies the player inputs that were recorded for that tick. The seed makes the opponent AI repeat its
+ * decisions; an opponent played by an {@link OpponentBrain} is instead given its recorded commands through
+ * {@link MatchSimulation#setOpponentScript(ReplayPlayback)}. Setting this playback as the simulation's
+ * {@link MatchRecorder} checks that the opponent really does the same thing; if the
+ * simulation has changed since the replay was recorded, the first tick that differs is reported by
+ * {@link #getDesyncTick()}.
+ */
+public class ReplayPlayback implements MatchRecorder {
+    private final long seed;
+    private final Difficulty difficulty;
+
+    // player inputs and difficulty changes, in tick order
+    private int[] inputTicks = new int[64];
+    private byte[] inputKinds = new byte[64];
+    private int[] inputValues = new int[64];
+    private int[] inputReleased = new int[64];
+    private int inputCount;
+
+    // opponent commands, in the order they were given
+    private int[] commandTicks = new int[256];
+    private byte[] commands = new byte[256];
+    private int commandCount;
+
+    private int endTick = -1;
+
+    private int inputCursor;
+    private int commandCursor;
+    private int scriptCursor;
+    private int desyncTick = -1;
+
+    /**
+     * Reads a whole replay.
+     *
+     * @param in    the replay data; not closed
+     * @return  the decoded replay
+     *
+     * @throws IOException  if the data can't be read or isn't a replay
+     */
+    public static ReplayPlayback read(InputStream in) throws IOException {
+        return new ReplayPlayback(in.readAllBytes());
+    }
+
+    private ReplayPlayback(byte[] data) throws IOException {
+        Decoder decoder = new Decoder(data);
+
+        for (byte b : ReplayFormat.MAGIC) {
+            if (decoder.readByte() != b) {
+                throw new IOException("Not a replay file");
+            }
+        }
+        int version = decoder.readVarint();
+        if (version != ReplayFormat.VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+
+        long seed = 0;
+        for (int i = 0; i < 8; i++) {
+            seed = (seed << 8) | (decoder.readByte() & 0xFF);
+        }
+        this.seed = seed;
+        this.difficulty = readDifficulty(decoder);
+
+        int tick = 0;
+        while (decoder.hasMore()) {
+            int header = decoder.readVarint();
+            tick += header >>> ReplayFormat.KIND_BITS;
+
+            switch (header & ReplayFormat.KIND_MASK) {
+                case ReplayFormat.PLAYER_INPUTS -> addInput(tick, ReplayFormat.PLAYER_INPUTS, decoder.readVarint(), decoder.readVarint());
+                case ReplayFormat.DIFFICULTY -> addInput(tick, ReplayFormat.DIFFICULTY, readDifficulty(decoder).ordinal(), 0);
+                case ReplayFormat.OPPONENT_COMMAND -> addCommand(tick, decoder.readByte());
+                default -> endTick = tick;
+            }
+
+            if (endTick >= 0) {
+                break;
+            }
+        }
+    }
+
+    private static Difficulty readDifficulty(Decoder decoder) throws IOException {
+        int ordinal = decoder.readVarint();
+        if (ordinal >= Difficulty.values().length) {
+            throw new IOException("Unknown difficulty " + ordinal);
+        }
+        return Difficulty.values()[ordinal];
+    }
+
+    private void addInput(int tick, int kind, int value, int released) {
+        if (inputCount == inputTicks.length) {
+            int capacity = inputCount * 2;
+            inputTicks = Arrays.copyOf(inputTicks, capacity);
+            inputKinds = Arrays.copyOf(inputKinds, capacity);
+            inputValues = Arrays.copyOf(inputValues, capacity);
+            inputReleased = Arrays.copyOf(inputReleased, capacity);
+        }
+        inputTicks[inputCount] = tick;
+        inputKinds[inputCount] = (byte) kind;
+        inputValues[inputCount] = value;
+        inputReleased[inputCount] = released;
+        inputCount++;
+    }
+
+    private void addCommand(int tick, byte command) throws IOException {
+        if (command < 0 || command >= FighterCommand.values().length) {
+            throw new IOException("Unknown fighter command " + command);
+        }
+        if (commandCount == commandTicks.length) {
+            int capacity = commandCount * 2;
+            commandTicks = Arrays.copyOf(commandTicks, capacity);
+            commands = Arrays.copyOf(commands, capacity);
+        }
+        commandTicks[commandCount] = tick;
+        commands[commandCount] = command;
+        commandCount++;
+    }
+
+    /**
+     * Starts the playback over from the first tick.
+     */
+    public void rewind() {
+        inputCursor = 0;
+        commandCursor = 0;
+        scriptCursor = 0;
+        desyncTick = -1;
+    }
+
+    /**
+     * Applies everything recorded for the simulation's next tick: difficulty changes go straight to the simulation and
+     * player inputs are added to <code>inputs</code>.
+     *
+     * @param simulation    the simulation about to be stepped
+     * @param inputs        receives the recorded player inputs
+     */
+    public void readTick(MatchSimulation simulation, MatchInputs inputs) {
+        int tick = simulation.getTick();
+
+        // any command still expected from an earlier tick was never given
+        if (commandCursor < commandCount && commandTicks[commandCursor] < tick) {
+            desync(commandTicks[commandCursor]);
+        }
+
+        while (inputCursor < inputCount && inputTicks[inputCursor] <= tick) {
+            if (inputTicks[inputCursor] == tick) {
+                if (inputKinds[inputCursor] == ReplayFormat.DIFFICULTY) {
+                    simulation.setDifficulty(Difficulty.values()[inputValues[inputCursor]]);
+                } else {
+                    inputs.press(inputValues[inputCursor]);
+                    inputs.release(inputReleased[inputCursor]);
+                }
+            }
+            inputCursor++;
+        }
+    }
+
+    /**
+     * Gives the opponent the commands recorded for a tick. Used for opponents played by an {@link OpponentBrain},
+     * whose decisions can't be repeated from the seed; the commands are still checked as they are given.
+     *
+     * @param tick      the tick being played
+     * @param commander applies a command to the opponent
+     */
+    void scriptOpponent(int tick, OpponentAi.CommandListener commander) {
+        while (scriptCursor < commandCount && commandTicks[scriptCursor] <= tick) {
+            if (commandTicks[scriptCursor] == tick) {
+                commander.commandIssued(FighterCommand.values()[commands[scriptCursor]]);
+            }
+            scriptCursor++;
+        }
+    }
+
+    @Override
+    public void matchStarted(long seed, Difficulty difficulty) {
+        if (seed != this.seed) {
+            desync(0);
+        }
+    }
+
+    @Override
+    public void playerInputs(int tick, int pressed, int released) {
+        // player inputs come from this playback, so they always match
+    }
+
+    @Override
+    public void opponentCommand(int tick, FighterCommand command) {
+        if (commandCursor < commandCount
+                && commandTicks[commandCursor] == tick
+                && commands[commandCursor] == command.ordinal()) {
+            commandCursor++;
+        } else {
+            desync(tick);
+        }
+    }
+
+    @Override
+    public void difficultyChanged(int tick, Difficulty difficulty) {
+        // difficulty changes come from this playback, so they always match
+    }
+
+    @Override
+    public void matchEnded(int tick) {
+        if (endTick >= 0 && endTick != tick) {
+            desync(Math.min(endTick, tick));
+        }
+    }
+
+    private void desync(int tick) {
+        if (desyncTick < 0) {
+            desyncTick = tick;
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return  the opponent's difficulty at the start of the match
+     */
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * @return  the tick the recorded match ended on, or <code>-1</code> if it was abandoned
+     */
+    public int getEndTick() {
+        return endTick;
+    }
+
+    /**
+     * @return  <code>true</code> if every recorded input has been read
+     */
+    public boolean isFinished() {
+        return inputCursor == inputCount;
+    }
+
+    /**
+     * @return  <code>true</code> if the match has played out differently from the recording
+     */
+    public boolean isDesynced() {
+        return desyncTick >= 0;
+    }
+
+    /**
+     * @return  the first tick that played out differently from the recording, or <code>-1</code>
+     */
+    public int getDesyncTick() {
+        return desyncTick;
+    }
+
+    /**
+     * Reads varints and bytes from an in-memory replay.
+     */
+    private static class Decoder {
+        private final byte[] data;
+        private int position;
+
+        Decoder(byte[] data) {
+            this.data = data;
+        }
+
+        boolean hasMore() {
+            return position < data.length;
+        }
+
+        byte readByte() throws IOException {
+            if (position >= data.length) {
+                throw new IOException("Replay file is truncated");
+            }
+            return data[position++];
+        }
+
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in replay file");
+        }
+    }
+
+}
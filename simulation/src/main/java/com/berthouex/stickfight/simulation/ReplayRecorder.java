@@ -0,0 +1,114 @@
+package com.berthouex.stickfight.simulation;
+
+import java.io.Closeable;
+
+/**
+ * Records a match in the compact {@link ReplayFormat}. Events are encoded into a small buffer that is handed to a
+ * {@link ReplayWriter} whenever it fills up, and once more when the match ends.
+ */
+public class ReplayRecorder implements MatchRecorder, Closeable {
+    /** buffered bytes that trigger a hand-over to the writer; the longest event is well under the headroom left **/
+    private static final int FLUSH_SIZE = 1024;
+    private static final int BUFFER_SIZE = FLUSH_SIZE + 64;
+
+    private final ReplayWriter writer;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int size;
+    private int lastEventTick;
+    private boolean closed;
+
+    /**
+     * @param writer    writes the encoded replay; closed along with this recorder
+     */
+    public ReplayRecorder(ReplayWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void matchStarted(long seed, Difficulty difficulty) {
+        for (byte b : ReplayFormat.MAGIC) {
+            writeByte(b);
+        }
+        writeVarint(ReplayFormat.VERSION);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            writeByte((int) (seed >>> shift));
+        }
+        writeVarint(difficulty.ordinal());
+        lastEventTick = 0;
+    }
+
+    @Override
+    public void playerInputs(int tick, int pressed, int released) {
+        writeEventStart(tick, ReplayFormat.PLAYER_INPUTS);
+        writeVarint(pressed);
+        writeVarint(released);
+        flushIfFull();
+    }
+
+    @Override
+    public void opponentCommand(int tick, FighterCommand command) {
+        writeEventStart(tick, ReplayFormat.OPPONENT_COMMAND);
+        writeByte(command.ordinal());
+        flushIfFull();
+    }
+
+    @Override
+    public void difficultyChanged(int tick, Difficulty difficulty) {
+        writeEventStart(tick, ReplayFormat.DIFFICULTY);
+        writeVarint(difficulty.ordinal());
+        flushIfFull();
+    }
+
+    @Override
+    public void matchEnded(int tick) {
+        writeEventStart(tick, ReplayFormat.END);
+        close();
+    }
+
+    /**
+     * Hands over anything still buffered and closes the writer. Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        writer.write(buffer, size);
+        size = 0;
+        writer.close();
+    }
+
+    public ReplayWriter getWriter() {
+        return writer;
+    }
+
+    private void writeEventStart(int tick, int kind) {
+        writeVarint((tick - lastEventTick) << ReplayFormat.KIND_BITS | kind);
+        lastEventTick = tick;
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte(value);
+    }
+
+    private void writeByte(int value) {
+        if (closed) {
+            return;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    private void flushIfFull() {
+        if (size >= FLUSH_SIZE) {
+            writer.write(buffer, size);
+            size = 0;
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.berthouex.stickfight.simulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Writes replay data on a background thread, so the game never waits for the disk. Chunks are written in the order
+ * they are handed over.
+ */
+public class ReplayWriter implements Closeable {
+    private final Supplier<OutputStream> streamSupplier;
+    private final ExecutorService executor;
+
+    // only used on the writer thread
+    private OutputStream stream;
+    private volatile Exception error;
+
+    /**
+     * @param streamSupplier    opens the stream to write to; called on the writer thread when the first chunk arrives
+     */
+    public ReplayWriter(Supplier<OutputStream> streamSupplier) {
+        this.streamSupplier = streamSupplier;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replay-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues bytes to be written. The bytes are copied, so the array may be reused straight away.
+     *
+     * @param bytes     the bytes to write
+     * @param length    the number of bytes to write from the start of the array
+     */
+    public void write(byte[] bytes, int length) {
+        if (length == 0 || executor.isShutdown()) {
+            return;
+        }
+
+        byte[] chunk = Arrays.copyOf(bytes, length);
+        executor.execute(() -> writeChunk(chunk));
+    }
+
+    /**
+     * Closes the stream once everything queued so far has been written. Does not wait for the writes to finish.
+     */
+    @Override
+    public void close() {
+        if (executor.isShutdown()) {
+            return;
+        }
+
+        executor.execute(this::closeStream);
+        executor.shutdown();
+    }
+
+    /**
+     * @return  the first error the writer thread ran into, or <code>null</code>
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    private void writeChunk(byte[] chunk) {
+        if (error != null) {
+            return;
+        }
+
+        try {
+            if (stream == null) {
+                stream = streamSupplier.get();
+            }
+            stream.write(chunk);
+        } catch (IOException | RuntimeException e) {
+            error = e;
+        }
+    }
+
+    private void closeStream() {
+        if (stream == null) {
+            return;
+        }
+
+        try {
+            stream.close();
+        } catch (IOException e) {
+            if (error == null) {
+                error = e;
+            }
+        }
+    }
+
+}
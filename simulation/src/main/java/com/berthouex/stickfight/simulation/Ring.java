@@ -0,0 +1,41 @@
+package com.berthouex.stickfight.simulation;
+
+/**
+ * Bounds of the fighting ring, in world units.
+ */
+public class Ring {
+    public static final float RING_MIN_X = 7.0f;
+    public static final float RING_MAX_X = 60.0f;
+    public static final float RING_MIN_Y = 4.0f;
+    public static final float RING_MAX_Y = 22.0f;
+    public static final float RING_SLOPE = 3.16f;
+
+    private Ring() {
+
+    }
+
+    /**
+     * Restricts the given fighter to be within the Ring's bounds.
+     *
+     * @param fighter   a fighter to check
+     */
+    public static void keepWithinRingBounds(FighterModel fighter) {
+        float x = fighter.getPositionX();
+        float y = fighter.getPositionY();
+
+        if (y < RING_MIN_Y) {
+            y = RING_MIN_Y;
+        } else if (y > RING_MAX_Y) {
+            y = RING_MAX_Y;
+        }
+
+        if (x < (y / RING_SLOPE) + RING_MIN_X) {
+            x = (y / RING_SLOPE) + RING_MIN_X;
+        } else if (x > (y / -RING_SLOPE) + RING_MAX_X) {
+            x = (y / -RING_SLOPE) + RING_MAX_X;
+        }
+
+        fighter.setPosition(x, y);
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.berthouex.stickfight.simulation;
+
+/**
+ * A ring of {@link MatchSnapshot}s, one saved before every tick along with the inputs used for that tick. A match
+ * can be rolled back to any tick still in the ring, and re-simulated up to the present with
+ * {@link #resimulate(MatchSimulation, int)} once an earlier tick's inputs are corrected with
+ * {@link #setInputs(int, int, int)}. Nothing is allocated after construction.
+ */
+public class SnapshotBuffer {
+    private final MatchSnapshot[] snapshots;
+    private final int[] pressed;
+    private final int[] released;
+    private final MatchInputs resimulatedInputs = new MatchInputs();
+
+    private int oldestTick;
+    private int newestTick = -1;
+
+    /**
+     * @param capacity  the number of ticks to keep
+     */
+    public SnapshotBuffer(int capacity) {
+        snapshots = new MatchSnapshot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            snapshots[i] = new MatchSnapshot();
+        }
+        pressed = new int[capacity];
+        released = new int[capacity];
+    }
+
+    /**
+     * Forgets every saved tick, e.g. when a new match starts.
+     */
+    public void clear() {
+        oldestTick = 0;
+        newestTick = -1;
+    }
+
+    /**
+     * Saves the simulation's state before its next step, along with the inputs that step will use.
+     *
+     * @param simulation    the simulation about to be stepped
+     * @param inputs        the inputs it is about to be stepped with
+     */
+    public void save(MatchSimulation simulation, MatchInputs inputs) {
+        int tick = simulation.getTick();
+        if (newestTick < 0 || tick < oldestTick || tick > newestTick + 1) {
+            // the simulation jumped, e.g. it started a new match; saved ticks no longer lead here
+            oldestTick = tick;
+        }
+
+        int index = indexOf(tick);
+        simulation.saveSnapshot(snapshots[index]);
+        pressed[index] = inputs.getPressed();
+        released[index] = inputs.getReleased();
+
+        newestTick = tick;
+        oldestTick = Math.max(oldestTick, tick - snapshots.length + 1);
+    }
+
+    /**
+     * @param tick  a tick
+     * @return  <code>true</code> if the state before this tick is still saved
+     */
+    public boolean contains(int tick) {
+        return newestTick >= 0 && tick >= oldestTick && tick <= newestTick;
+    }
+
+    /**
+     * Puts the simulation back to how it was before the given tick. Later ticks stay saved until they are overwritten.
+     *
+     * @param simulation    the simulation to roll back
+     * @param tick          a tick that is still saved
+     *
+     * @throws IllegalArgumentException if the tick is no longer, or not yet, saved
+     */
+    public void restore(MatchSimulation simulation, int tick) {
+        checkContains(tick);
+        simulation.restoreSnapshot(snapshots[indexOf(tick)]);
+    }
+
+    /**
+     * Replaces the inputs saved for a tick, e.g. when a remote player's inputs for it arrive late.
+     *
+     * @param tick      a tick that is still saved
+     * @param pressed   {@link MatchInputs} flags pressed in that tick
+     * @param released  {@link MatchInputs} flags released in that tick
+     */
+    public void setInputs(int tick, int pressed, int released) {
+        checkContains(tick);
+        int index = indexOf(tick);
+        this.pressed[index] = pressed;
+        this.released[index] = released;
+    }
+
+    /**
+     * Rolls the simulation back to the given tick and steps it forward again to where it was, using the saved inputs.
+     * Every step fires the usual listener events and replaces the saved snapshots, so quiet the listener and recorder
+     * first if the steps shouldn't be seen or heard twice.
+     *
+     * @param simulation    the simulation to re-simulate
+     * @param fromTick      the first tick to simulate again
+     */
+    public void resimulate(MatchSimulation simulation, int fromTick) {
+        int toTick = simulation.getTick();
+        restore(simulation, fromTick);
+
+        for (int tick = fromTick; tick < toTick; tick++) {
+            int index = indexOf(tick);
+            resimulatedInputs.clear();
+            resimulatedInputs.press(pressed[index]);
+            resimulatedInputs.release(released[index]);
+
+            save(simulation, resimulatedInputs);
+            simulation.step(resimulatedInputs);
+        }
+    }
+
+    /**
+     * @return  the earliest tick that can be restored
+     */
+    public int getOldestTick() {
+        return oldestTick;
+    }
+
+    /**
+     * @return  the latest tick that can be restored, or <code>-1</code> if nothing has been saved
+     */
+    public int getNewestTick() {
+        return newestTick;
+    }
+
+    public int getCapacity() {
+        return snapshots.length;
+    }
+
+    private int indexOf(int tick) {
+        return tick % snapshots.length;
+    }
+
+    private void checkContains(int tick) {
+        if (!contains(tick)) {
+            throw new IllegalArgumentException("Tick " + tick + " is not saved");
+        }
+    }
+
+}
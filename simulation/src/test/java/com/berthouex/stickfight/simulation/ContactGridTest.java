@@ -0,0 +1,132 @@
+package com.berthouex.stickfight.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the pairs a {@link ContactGrid} visits with every pair found by testing each fighter against each other.
+ */
+class ContactGridTest {
+    private static final float REACH_X = Math.max(MatchSimulation.fighterContactDistanceX, FrameData.getDefault().getMaxReachX());
+    private static final float REACH_Y = Math.max(MatchSimulation.fighterContactDistanceY, FrameData.getDefault().getMaxReachY());
+
+    @Test
+    void visitsEveryPairInReachAcrossTheRing() {
+        MatchRandom random = new MatchRandom(1);
+        for (int round = 0; round < 50; round++) {
+            FighterModel[] fighters = randomFighters(random, ArenaSimulation.MAX_FIGHTERS,
+                Ring.RING_MIN_X, Ring.RING_MAX_X, Ring.RING_MIN_Y, Ring.RING_MAX_Y);
+            checkAgainstBruteForce(fighters);
+        }
+    }
+
+    @Test
+    void visitsEveryPairInReachWhenCrowded() {
+        // a small patch straddling cell borders, so most pairs are in reach
+        MatchRandom random = new MatchRandom(2);
+        for (int round = 0; round < 50; round++) {
+            float x = Ring.RING_MIN_X + random.nextFloat() * (Ring.RING_MAX_X - Ring.RING_MIN_X);
+            float y = Ring.RING_MIN_Y + random.nextFloat() * (Ring.RING_MAX_Y - Ring.RING_MIN_Y);
+            FighterModel[] fighters = randomFighters(random, 64, x - REACH_X, x + REACH_X, y - REACH_Y, y + REACH_Y);
+            checkAgainstBruteForce(fighters);
+        }
+    }
+
+    @Test
+    void nearestMatchesBruteForceWithinReach() {
+        MatchRandom random = new MatchRandom(3);
+        FighterModel[] fighters = randomFighters(random, ArenaSimulation.MAX_FIGHTERS,
+            Ring.RING_MIN_X, Ring.RING_MAX_X, Ring.RING_MIN_Y, Ring.RING_MAX_Y);
+        ContactGrid grid = new ContactGrid(fighters.length);
+        grid.rebuild(fighters);
+
+        for (int i = 0; i < fighters.length; i++) {
+            if (fighters[i].hasLost()) {
+                continue;
+            }
+
+            int nearest = -1;
+            float nearestDistance = Float.MAX_VALUE;
+            for (int j = 0; j < fighters.length; j++) {
+                if (j == i || fighters[j].hasLost() || !inReach(fighters[i], fighters[j])) {
+                    continue;
+                }
+                float distance = distanceSquared(fighters[i], fighters[j]);
+                if (distance < nearestDistance) {
+                    nearest = j;
+                    nearestDistance = distance;
+                }
+            }
+
+            int found = grid.nearest(fighters, i);
+            if (nearest >= 0) {
+                // the grid may find someone just out of reach in a neighbouring cell, but never anyone further away
+                assertTrue(found >= 0, "fighter " + i + " has someone in reach");
+                assertTrue(distanceSquared(fighters[i], fighters[found]) <= nearestDistance, "fighter " + i);
+            }
+        }
+    }
+
+    private static void checkAgainstBruteForce(FighterModel[] fighters) {
+        ContactGrid grid = new ContactGrid(fighters.length);
+        grid.rebuild(fighters);
+
+        Set<Long> visited = new HashSet<>();
+        grid.forEachPair((first, second) -> {
+            assertFalse(fighters[first].hasLost() || fighters[second].hasLost(), "fighters that lost aren't visited");
+            assertTrue(visited.add(pairKey(first, second)), "pair " + first + ", " + second + " is visited once");
+        });
+
+        int standing = 0;
+        for (int i = 0; i < fighters.length; i++) {
+            if (fighters[i].hasLost()) {
+                continue;
+            }
+            standing++;
+
+            for (int j = i + 1; j < fighters.length; j++) {
+                if (!fighters[j].hasLost() && inReach(fighters[i], fighters[j])) {
+                    assertTrue(visited.contains(pairKey(i, j)), "pair " + i + ", " + j + " in reach is visited");
+                }
+            }
+        }
+        assertEquals(standing, grid.getCount());
+    }
+
+    /**
+     * Fighters at random positions in the given area, about one in eight of them knocked out.
+     */
+    private static FighterModel[] randomFighters(MatchRandom random, int count, float minX, float maxX, float minY, float maxY) {
+        FighterModel[] fighters = new FighterModel[count];
+        for (int i = 0; i < count; i++) {
+            fighters[i] = new FighterModel();
+            fighters[i].getReady(minX + random.nextFloat() * (maxX - minX), minY + random.nextFloat() * (maxY - minY));
+            if (random.nextInt(8) == 0) {
+                fighters[i].lose();
+            }
+        }
+        return fighters;
+    }
+
+    private static boolean inReach(FighterModel first, FighterModel second) {
+        return Math.abs(first.getPositionX() - second.getPositionX()) <= REACH_X
+            && Math.abs(first.getPositionY() - second.getPositionY()) <= REACH_Y;
+    }
+
+    private static float distanceSquared(FighterModel first, FighterModel second) {
+        float dx = second.getPositionX() - first.getPositionX();
+        float dy = second.getPositionY() - first.getPositionY();
+        return dx * dx + dy * dy;
+    }
+
+    private static long pairKey(int first, int second) {
+        return (long) Math.min(first, second) << 32 | Math.max(first, second);
+    }
+
+}
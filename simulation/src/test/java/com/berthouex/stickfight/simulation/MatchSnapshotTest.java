@@ -0,0 +1,132 @@
+package com.berthouex.stickfight.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a restored {@link MatchSnapshot} carries on exactly as the match did the first time, which rollback and
+ * the {@link MonteCarloBrain}'s rollouts both rely on.
+ */
+class MatchSnapshotTest {
+    private static final long SEED = 0x5EEDL;
+    // with this seed the steps after the warm-up cover two hits, a knockout and the start of the next round
+    private static final Difficulty DIFFICULTY = Difficulty.EASY;
+    private static final int WARM_UP_TICKS = 600;
+    private static final int TICKS = 1200;
+
+    @Test
+    void restoredSnapshotStepsToTheSameState() {
+        MatchSimulation simulation = new MatchSimulation(new FighterModel(), new FighterModel(), DIFFICULTY);
+        MatchInputs inputs = new MatchInputs();
+        simulation.startMatch(SEED);
+        stepTo(simulation, inputs, null, WARM_UP_TICKS);
+
+        MatchSnapshot saved = new MatchSnapshot();
+        simulation.saveSnapshot(saved);
+        stepTo(simulation, inputs, null, WARM_UP_TICKS + TICKS);
+        MatchSnapshot first = new MatchSnapshot();
+        simulation.saveSnapshot(first);
+
+        simulation.restoreSnapshot(saved);
+        assertEquals(WARM_UP_TICKS, simulation.getTick());
+        stepTo(simulation, inputs, null, WARM_UP_TICKS + TICKS);
+        MatchSnapshot second = new MatchSnapshot();
+        simulation.saveSnapshot(second);
+
+        assertSameState(first, second);
+    }
+
+    @Test
+    void snapshotBufferRestoresAnyTickItHolds() {
+        MatchSimulation simulation = new MatchSimulation(new FighterModel(), new FighterModel(), DIFFICULTY);
+        SnapshotBuffer snapshots = new SnapshotBuffer(TICKS);
+        MatchInputs inputs = new MatchInputs();
+        simulation.startMatch(SEED);
+        stepTo(simulation, inputs, null, WARM_UP_TICKS);
+        stepTo(simulation, inputs, snapshots, WARM_UP_TICKS + TICKS);
+        MatchSnapshot first = new MatchSnapshot();
+        simulation.saveSnapshot(first);
+
+        int oldestTick = snapshots.getOldestTick();
+        assertEquals(WARM_UP_TICKS, oldestTick);
+        snapshots.restore(simulation, oldestTick);
+        stepTo(simulation, inputs, null, WARM_UP_TICKS + TICKS);
+        MatchSnapshot second = new MatchSnapshot();
+        simulation.saveSnapshot(second);
+
+        assertSameState(first, second);
+    }
+
+    /**
+     * Steps the match with scripted player inputs until it reaches the given tick.
+     *
+     * @param snapshots saves the state before every tick, as the game does, or <code>null</code>
+     */
+    private static void stepTo(MatchSimulation simulation, MatchInputs inputs, SnapshotBuffer snapshots, int tick) {
+        while (simulation.getTick() < tick && !simulation.isMatchOver()) {
+            scriptInputs(simulation.getTick(), inputs);
+            if (snapshots != null) {
+                snapshots.save(simulation, inputs);
+            }
+            simulation.step(inputs);
+        }
+        assertFalse(simulation.isMatchOver(), "the match should still be going");
+    }
+
+    /**
+     * Player inputs for a tick: skip the round delays, then walk towards the opponent and attack and block in turn so
+     * the fighters trade hits.
+     */
+    private static void scriptInputs(int tick, MatchInputs inputs) {
+        inputs.clear();
+        switch (tick % 90) {
+            case 0 -> inputs.press(MatchInputs.SKIP_DELAY | MatchInputs.RIGHT);
+            case 20 -> inputs.release(MatchInputs.RIGHT);
+            case 30 -> inputs.press(MatchInputs.PUNCH);
+            case 45 -> inputs.press(MatchInputs.KICK);
+            case 60 -> inputs.press(MatchInputs.BLOCK | MatchInputs.UP);
+            case 75 -> inputs.release(MatchInputs.BLOCK | MatchInputs.UP);
+            default -> { }
+        }
+    }
+
+    private static void assertSameState(MatchSnapshot expected, MatchSnapshot actual) {
+        assertEquals(expected.tick, actual.tick);
+        assertSameFighter(expected.player, actual.player);
+        assertSameFighter(expected.opponent, actual.opponent);
+
+        assertEquals(expected.roundsWon, actual.roundsWon);
+        assertEquals(expected.roundsLost, actual.roundsLost);
+        assertEquals(expected.roundTimer, actual.roundTimer);
+        assertEquals(expected.roundState, actual.roundState);
+        assertEquals(expected.roundStateTime, actual.roundStateTime);
+        assertEquals(expected.currentRound, actual.currentRound);
+        assertEquals(expected.matchOver, actual.matchOver);
+
+        assertEquals(expected.opponentAiTimer, actual.opponentAiTimer);
+        assertEquals(expected.opponentAiMakingContactDecision, actual.opponentAiMakingContactDecision);
+        assertEquals(expected.opponentAiPursuingPlayer, actual.opponentAiPursuingPlayer);
+        assertEquals(expected.randomState0, actual.randomState0);
+        assertEquals(expected.randomState1, actual.randomState1);
+        assertEquals(expected.effectsRandomState0, actual.effectsRandomState0);
+        assertEquals(expected.effectsRandomState1, actual.effectsRandomState1);
+        assertEquals(expected.cosmeticsRandomState0, actual.cosmeticsRandomState0);
+        assertEquals(expected.cosmeticsRandomState1, actual.cosmeticsRandomState1);
+        assertEquals(expected.opponentHeld, actual.opponentHeld);
+    }
+
+    private static void assertSameFighter(FighterModel expected, FighterModel actual) {
+        assertEquals(expected.getState(), actual.getState());
+        assertEquals(expected.getStateTime(), actual.getStateTime());
+        assertEquals(expected.getPositionX(), actual.getPositionX());
+        assertEquals(expected.getPositionY(), actual.getPositionY());
+        assertEquals(expected.getMovementDirectionX(), actual.getMovementDirectionX());
+        assertEquals(expected.getMovementDirectionY(), actual.getMovementDirectionY());
+        assertEquals(expected.getLife(), actual.getLife());
+        assertEquals(expected.getFacing(), actual.getFacing());
+        assertEquals(expected.hasMadeContact(), actual.hasMadeContact());
+    }
+
+}
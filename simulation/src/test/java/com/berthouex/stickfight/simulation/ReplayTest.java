@@ -0,0 +1,98 @@
+package com.berthouex.stickfight.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Records a seeded AI-vs-AI match with a {@link ReplayRecorder} and checks that a {@link ReplayPlayback} of it plays
+ * out the same way.
+ */
+class ReplayTest {
+    private static final long SEED = 0x5EEDL;
+    private static final Difficulty PLAYER = Difficulty.MEDIUM;
+    private static final Difficulty OPPONENT = Difficulty.HARD;
+
+    @Test
+    void recordedMatchPlaysBackWithoutDesync() throws IOException, InterruptedException {
+        // record
+        CountDownLatch written = new CountDownLatch(1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                written.countDown();
+            }
+        };
+        ReplayRecorder recorder = new ReplayRecorder(new ReplayWriter(() -> bytes));
+        MatchSimulation recorded = newMatch(OPPONENT, SEED);
+        recorded.setRecorder(recorder);
+        play(recorded, SEED, null);
+
+        // the recorder closes itself when the match ends; the writer finishes on its own thread
+        assertTrue(written.await(10, TimeUnit.SECONDS), "the replay should be written");
+        assertNull(recorder.getWriter().getError());
+
+        // play back
+        ReplayPlayback playback = ReplayPlayback.read(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(SEED, playback.getSeed());
+        assertEquals(OPPONENT, playback.getDifficulty());
+        assertEquals(recorded.getTick() - 1, playback.getEndTick());
+
+        MatchSimulation replayed = newMatch(playback.getDifficulty(), playback.getSeed());
+        replayed.setRecorder(playback);
+        play(replayed, playback.getSeed(), playback);
+
+        assertFalse(playback.isDesynced(), "the replay desynced at tick " + playback.getDesyncTick());
+        assertTrue(playback.isFinished());
+        assertEquals(recorded.getTick(), replayed.getTick());
+        assertEquals(recorded.getRoundsWon(), replayed.getRoundsWon());
+        assertEquals(recorded.getRoundsLost(), replayed.getRoundsLost());
+        assertEquals(recorded.getPlayer().getLife(), replayed.getPlayer().getLife());
+        assertEquals(recorded.getOpponent().getLife(), replayed.getOpponent().getLife());
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        byte[] data = new byte[ReplayFormat.MAGIC.length + 1];
+        System.arraycopy(ReplayFormat.MAGIC, 0, data, 0, ReplayFormat.MAGIC.length);
+        data[ReplayFormat.MAGIC.length] = (byte) (ReplayFormat.VERSION + 1);
+
+        IOException e = assertThrows(IOException.class, () -> ReplayPlayback.read(new ByteArrayInputStream(data)));
+        assertTrue(e.getMessage().contains("version"));
+    }
+
+    /**
+     * Sets up an AI-vs-AI match the way the {@link BatchRunner} does.
+     */
+    private static MatchSimulation newMatch(Difficulty opponent, long seed) {
+        MatchSimulation simulation = new MatchSimulation(new FighterModel(), new FighterModel(), opponent);
+        simulation.setPlayerAi(new OpponentAi(PLAYER, new MatchRandom(MatchRandom.streamSeed(seed, MatchRandom.Stream.PLAYER_AI))));
+        return simulation;
+    }
+
+    /**
+     * Plays the match to the end, reading the player's inputs from the playback if there is one.
+     */
+    private static void play(MatchSimulation simulation, long seed, ReplayPlayback playback) {
+        MatchInputs inputs = new MatchInputs();
+        simulation.startMatch(seed);
+        while (!simulation.isMatchOver()) {
+            inputs.clear();
+            if (playback != null) {
+                playback.readTick(simulation, inputs);
+            }
+            simulation.step(inputs);
+        }
+    }
+
+}